@@ -0,0 +1,305 @@
+// Streams inputs line by line from a reader, minimizes them on a worker pool, and writes one compact
+// machine-readable record per input line (NDJSON or TSV) in input order.
+// Input lines are either an expression ("ab(c'+d) + (a'd + c)'") or a minterm list given as
+// "numVars:m1,m2,..." (e.g. "4:0,4,8,9,12,13,15"). Either may end in '|' and the don't-cares: an
+// expression for the former ("ab + c | a'b'") and a row list for the latter ("4:0,4,8|1,2,3"). A row
+// that is both true and a don't-care is a don't-care.
+// Several outputs minimized together are separated by ';' ("ab + c; a'c" or "4:0,1,2;1,3|5").
+// Blank lines and lines starting with '#' are skipped.
+// A TSV record holds the line number, the input, the expression, its cubes, its literals, the number
+// of solutions and whether the result is minimal ("false" once a budget ran out and a fallback
+// finished it, as NDJSON's "minimal":false); a multi-output record has the same columns with the
+// '; ' joined expressions, the distinct product terms and the number of outputs in place of the
+// expression, cubes and solutions. A line that fails is the line number, the input, ERROR and the
+// message.
+// At most maxInFlight lines are read ahead of the writer: once that many are queued or running the
+// reader blocks, so memory stays bounded however large the input is.
+// Results can instead be written to a binary corpus (see ResultWriter); lines that fail or have
+// several outputs are then reported on standard error and left out.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+public class BatchMinimizer {
+
+	public enum Format { NDJSON, TSV }
+
+	private final Minimizer minimizer;
+	private final int numThreads;
+	private final int maxInFlight;
+	private final Format format;
+
+	public BatchMinimizer(Minimizer minimizer, int numThreads, int maxInFlight, Format format) {
+		if (numThreads < 1 || maxInFlight < 1) {
+			throw new IllegalArgumentException("numThreads and maxInFlight must be positive");
+		}
+		this.minimizer = minimizer;
+		this.numThreads = numThreads;
+		this.maxInFlight = maxInFlight;
+		this.format = format;
+	}
+
+	// runs the batch from the file, or from standard input if path is null, to standard output
+	public long run(String path) throws IOException, InterruptedException {
+		InputStream in = (path == null) ? System.in : new FileInputStream(path);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+		try {
+			return run(reader, writer);
+		} finally {
+			writer.flush();
+			if (path != null) { reader.close(); }
+		}
+	}
+
+	// runs the batch from the file, or from standard input if path is null, into a binary corpus
+	public long run(String path, Path output) throws IOException, InterruptedException {
+		InputStream in = (path == null) ? System.in : new FileInputStream(path);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+		try (ResultWriter writer = ResultWriter.create(output)) {
+			return run(reader, writer);
+		} finally {
+			if (path != null) { reader.close(); }
+		}
+	}
+
+	// minimizes every line of the reader and writes the records to the writer in input order;
+	// returns the number of records written
+	public long run(BufferedReader in, Writer out) throws IOException, InterruptedException {
+		return run(in, this::minimizeLine, record -> {
+			out.write(record);
+			out.write('\n');
+		});
+	}
+
+	// minimizes every line of the reader and writes the single-output results to the corpus in input
+	// order; returns the number of results written
+	public long run(BufferedReader in, ResultWriter out) throws IOException, InterruptedException {
+		return run(in, this::minimizeResult, out::write);
+	}
+
+	// writes one record; called from the single writer thread
+	private interface RecordSink<T> {
+		void write(T record) throws IOException;
+	}
+
+	// minimizes every line on the workers and hands the non-null records to the sink in input order
+	private <T> long run(BufferedReader in, BiFunction<Long, String, T> minimizeLine, RecordSink<T> sink)
+			throws IOException, InterruptedException {
+		ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+		ExecutorService writerThread = Executors.newSingleThreadExecutor();
+
+		// the queue holds the pending records in input order; its capacity is the back-pressure
+		BlockingQueue<Future<T>> pending = new ArrayBlockingQueue<Future<T>>(maxInFlight);
+		Future<T> endOfInput = CompletableFuture.completedFuture(null);
+
+		Future<Long> written = writerThread.submit(() -> {
+			long count = 0;
+			while (true) {
+				Future<T> next = pending.take();
+				if (next == endOfInput) { return count; }
+				T record = next.get();
+				if (record == null) { continue; }
+				sink.write(record);
+				count++;
+			}
+		});
+
+		try {
+			long lineNumber = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				String input = line.trim();
+				if (input.isEmpty() || input.startsWith("#")) { continue; }
+				final long num = lineNumber;
+				enqueue(pending, workers.submit(() -> minimizeLine.apply(num, input)), written);
+			}
+			enqueue(pending, endOfInput, written);
+			return written.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) { throw (IOException)cause; }
+			throw new IllegalStateException(cause);
+		} finally {
+			workers.shutdownNow();
+			writerThread.shutdownNow();
+		}
+	}
+
+	// waits for room in the queue, giving up if the writer has stopped
+	private static <T> void enqueue(BlockingQueue<Future<T>> pending, Future<T> record, Future<Long> written)
+			throws InterruptedException, ExecutionException {
+		while (!pending.offer(record, 100, TimeUnit.MILLISECONDS)) {
+			if (written.isDone()) {
+				written.get();
+				throw new IllegalStateException("Batch writer stopped before the end of the input");
+			}
+		}
+	}
+
+	// returns the record for one input line; errors become error records instead of failing the batch
+	String minimizeLine(long lineNumber, String input) {
+		try {
+			if (input.indexOf(BooleanExpression.OUTPUT_SEPARATOR) >= 0) {
+				return formatResult(lineNumber, input, minimizeOutputs(input));
+			}
+			return formatResult(lineNumber, input, minimize(input));
+		} catch (RuntimeException e) {
+			return formatError(lineNumber, input, e.getMessage() == null ? e.toString() : e.getMessage());
+		}
+	}
+
+	// returns the result for one input line, or null after reporting a line that failed or has
+	// several outputs
+	MinimizationResult minimizeResult(long lineNumber, String input) {
+		if (input.indexOf(BooleanExpression.OUTPUT_SEPARATOR) >= 0) {
+			System.err.println("line " + lineNumber + ": skipped, several outputs cannot be stored");
+			return null;
+		}
+		try {
+			return minimize(input);
+		} catch (RuntimeException e) {
+			System.err.println("line " + lineNumber + ": " + (e.getMessage() == null ? e.toString() : e.getMessage()));
+			return null;
+		}
+	}
+
+	// minimizes an expression or a "numVars:m1,m2,...|d1,d2,..." minterm list
+	MinimizationResult minimize(String input) {
+		return (input.indexOf(':') < 0) ? minimizer.minimize(input) : minimizer.minimizeMinterms(input);
+	}
+
+	// minimizes the ';' separated expressions, or minterm lists sharing one "numVars:" prefix, together
+	MultiOutputResult minimizeOutputs(String input) {
+		int colon = input.indexOf(':');
+		if (colon < 0) {
+			return minimizer.minimizeOutputs(BooleanExpression.splitOutputs(input));
+		}
+		int numVars = Integer.parseInt(input.substring(0, colon).trim());
+		List<String> outputs = BooleanExpression.splitOutputs(input.substring(colon + 1));
+		int[][] minterms = new int[outputs.size()][];
+		int[][] dontCares = new int[outputs.size()][];
+		for (int k = 0; k < outputs.size(); k++) {
+			String[] lists = BooleanExpression.splitDontCares(outputs.get(k));
+			minterms[k] = Minimizer.parseIntList(lists[0]);
+			dontCares[k] = (lists[1] == null) ? null : Minimizer.parseIntList(lists[1]);
+		}
+		return minimizer.minimizeOutputs(minterms, dontCares, numVars);
+	}
+
+	// returns the record for a successful minimization
+	String formatResult(long lineNumber, String input, MinimizationResult result) {
+		StringBuilder sb = new StringBuilder();
+		if (format == Format.TSV) {
+			sb.append(lineNumber).append('\t').append(tsv(input)).append('\t');
+			result.appendReducedExpression(sb, result.getImplicants());
+			sb.append('\t').append(result.getNumCubes()).append('\t').append(result.getNumLiterals())
+				.append('\t').append(result.getSolutions().size()).append('\t').append(!result.isBudgetExceeded());
+			return sb.toString();
+		}
+		sb.append("{\"line\":").append(lineNumber);
+		sb.append(",\"input\":");
+		appendJsonString(sb, input);
+		sb.append(",\"vars\":[");
+		for (int i = 0; i < result.getNumVars(); i++) {
+			if (i > 0) { sb.append(','); }
+			appendJsonString(sb, result.getVars().get(i));
+		}
+		// expressions only hold variable names, primes, parentheses and " + ", so they need no escaping
+		sb.append("],\"expr\":\"");
+		result.appendReducedExpression(sb, result.getImplicants());
+		sb.append('"');
+		if (result.isProductOfSums()) { sb.append(",\"form\":\"pos\""); }
+		if (result.isBudgetExceeded()) { sb.append(",\"minimal\":false"); }
+		sb.append(",\"cubes\":").append(result.getNumCubes());
+		sb.append(",\"literals\":").append(result.getNumLiterals());
+		sb.append(",\"solutions\":[");
+		List<List<String>> solutions = result.getSolutions();
+		for (int i = 0; i < solutions.size(); i++) {
+			if (i > 0) { sb.append(','); }
+			sb.append('"');
+			result.appendReducedExpression(sb, solutions.get(i));
+			sb.append('"');
+		}
+		sb.append("]}");
+		return sb.toString();
+	}
+
+	// returns the record for a successful multi-output minimization
+	String formatResult(long lineNumber, String input, MultiOutputResult result) {
+		StringBuilder sb = new StringBuilder();
+		List<String> exprs = result.getReducedExpressions();
+		if (format == Format.TSV) {
+			sb.append(lineNumber).append('\t').append(tsv(input)).append('\t').append(String.join("; ", exprs))
+				.append('\t').append(result.getNumProductTerms()).append('\t').append(result.getNumLiterals())
+				.append('\t').append(result.getNumOutputs()).append('\t').append(!result.isBudgetExceeded());
+			return sb.toString();
+		}
+		sb.append("{\"line\":").append(lineNumber);
+		sb.append(",\"input\":");
+		appendJsonString(sb, input);
+		sb.append(",\"vars\":[");
+		for (int i = 0; i < result.getNumVars(); i++) {
+			if (i > 0) { sb.append(','); }
+			appendJsonString(sb, result.getVars().get(i));
+		}
+		sb.append("],\"outputs\":[");
+		for (int k = 0; k < exprs.size(); k++) {
+			if (k > 0) { sb.append(','); }
+			appendJsonString(sb, exprs.get(k));
+		}
+		sb.append(']');
+		if (result.isBudgetExceeded()) { sb.append(",\"minimal\":false"); }
+		sb.append(",\"terms\":").append(result.getNumProductTerms());
+		sb.append(",\"literals\":").append(result.getNumLiterals());
+		sb.append('}');
+		return sb.toString();
+	}
+
+	// returns the record for an input that could not be minimized
+	String formatError(long lineNumber, String input, String message) {
+		StringBuilder sb = new StringBuilder();
+		if (format == Format.TSV) {
+			return sb.append(lineNumber).append('\t').append(tsv(input)).append("\tERROR\t").append(tsv(message)).toString();
+		}
+		sb.append("{\"line\":").append(lineNumber);
+		sb.append(",\"input\":");
+		appendJsonString(sb, input);
+		sb.append(",\"error\":");
+		appendJsonString(sb, message);
+		sb.append('}');
+		return sb.toString();
+	}
+
+	// replaces the characters that would break a TSV field
+	static String tsv(String s) {
+		return s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	// appends the string as a quoted JSON string
+	static void appendJsonString(StringBuilder sb, String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"': sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\n': sb.append("\\n"); break;
+				case '\r': sb.append("\\r"); break;
+				case '\t': sb.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int)c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		sb.append('"');
+	}
+}
@@ -0,0 +1,616 @@
+// Reduced ordered binary decision diagrams, for functions with too many variables for a truth table.
+// A Bdd is a manager owning every node; a function is just the int id of its root node, 0 and 1
+// being the constants. Nodes live in parallel int arrays (variable, low child, high child) and are
+// hash-consed through a unique table, so equal functions always get the same id and equivalence is a
+// single comparison. All operations go through ITE (if-then-else) with a direct-mapped computed
+// table caching its results.
+// Minterm counting, satisfiability and prime implicants are recursions over the nodes, never over
+// the 2^numVars rows.
+// Every node counts the references to it, from parent nodes and from callers (ref and deref), and
+// gc frees the nodes nobody references. The variable order can be improved by sifting (Rudell): each
+// variable in turn is moved through every level by swapping adjacent levels in place, and left where
+// the diagram was smallest. A swap rewrites the nodes of the upper level without changing the
+// function of any id, so callers' ids stay valid. Sifting runs on demand (reorder) or, with
+// setAutoReorder, whenever the node count has doubled since the last reordering. Variables keep
+// their indices whatever the order, so cubes and assignments always read in the original
+// (alphabetical) variable order.
+
+import java.math.BigInteger;
+import java.util.*;
+
+public class Bdd {
+
+	public static final int FALSE = 0;
+	public static final int TRUE = 1;
+
+	static final int DEFAULT_CACHE_SIZE = 1 << 16;
+	// live nodes before automatic reordering first runs
+	static final int DEFAULT_REORDER_THRESHOLD = 4096;
+	// sifting stops moving a variable in one direction once the diagram grows past this factor
+	static final double MAX_SIFT_GROWTH = 1.2;
+
+	private final int numVars;
+
+	// node storage; the terminals are nodes 0 and 1 with variable numVars
+	private int[] nodeVar;
+	private int[] nodeLow;
+	private int[] nodeHigh;
+	private int[] nodeNext;		// next node in the same unique table chain, -1 at the end; next free node for free nodes
+	private int[] nodeRef;		// references from parent nodes and callers
+	private int numNodes;		// nodes ever allocated, including the free ones
+	private int freeList = -1;	// free nodes (variable -1), chained through nodeNext
+	private int numFree;
+
+	// unique table: chains of nodes by hash of (var, low, high)
+	private int[] buckets;
+
+	// the position of each variable in the order, and the variable at each position
+	private final int[] levelOfVar;
+	private final int[] varAtLevel;
+
+	// ITE computed table, direct-mapped
+	private final int[] cacheF;
+	private final int[] cacheG;
+	private final int[] cacheH;
+	private final int[] cacheResult;
+
+	private boolean autoReorder;
+	private int reorderThreshold = DEFAULT_REORDER_THRESHOLD;
+	private int numReorderings;
+
+	// creates a manager for functions of numVars variables, ordered by index
+	public Bdd(int numVars) {
+		this(numVars, DEFAULT_CACHE_SIZE);
+	}
+
+	// creates a manager with an ITE cache of cacheSize entries (rounded up to a power of two)
+	public Bdd(int numVars, int cacheSize) {
+		if (numVars < 0) {
+			throw new IllegalArgumentException("numVars must not be negative");
+		}
+		this.numVars = numVars;
+		this.levelOfVar = new int[numVars + 1];
+		this.varAtLevel = new int[numVars + 1];
+		for (int v = 0; v <= numVars; v++) {
+			levelOfVar[v] = v;
+			varAtLevel[v] = v;
+		}
+
+		int capacity = 1024;
+		nodeVar = new int[capacity];
+		nodeLow = new int[capacity];
+		nodeHigh = new int[capacity];
+		nodeNext = new int[capacity];
+		nodeRef = new int[capacity];
+		buckets = new int[capacity];
+		Arrays.fill(buckets, -1);
+		for (int t = FALSE; t <= TRUE; t++) {
+			nodeVar[t] = numVars;
+			nodeLow[t] = t;
+			nodeHigh[t] = t;
+			nodeNext[t] = -1;
+		}
+		numNodes = 2;
+
+		int size = Integer.highestOneBit(Math.max(2, cacheSize - 1)) << 1;
+		cacheF = new int[size];
+		cacheG = new int[size];
+		cacheH = new int[size];
+		cacheResult = new int[size];
+		Arrays.fill(cacheF, -1);
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	// returns the number of nodes allocated, terminals included; nodes nobody references are counted
+	// until the next gc
+	public int getNumNodes() {
+		return numNodes - numFree;
+	}
+
+	// adds a reference to f, keeping it (and the nodes below it) through gc and reordering
+	public int ref(int f) {
+		nodeRef[f]++;
+		return f;
+	}
+
+	// removes a reference added with ref
+	public void deref(int f) {
+		if (nodeRef[f] <= 0) {
+			throw new IllegalStateException("Node " + f + " is not referenced");
+		}
+		nodeRef[f]--;
+	}
+
+	// frees every node that is no longer referenced, directly or from a referenced node; returns the
+	// number of live nodes
+	public int gc() {
+		for (int n = TRUE + 1; n < numNodes; n++) {
+			if (nodeVar[n] >= 0 && nodeRef[n] == 0) { free(n); }
+		}
+		Arrays.fill(cacheF, -1);
+		return getNumNodes();
+	}
+
+	// with automatic reordering on, the variables are sifted at the start of an operation once the
+	// node count has reached the threshold, which then doubles past the new count. Every function
+	// still needed afterwards must be referenced with ref, as unreferenced nodes are collected first
+	public void setAutoReorder(boolean autoReorder) {
+		this.autoReorder = autoReorder;
+	}
+
+	public boolean isAutoReorder() {
+		return autoReorder;
+	}
+
+	// sets the node count that triggers the next automatic reordering
+	public void setReorderThreshold(int reorderThreshold) {
+		this.reorderThreshold = reorderThreshold;
+	}
+
+	// returns how many times the variables have been sifted
+	public int getNumReorderings() {
+		return numReorderings;
+	}
+
+	// returns the variables from the top level of the diagram down
+	public int[] getOrder() {
+		return Arrays.copyOf(varAtLevel, numVars);
+	}
+
+	// returns the position of variable v in the order, 0 for the top
+	public int getLevelOfVar(int v) {
+		checkVar(v);
+		return levelOfVar[v];
+	}
+
+	// sifts every variable, most populous level first, to the level where the referenced functions
+	// have the fewest nodes; returns the number of live nodes afterwards
+	public int reorder() {
+		gc();
+		int[] count = new int[numVars];
+		for (int n = TRUE + 1; n < numNodes; n++) {
+			if (nodeVar[n] >= 0) { count[nodeVar[n]]++; }
+		}
+		Integer[] vars = new Integer[numVars];
+		for (int v = 0; v < numVars; v++) {
+			vars[v] = v;
+		}
+		Arrays.sort(vars, (x, y) -> count[y] - count[x]);
+		for (int v : vars) {
+			sift(v);
+		}
+		Arrays.fill(cacheF, -1);
+		numReorderings++;
+		return getNumNodes();
+	}
+
+	// moves variable v through every level, towards the nearer end first, and back to where the
+	// diagram was smallest
+	private void sift(int v) {
+		int bestLevel = levelOfVar[v];
+		int bestSize = getNumNodes();
+		int limit = (int)(bestSize * MAX_SIFT_GROWTH);
+		boolean downFirst = levelOfVar[v] >= numVars / 2;
+		for (int pass = 0; pass < 2; pass++) {
+			boolean down = (pass == 0) == downFirst;
+			while (down ? levelOfVar[v] < numVars - 1 : levelOfVar[v] > 0) {
+				swapLevels(down ? levelOfVar[v] : levelOfVar[v] - 1);
+				int size = getNumNodes();
+				if (size < bestSize) {
+					bestSize = size;
+					bestLevel = levelOfVar[v];
+				}
+				if (size > limit) { break; }
+			}
+		}
+		while (levelOfVar[v] < bestLevel) {
+			swapLevels(levelOfVar[v]);
+		}
+		while (levelOfVar[v] > bestLevel) {
+			swapLevels(levelOfVar[v] - 1);
+		}
+	}
+
+	// swaps the variables at levels i and i + 1 in place. Each node of the upper variable x with a
+	// child on the lower variable y is rewritten as a y node over two new x nodes:
+	//	  x ? (y ? f11 : f10) : (y ? f01 : f00)  =  y ? (x ? f11 : f01) : (x ? f10 : f00)
+	// so it keeps both its id and its function; every other node is left as it is
+	void swapLevels(int i) {
+		int x = varAtLevel[i];
+		int y = varAtLevel[i + 1];
+		ArrayList<Integer> xNodes = new ArrayList<Integer>();
+		for (int n = TRUE + 1; n < numNodes; n++) {
+			if (nodeVar[n] == x) { xNodes.add(n); }
+		}
+
+		for (int f : xNodes) {
+			int f0 = nodeLow[f];
+			int f1 = nodeHigh[f];
+			boolean y0 = nodeVar[f0] == y;
+			boolean y1 = nodeVar[f1] == y;
+			if (!y0 && !y1) { continue; }
+			int f00 = y0 ? nodeLow[f0] : f0;
+			int f01 = y0 ? nodeHigh[f0] : f0;
+			int f10 = y1 ? nodeLow[f1] : f1;
+			int f11 = y1 ? nodeHigh[f1] : f1;
+
+			removeFromUniqueTable(f);
+			int low = ref(mk(x, f00, f10));
+			int high = ref(mk(x, f01, f11));
+			release(f0);
+			release(f1);
+			nodeVar[f] = y;
+			nodeLow[f] = low;
+			nodeHigh[f] = high;
+			addToUniqueTable(f);
+		}
+
+		levelOfVar[x] = i + 1;
+		levelOfVar[y] = i;
+		varAtLevel[i] = y;
+		varAtLevel[i + 1] = x;
+	}
+
+	// reorders first if automatic reordering is on and the node count reached the threshold; the
+	// operands are protected while it runs
+	private void maybeReorder(int f, int g, int h) {
+		if (!autoReorder || getNumNodes() < reorderThreshold) { return; }
+		ref(f);
+		ref(g);
+		ref(h);
+		reorder();
+		deref(f);
+		deref(g);
+		deref(h);
+		reorderThreshold = Math.max(reorderThreshold, 2 * getNumNodes());
+	}
+
+	// returns the variable tested by a node (numVars for the terminals)
+	public int getVar(int f) {
+		return nodeVar[f];
+	}
+
+	// returns the child taken when the node's variable is 0
+	public int getLow(int f) {
+		return nodeLow[f];
+	}
+
+	// returns the child taken when the node's variable is 1
+	public int getHigh(int f) {
+		return nodeHigh[f];
+	}
+
+	// returns the function of variable v
+	public int var(int v) {
+		checkVar(v);
+		return mk(v, FALSE, TRUE);
+	}
+
+	// returns the function of the complement of variable v
+	public int nvar(int v) {
+		checkVar(v);
+		return mk(v, TRUE, FALSE);
+	}
+
+	public int not(int f) {
+		return ite(f, FALSE, TRUE);
+	}
+
+	public int and(int f, int g) {
+		return ite(f, g, FALSE);
+	}
+
+	public int or(int f, int g) {
+		return ite(f, TRUE, g);
+	}
+
+	public int xor(int f, int g) {
+		return ite(f, not(g), g);
+	}
+
+	// returns the function "if f then g else h"
+	public int ite(int f, int g, int h) {
+		maybeReorder(f, g, h);
+		return iteRec(f, g, h);
+	}
+
+	private int iteRec(int f, int g, int h) {
+		// terminal cases
+		if (f == TRUE) { return g; }
+		if (f == FALSE) { return h; }
+		if (g == h) { return g; }
+		if (g == TRUE && h == FALSE) { return f; }
+
+		int slot = cacheSlot(f, g, h);
+		if (cacheF[slot] == f && cacheG[slot] == g && cacheH[slot] == h) { return cacheResult[slot]; }
+
+		// split on the topmost variable of the three
+		int level = Math.min(getLevel(f), Math.min(getLevel(g), getLevel(h)));
+		int v = varAtLevel[level];
+		int low = iteRec(cofactor(f, level, false), cofactor(g, level, false), cofactor(h, level, false));
+		int high = iteRec(cofactor(f, level, true), cofactor(g, level, true), cofactor(h, level, true));
+		int ret = mk(v, low, high);
+
+		cacheF[slot] = f;
+		cacheG[slot] = g;
+		cacheH[slot] = h;
+		cacheResult[slot] = ret;
+		return ret;
+	}
+
+	// returns f with variable v fixed to the given value
+	public int restrict(int f, int v, boolean value) {
+		checkVar(v);
+		maybeReorder(f, f, f);
+		return restrict(f, levelOfVar[v], value, new HashMap<Integer, Integer>());
+	}
+
+	private int restrict(int f, int level, boolean value, HashMap<Integer, Integer> memo) {
+		if (getLevel(f) > level) { return f; }
+		if (getLevel(f) == level) { return value ? nodeHigh[f] : nodeLow[f]; }
+		Integer cached = memo.get(f);
+		if (cached != null) { return cached; }
+		int ret = mk(nodeVar[f], restrict(nodeLow[f], level, value, memo), restrict(nodeHigh[f], level, value, memo));
+		memo.put(f, ret);
+		return ret;
+	}
+
+	// returns the function of the compiled expression, whose variable i becomes variable i here; the
+	// values on the evaluation stack stay referenced while it runs, so it may reorder along the way
+	public int fromExpression(BooleanExpression expr) {
+		if (expr.getNumVars() > numVars) {
+			throw new IllegalArgumentException("Expression has " + expr.getNumVars() + " variables, the manager " + numVars);
+		}
+		int[] program = expr.getProgram();
+		int[] stack = new int[Math.max(1, expr.getMaxStackDepth())];
+		int sp = 0;
+		for (int instr : program) {
+			switch (instr & BooleanExpression.OP_MASK) {
+				case BooleanExpression.OP_VAR:
+					stack[sp++] = ref(var(instr >>> BooleanExpression.OP_BITS));
+					break;
+				case BooleanExpression.OP_NOT:
+					stack[sp - 1] = replace(stack[sp - 1], not(stack[sp - 1]));
+					break;
+				case BooleanExpression.OP_AND:
+					sp--;
+					stack[sp - 1] = replace(stack[sp - 1], and(stack[sp - 1], stack[sp]));
+					deref(stack[sp]);
+					break;
+				default:
+					sp--;
+					stack[sp - 1] = replace(stack[sp - 1], or(stack[sp - 1], stack[sp]));
+					deref(stack[sp]);
+					break;
+			}
+		}
+		deref(stack[0]);
+		return stack[0];
+	}
+
+	// references the new value and drops the reference to the old one
+	private int replace(int old, int f) {
+		ref(f);
+		deref(old);
+		return f;
+	}
+
+	// returns true if f and g are the same function; hash-consing makes this an id comparison
+	public boolean isEquivalent(int f, int g) {
+		return f == g;
+	}
+
+	// returns the value of f for the assignment, where assignment[v] is the value of variable v
+	public boolean evaluate(int f, boolean[] assignment) {
+		while (f > TRUE) {
+			f = assignment[nodeVar[f]] ? nodeHigh[f] : nodeLow[f];
+		}
+		return f == TRUE;
+	}
+
+	// returns the number of assignments of all numVars variables for which f is true
+	public BigInteger satCount(int f) {
+		return satCount(f, new HashMap<Integer, BigInteger>()).shiftLeft(getLevel(f));
+	}
+
+	// returns the number of satisfying assignments of the variables from f's level down
+	private BigInteger satCount(int f, HashMap<Integer, BigInteger> memo) {
+		if (f == FALSE) { return BigInteger.ZERO; }
+		if (f == TRUE) { return BigInteger.ONE; }
+		BigInteger cached = memo.get(f);
+		if (cached != null) { return cached; }
+		int level = getLevel(f);
+		BigInteger low = satCount(nodeLow[f], memo).shiftLeft(getLevel(nodeLow[f]) - level - 1);
+		BigInteger high = satCount(nodeHigh[f], memo).shiftLeft(getLevel(nodeHigh[f]) - level - 1);
+		BigInteger ret = low.add(high);
+		memo.put(f, ret);
+		return ret;
+	}
+
+	// returns one satisfying cube of f as a '0'/'1'/'-' string indexed by variable, or null if f is
+	// unsatisfiable; every variable off the chosen path is left as a dash
+	public String anySat(int f) {
+		if (f == FALSE) { return null; }
+		char[] ret = new char[numVars];
+		Arrays.fill(ret, '-');
+		// every node other than FALSE has a path to TRUE, so any non-FALSE child will do
+		while (f != TRUE) {
+			if (nodeLow[f] != FALSE) {
+				ret[nodeVar[f]] = '0';
+				f = nodeLow[f];
+			} else {
+				ret[nodeVar[f]] = '1';
+				f = nodeHigh[f];
+			}
+		}
+		return new String(ret);
+	}
+
+	// returns the number of nodes reachable from f, terminals included
+	public int size(int f) {
+		HashSet<Integer> seen = new HashSet<Integer>();
+		ArrayDeque<Integer> todo = new ArrayDeque<Integer>();
+		todo.push(f);
+		while (!todo.isEmpty()) {
+			int n = todo.pop();
+			if (!seen.add(n) || n <= TRUE) { continue; }
+			todo.push(nodeLow[n]);
+			todo.push(nodeHigh[n]);
+		}
+		return seen.size();
+	}
+
+	// returns every prime implicant of f, using the recursion
+	//	  primes(f) = primes(f0 f1) + x'(primes(f0) - primes(f0 f1)) + x(primes(f1) - primes(f0 f1))
+	// where f0 and f1 are the cofactors of f by its top variable x; there can be exponentially many
+	public Cover primeImplicants(int f) {
+		if (numVars > Cover.MAX_VARS) {
+			throw new IllegalArgumentException("Covers support at most " + Cover.MAX_VARS + " variables, got " + numVars);
+		}
+		return primeImplicants(f, new HashMap<Integer, Cover>());
+	}
+
+	private Cover primeImplicants(int f, HashMap<Integer, Cover> memo) {
+		if (f == FALSE) { return new Cover(numVars); }
+		if (f == TRUE) { return Cover.universe(numVars); }
+		Cover cached = memo.get(f);
+		if (cached != null) { return cached; }
+
+		int v = nodeVar[f];
+		long bit = 1L << (numVars - 1 - v);
+		Cover both = primeImplicants(iteRec(nodeLow[f], nodeHigh[f], FALSE), memo);
+		HashSet<List<Long>> inBoth = new HashSet<List<Long>>();
+		for (int i = 0; i < both.size(); i++) {
+			inBoth.add(Arrays.asList(both.getValue(i), both.getMask(i)));
+		}
+
+		Cover ret = new Cover(both);
+		addWithLiteral(ret, primeImplicants(nodeLow[f], memo), inBoth, bit, 0);
+		addWithLiteral(ret, primeImplicants(nodeHigh[f], memo), inBoth, bit, bit);
+		memo.put(f, ret);
+		return ret;
+	}
+
+	// appends to ret every cube of primes not in inBoth, with the variable of bit set to value
+	private static void addWithLiteral(Cover ret, Cover primes, HashSet<List<Long>> inBoth, long bit, long value) {
+		for (int i = 0; i < primes.size(); i++) {
+			if (inBoth.contains(Arrays.asList(primes.getValue(i), primes.getMask(i)))) { continue; }
+			ret.add(primes.getValue(i) | value, primes.getMask(i) & ~bit);
+		}
+	}
+
+	// returns the position of f's variable in the order, numVars for the terminals
+	int getLevel(int f) {
+		return levelOfVar[nodeVar[f]];
+	}
+
+	// returns the cofactor of f for the variable at the given level, which must not be below f's
+	private int cofactor(int f, int level, boolean value) {
+		if (getLevel(f) != level) { return f; }
+		return value ? nodeHigh[f] : nodeLow[f];
+	}
+
+	// returns the node (v, low, high), reusing an equal one and skipping redundant tests; a new node
+	// references its children and starts with no references itself
+	int mk(int v, int low, int high) {
+		if (low == high) { return low; }
+		int b = hash(v, low, high) & (buckets.length - 1);
+		for (int n = buckets[b]; n >= 0; n = nodeNext[n]) {
+			if (nodeVar[n] == v && nodeLow[n] == low && nodeHigh[n] == high) { return n; }
+		}
+
+		int n;
+		if (freeList >= 0) {
+			n = freeList;
+			freeList = nodeNext[n];
+			numFree--;
+		} else {
+			if (numNodes == nodeVar.length) { grow(); }
+			n = numNodes++;
+		}
+		nodeVar[n] = v;
+		nodeLow[n] = low;
+		nodeHigh[n] = high;
+		nodeRef[n] = 0;
+		nodeRef[low]++;
+		nodeRef[high]++;
+		addToUniqueTable(n);
+		return n;
+	}
+
+	// drops a reference held by a node, freeing the child if that was the last one
+	private void release(int f) {
+		nodeRef[f]--;
+		if (f > TRUE && nodeRef[f] == 0) { free(f); }
+	}
+
+	// frees an unreferenced node and every node only it referenced
+	private void free(int f) {
+		ArrayDeque<Integer> todo = new ArrayDeque<Integer>();
+		todo.push(f);
+		while (!todo.isEmpty()) {
+			int n = todo.pop();
+			removeFromUniqueTable(n);
+			for (int child : new int[] { nodeLow[n], nodeHigh[n] }) {
+				nodeRef[child]--;
+				if (child > TRUE && nodeRef[child] == 0) { todo.push(child); }
+			}
+			nodeVar[n] = -1;
+			nodeNext[n] = freeList;
+			freeList = n;
+			numFree++;
+		}
+	}
+
+	private void addToUniqueTable(int n) {
+		int b = hash(nodeVar[n], nodeLow[n], nodeHigh[n]) & (buckets.length - 1);
+		nodeNext[n] = buckets[b];
+		buckets[b] = n;
+	}
+
+	private void removeFromUniqueTable(int n) {
+		int b = hash(nodeVar[n], nodeLow[n], nodeHigh[n]) & (buckets.length - 1);
+		if (buckets[b] == n) {
+			buckets[b] = nodeNext[n];
+			return;
+		}
+		int prev = buckets[b];
+		while (nodeNext[prev] != n) {
+			prev = nodeNext[prev];
+		}
+		nodeNext[prev] = nodeNext[n];
+	}
+
+	// doubles the node storage and rehashes the unique table to match; only called with no free nodes
+	private void grow() {
+		int capacity = nodeVar.length * 2;
+		nodeVar = Arrays.copyOf(nodeVar, capacity);
+		nodeLow = Arrays.copyOf(nodeLow, capacity);
+		nodeHigh = Arrays.copyOf(nodeHigh, capacity);
+		nodeNext = Arrays.copyOf(nodeNext, capacity);
+		nodeRef = Arrays.copyOf(nodeRef, capacity);
+		buckets = new int[capacity];
+		Arrays.fill(buckets, -1);
+		for (int n = TRUE + 1; n < numNodes; n++) {
+			addToUniqueTable(n);
+		}
+	}
+
+	private int cacheSlot(int f, int g, int h) {
+		return hash(f, g, h) & (cacheF.length - 1);
+	}
+
+	private static int hash(int a, int b, int c) {
+		int h = a * 0x9E3779B1 + b * 0x85EBCA77 + c * 0xC2B2AE3D;
+		return h ^ (h >>> 15);
+	}
+
+	private void checkVar(int v) {
+		if (v < 0 || v >= numVars) {
+			throw new IllegalArgumentException("Variable " + v + " out of range for " + numVars + " variables");
+		}
+	}
+}
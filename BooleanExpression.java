@@ -0,0 +1,419 @@
+// A boolean expression compiled once into a flat postfix program over an int variable assignment.
+// Evaluating the program for a row of the truth table is then a single allocation-free loop,
+// instead of substituting the variables and reducing the string with regular expressions every time.
+//
+// Grammar (variables are the lowercase letters a-z; whitespace between tokens is skipped):
+//	  expr    := term ('+' term)*
+//	  term    := factor factor*
+//	  factor  := primary '\''*
+//	  primary := letter | '(' expr ')' | '[' expr ']'
+// A function may be followed by '|' and a second expression giving its don't-care rows; see
+// splitDontCares, each side is compiled on its own. Several functions are separated by ';'.
+// The compiler is a single left-to-right recursive descent pass. Input that does not match the
+// grammar throws an ExpressionSyntaxException naming the position of the first bad character, and
+// expressions longer than MAX_LENGTH or nested deeper than MAX_NESTING are refused before they can
+// use up the time or the stack of the thread compiling them. checkSyntax does the same for a whole
+// input line, separators included.
+
+import java.util.*;
+
+public class BooleanExpression {
+
+	// opcodes, stored in the low two bits of each instruction; the rest of the bits hold the operand
+	static final int OP_VAR = 0;
+	static final int OP_NOT = 1;
+	static final int OP_AND = 2;
+	static final int OP_OR = 3;
+	static final int OP_BITS = 2;
+	static final int OP_MASK = (1 << OP_BITS) - 1;
+
+	// the longest expression, and the deepest nesting of brackets, the compiler accepts
+	public static final int MAX_LENGTH = 1 << 20;
+	public static final int MAX_NESTING = 256;
+
+	// separates a function from the expression of its don't-care rows, as in "ab + c | a'b'"
+	public static final char DONT_CARE_SEPARATOR = '|';
+	// separates the functions of a multi-output input, as in "ab + c; a'c"
+	public static final char OUTPUT_SEPARATOR = ';';
+
+	private final String expr;
+	private final ArrayList<String> vars;
+	private final int numVars;
+	private final int[] program;
+	private final int maxStackDepth;
+
+	// used only while compiling
+	private int pos;
+	private int depth;
+	private int[] varIndexForChar;
+	private int[] code;
+	private int codeSize;
+
+	// compiles the expression for the given variables, where vars.get(0) is the most significant bit
+	// of an assignment (the same order getNBitStringForInt uses for the truth table keys)
+	public BooleanExpression(String expr, ArrayList<String> vars) {
+		this.expr = expr;
+		this.vars = new ArrayList<String>(vars);
+		this.numVars = vars.size();
+
+		if (expr.length() > MAX_LENGTH) {
+			throw new ExpressionSyntaxException("Expression longer than " + MAX_LENGTH + " characters", expr, MAX_LENGTH);
+		}
+		varIndexForChar = new int[128];
+		Arrays.fill(varIndexForChar, -1);
+		for (int i = 0; i < numVars; i++) {
+			char c = vars.get(i).charAt(0);
+			if (!isVarChar(c)) {
+				throw new IllegalArgumentException("Variables must be letters a-z, got " + vars.get(i));
+			}
+			varIndexForChar[c] = i;
+		}
+
+		code = new int[Math.max(16, expr.length())];
+		pos = 0;
+		depth = 0;
+		compileExpr();
+		if (peek() != 0 || pos != expr.length()) {
+			throw new ExpressionSyntaxException("Unexpected '" + expr.charAt(pos) + "'", expr, pos);
+		}
+
+		program = Arrays.copyOf(code, codeSize);
+		maxStackDepth = getMaxStackDepth(program);
+		code = null;
+		varIndexForChar = null;
+	}
+
+	// splits "f | d" into the function f and the expression d of its don't-care rows; the second
+	// element is null when there is no '|'
+	public static String[] splitDontCares(String expr) {
+		int bar = expr.indexOf(DONT_CARE_SEPARATOR);
+		if (bar < 0) { return new String[] { expr, null }; }
+		if (expr.indexOf(DONT_CARE_SEPARATOR, bar + 1) >= 0) {
+			throw new ExpressionSyntaxException("Unexpected second '" + DONT_CARE_SEPARATOR + "'", expr, expr.indexOf(DONT_CARE_SEPARATOR, bar + 1));
+		}
+		return new String[] { expr.substring(0, bar), expr.substring(bar + 1) };
+	}
+
+	// compiles every expression of an input line (outputs separated by ';', each optionally followed
+	// by '|' and its don't-cares) over the letters of the whole line, throwing an
+	// ExpressionSyntaxException whose position is in input at the first error
+	public static void checkSyntax(String input) {
+		ArrayList<String> vars = getVarsInAlpha(input);
+		int start = 0;
+		while (true) {
+			int end = input.indexOf(OUTPUT_SEPARATOR, start);
+			if (end < 0) { end = input.length(); }
+			int bar = input.indexOf(DONT_CARE_SEPARATOR, start);
+			if (bar < 0 || bar > end) {
+				checkSyntax(input, start, end, vars);
+			} else {
+				int second = input.indexOf(DONT_CARE_SEPARATOR, bar + 1);
+				if (second >= 0 && second < end) {
+					throw new ExpressionSyntaxException("Unexpected second '" + DONT_CARE_SEPARATOR + "'", input, second);
+				}
+				checkSyntax(input, start, bar, vars);
+				checkSyntax(input, bar + 1, end, vars);
+			}
+			if (end == input.length()) { return; }
+			start = end + 1;
+		}
+	}
+
+	// compiles input[start, end), moving the position of any error to where it is in input
+	private static void checkSyntax(String input, int start, int end, ArrayList<String> vars) {
+		try {
+			new BooleanExpression(input.substring(start, end), vars);
+		} catch (ExpressionSyntaxException e) {
+			throw new ExpressionSyntaxException(e.getReason(), input, start + e.getPosition());
+		}
+	}
+
+	// splits "f1; f2; ..." into the expressions of each output
+	public static List<String> splitOutputs(String expr) {
+		return Arrays.asList(expr.split(String.valueOf(OUTPUT_SEPARATOR), -1));
+	}
+
+	// returns the expression lowercase with all whitespace removed, the form the compiler expects
+	public static String normalize(String expr) {
+		return expr.trim().toLowerCase().replaceAll("\\s", "");
+	}
+
+	// return a string ArrayList containing the unique characters (variables) used in a boolean expression
+	// return the array of letters in alphabetical order
+	public static ArrayList<String> getVarsInAlpha(String expr) {
+		TreeSet<String> charSet = new TreeSet<String>();
+		for (int i = 0; i < expr.length(); i++) {
+			if (isVarChar(expr.charAt(i))) {
+				charSet.add(String.valueOf(expr.charAt(i)));
+			}
+		}
+		return new ArrayList<String>(charSet);
+	}
+
+	// returns the expression this program was compiled from
+	public String getExpr() {
+		return expr;
+	}
+
+	// returns the variables in the order used for assignments
+	public ArrayList<String> getVars() {
+		return new ArrayList<String>(vars);
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	// returns a copy of the postfix program
+	public int[] getProgram() {
+		return program.clone();
+	}
+
+	// returns the truth value of the expression for a bit string such as "0101"
+	public boolean evaluate(String bits) {
+		int assignment = 0;
+		for (int i = 0; i < bits.length(); i++) {
+			assignment = (assignment << 1) | (bits.charAt(i) == '1' ? 1 : 0);
+		}
+		return evaluate(assignment);
+	}
+
+	// returns the truth value of the expression for the given assignment, where bit (numVars - 1 - i)
+	// holds the value of vars.get(i)
+	public boolean evaluate(int assignment) {
+		if (maxStackDepth > 64) { return evaluateDeep(assignment); }
+
+		// the stack of intermediate values lives in the bits of a long, top of stack in bit 0
+		long stack = 0;
+		for (int i = 0; i < program.length; i++) {
+			int instr = program[i];
+			switch (instr & OP_MASK) {
+				case OP_VAR:
+					stack = (stack << 1) | ((assignment >>> (numVars - 1 - (instr >>> OP_BITS))) & 1);
+					break;
+				case OP_NOT:
+					stack ^= 1;
+					break;
+				case OP_AND: {
+					long top = stack & 1;
+					stack >>>= 1;
+					stack &= ~1L | top;
+					break;
+				}
+				default: {
+					long top = stack & 1;
+					stack >>>= 1;
+					stack |= top;
+					break;
+				}
+			}
+		}
+		return (stack & 1) == 1;
+	}
+
+	// returns 64 rows of the truth table at once: bit j of the result is the value of the expression for
+	// assignment (64 * wordIndex + j); stack must have room for getMaxStackDepth() values
+	public long evaluateWord(int wordIndex, long[] stack) {
+		int sp = 0;
+		for (int i = 0; i < program.length; i++) {
+			int instr = program[i];
+			switch (instr & OP_MASK) {
+				case OP_VAR:
+					stack[sp++] = getVarPattern(numVars - 1 - (instr >>> OP_BITS), wordIndex);
+					break;
+				case OP_NOT:
+					stack[sp - 1] = ~stack[sp - 1];
+					break;
+				case OP_AND:
+					sp--;
+					stack[sp - 1] &= stack[sp];
+					break;
+				default:
+					sp--;
+					stack[sp - 1] |= stack[sp];
+					break;
+			}
+		}
+		return stack[0];
+	}
+
+	// returns the largest number of values on the stack at once while running the program
+	public int getMaxStackDepth() {
+		return maxStackDepth;
+	}
+
+	// returns the expression as a sum of products, built by running the program over covers instead of
+	// bits; no truth table is enumerated, so this works for as many variables as a Cover holds
+	public Cover toCover() {
+		Cover[] stack = new Cover[Math.max(1, maxStackDepth)];
+		int sp = 0;
+		for (int i = 0; i < program.length; i++) {
+			int instr = program[i];
+			switch (instr & OP_MASK) {
+				case OP_VAR: {
+					long bit = 1L << (numVars - 1 - (instr >>> OP_BITS));
+					Cover literal = new Cover(numVars);
+					literal.add(bit, literal.getVarMask() & ~bit);
+					stack[sp++] = literal;
+					break;
+				}
+				case OP_NOT:
+					stack[sp - 1] = stack[sp - 1].complement();
+					break;
+				case OP_AND:
+					sp--;
+					stack[sp - 1] = stack[sp - 1].intersect(stack[sp]);
+					break;
+				default:
+					sp--;
+					stack[sp - 1].addAll(stack[sp]);
+					stack[sp - 1].removeContainedCubes();
+					break;
+			}
+		}
+		return stack[0];
+	}
+
+	// bit patterns of the six lowest assignment bits across the 64 assignments of a word
+	private static final long[] LOW_BIT_PATTERNS = {
+		0xAAAAAAAAAAAAAAAAL,
+		0xCCCCCCCCCCCCCCCCL,
+		0xF0F0F0F0F0F0F0F0L,
+		0xFF00FF00FF00FF00L,
+		0xFFFF0000FFFF0000L,
+		0xFFFFFFFF00000000L
+	};
+
+	// returns the values of assignment bit "bit" across the 64 assignments of the given word
+	static long getVarPattern(int bit, int wordIndex) {
+		if (bit < 6) { return LOW_BIT_PATTERNS[bit]; }
+		return ((wordIndex >>> (bit - 6)) & 1) == 1 ? -1L : 0L;
+	}
+
+	// fallback for expressions nested deeper than 64 levels, which need a real stack
+	private boolean evaluateDeep(int assignment) {
+		boolean[] stack = new boolean[maxStackDepth];
+		int sp = 0;
+		for (int i = 0; i < program.length; i++) {
+			int instr = program[i];
+			switch (instr & OP_MASK) {
+				case OP_VAR:
+					stack[sp++] = ((assignment >>> (numVars - 1 - (instr >>> OP_BITS))) & 1) == 1;
+					break;
+				case OP_NOT:
+					stack[sp - 1] = !stack[sp - 1];
+					break;
+				case OP_AND:
+					sp--;
+					stack[sp - 1] = stack[sp - 1] && stack[sp];
+					break;
+				default:
+					sp--;
+					stack[sp - 1] = stack[sp - 1] || stack[sp];
+					break;
+			}
+		}
+		return stack[0];
+	}
+
+	// returns the largest number of values on the stack at once while running the given program
+	static int getMaxStackDepth(int[] program) {
+		int depth = 0;
+		int max = 0;
+		for (int instr : program) {
+			int op = instr & OP_MASK;
+			if (op == OP_VAR) {
+				depth++;
+			} else if (op != OP_NOT) {
+				depth--;
+			}
+			max = Math.max(max, depth);
+		}
+		return max;
+	}
+
+	// expr := term ('+' term)*
+	private void compileExpr() {
+		compileTerm();
+		while (peek() == '+') {
+			pos++;
+			compileTerm();
+			emit(OP_OR);
+		}
+	}
+
+	// term := factor factor*
+	private void compileTerm() {
+		compileFactor();
+		while (startsFactor(peek())) {
+			compileFactor();
+			emit(OP_AND);
+		}
+	}
+
+	// factor := primary '\''*
+	private void compileFactor() {
+		compilePrimary();
+		int numNegations = 0;
+		while (peek() == '\'') {
+			numNegations++;
+			pos++;
+		}
+		// double negations cancel out
+		if (numNegations % 2 == 1) {
+			emit(OP_NOT);
+		}
+	}
+
+	// primary := letter | '(' expr ')' | '[' expr ']'
+	private void compilePrimary() {
+		char c = peek();
+		if (pos >= expr.length()) {
+			throw new ExpressionSyntaxException("Unexpected end of expression", expr, pos);
+		}
+		if (c == '(' || c == '[') {
+			char close = (c == '(') ? ')' : ']';
+			if (++depth > MAX_NESTING) {
+				throw new ExpressionSyntaxException("Brackets nested deeper than " + MAX_NESTING, expr, pos);
+			}
+			pos++;
+			compileExpr();
+			if (peek() != close || pos >= expr.length()) {
+				throw new ExpressionSyntaxException("Expected '" + close + "'", expr, pos);
+			}
+			pos++;
+			depth--;
+		} else if (c < varIndexForChar.length && varIndexForChar[c] >= 0) {
+			emit((varIndexForChar[c] << OP_BITS) | OP_VAR);
+			pos++;
+		} else {
+			throw new ExpressionSyntaxException("Unexpected '" + c + "'", expr, pos);
+		}
+	}
+
+	// skips whitespace and returns the next character, 0 at the end of the expression
+	private char peek() {
+		while (pos < expr.length() && Character.isWhitespace(expr.charAt(pos))) {
+			pos++;
+		}
+		return (pos < expr.length()) ? expr.charAt(pos) : 0;
+	}
+
+	// appends an instruction to the program, growing it as needed
+	private void emit(int instr) {
+		if (codeSize == code.length) {
+			code = Arrays.copyOf(code, 2 * code.length);
+		}
+		code[codeSize++] = instr;
+	}
+
+	// returns true if the character can begin a factor
+	private static boolean startsFactor(char c) {
+		return isVarChar(c) || c == '(' || c == '[';
+	}
+
+	// returns true if the character is one of the variable letters a-z
+	private static boolean isVarChar(char c) {
+		return c >= 'a' && c <= 'z';
+	}
+}
@@ -0,0 +1,17 @@
+// Thrown from inside the prime implicant and cover loops when a MinimizationBudget runs out. The
+// Minimizer catches it and falls back to a bounded method; other callers of QuineMcCluskey,
+// CoverSolver and Petrick see it only if they set limits themselves.
+
+public class BudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BudgetExceededException(String message) {
+		super(message);
+	}
+
+	// used by ForkJoinTask to rethrow an exception from a worker thread on the joining thread
+	public BudgetExceededException(Throwable cause) {
+		super(cause.getMessage(), cause);
+	}
+}
@@ -0,0 +1,326 @@
+// A list of cubes (a sum of products) over up to 63 variables, stored as parallel arrays of values
+// and don't-care masks with the same bit conventions as Cube. Implements the unate recursive
+// operations the heuristic minimizer is built on: cofactoring, tautology checking, cube containment
+// and complementation, none of which enumerate the 2^numVars rows of a truth table.
+
+import java.util.*;
+
+public class Cover {
+
+	public static final int MAX_VARS = 63;
+
+	private final int numVars;
+	private final long varMask;
+	private long[] values;
+	private long[] masks;
+	private int size;
+
+	// creates an empty cover (constant false) over the given number of variables
+	public Cover(int numVars) {
+		if (numVars < 0 || numVars > MAX_VARS) {
+			throw new IllegalArgumentException("Covers support at most " + MAX_VARS + " variables, got " + numVars);
+		}
+		this.numVars = numVars;
+		this.varMask = (1L << numVars) - 1;
+		this.values = new long[8];
+		this.masks = new long[8];
+	}
+
+	// returns a copy of the given cover
+	public Cover(Cover other) {
+		this.numVars = other.numVars;
+		this.varMask = other.varMask;
+		this.values = Arrays.copyOf(other.values, Math.max(8, other.size));
+		this.masks = Arrays.copyOf(other.masks, Math.max(8, other.size));
+		this.size = other.size;
+	}
+
+	// returns the cover holding the single cube of all dashes (constant true)
+	public static Cover universe(int numVars) {
+		Cover ret = new Cover(numVars);
+		ret.add(0, ret.varMask);
+		return ret;
+	}
+
+	// returns a cover of the given packed cubes (see Cube.pack)
+	public static Cover fromPackedCubes(int numVars, long[] cubes) {
+		Cover ret = new Cover(numVars);
+		for (long cube : cubes) {
+			ret.add(Cube.value(cube) & 0xFFFFFFFFL, Cube.mask(cube) & 0xFFFFFFFFL);
+		}
+		return ret;
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	// returns a mask with one bit set per variable
+	public long getVarMask() {
+		return varMask;
+	}
+
+	// returns the number of cubes
+	public int size() {
+		return size;
+	}
+
+	public long getValue(int i) {
+		return values[i];
+	}
+
+	public long getMask(int i) {
+		return masks[i];
+	}
+
+	// appends a cube; bits of the value under the mask are cleared
+	public void add(long value, long mask) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+			masks = Arrays.copyOf(masks, size * 2);
+		}
+		mask &= varMask;
+		values[size] = value & ~mask & varMask;
+		masks[size] = mask;
+		size++;
+	}
+
+	// appends every cube of the other cover
+	public void addAll(Cover other) {
+		for (int i = 0; i < other.size; i++) {
+			add(other.values[i], other.masks[i]);
+		}
+	}
+
+	// replaces cube i
+	public void set(int i, long value, long mask) {
+		mask &= varMask;
+		values[i] = value & ~mask & varMask;
+		masks[i] = mask;
+	}
+
+	// removes cube i, moving the last cube into its place
+	public void remove(int i) {
+		size--;
+		values[i] = values[size];
+		masks[i] = masks[size];
+	}
+
+	// drops every cube from index newSize on
+	public void truncate(int newSize) {
+		size = Math.min(size, newSize);
+	}
+
+	// returns the number of literals in cube i
+	public int getNumLiterals(int i) {
+		return numVars - Long.bitCount(masks[i]);
+	}
+
+	// returns the total number of literals in the cover
+	public int getNumLiterals() {
+		int ret = 0;
+		for (int i = 0; i < size; i++) {
+			ret += getNumLiterals(i);
+		}
+		return ret;
+	}
+
+	// returns cube i as a string of '0', '1' and '-' characters
+	public String toBitString(int i) {
+		return Cube.toBitString(values[i], masks[i], numVars);
+	}
+
+	// returns every cube as a bit string
+	public ArrayList<String> toBitStrings() {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (int i = 0; i < size; i++) {
+			ret.add(toBitString(i));
+		}
+		return ret;
+	}
+
+	// returns true if the two cubes share at least one minterm
+	public static boolean intersects(long v1, long m1, long v2, long m2) {
+		return ((v1 ^ v2) & ~m1 & ~m2) == 0;
+	}
+
+	// returns true if cube 1 contains every minterm of cube 2
+	public static boolean cubeContains(long v1, long m1, long v2, long m2) {
+		return (m2 & ~m1) == 0 && ((v1 ^ v2) & ~m1) == 0;
+	}
+
+	// returns the cofactor of the cover with respect to the cube: cubes disjoint from it are dropped
+	// and the variables it fixes become dashes in the rest
+	public Cover cofactor(long value, long mask) {
+		Cover ret = new Cover(numVars);
+		long fixed = ~mask & varMask;
+		for (int i = 0; i < size; i++) {
+			if (intersects(values[i], masks[i], value, mask)) {
+				ret.add(values[i], masks[i] | fixed);
+			}
+		}
+		return ret;
+	}
+
+	// returns true if every minterm of the cube is covered
+	public boolean containsCube(long value, long mask) {
+		return cofactor(value, mask).isTautology();
+	}
+
+	// returns true if the cover is constant true
+	public boolean isTautology() {
+		if (size == 0) { return false; }
+
+		// cheap checks first: a universal cube, or too few minterms to cover everything
+		double total = 0;
+		for (int i = 0; i < size; i++) {
+			if (masks[i] == varMask) { return true; }
+			total += Math.pow(2, Long.bitCount(masks[i]));
+		}
+		if (total < Math.pow(2, numVars)) { return false; }
+
+		// a cover unate in every variable is only a tautology if it holds the universal cube
+		int var = getMostBinateVar();
+		if (var < 0) { return false; }
+
+		long bit = 1L << var;
+		return cofactor(bit, varMask & ~bit).isTautology() && cofactor(0, varMask & ~bit).isTautology();
+	}
+
+	// returns the complement of the cover, computed by Shannon expansion on the most binate variable
+	public Cover complement() {
+		if (size == 0) { return universe(numVars); }
+		for (int i = 0; i < size; i++) {
+			if (masks[i] == varMask) { return new Cover(numVars); }
+		}
+
+		// a single cube complements to the sum of its negated literals (De Morgan)
+		if (size == 1) {
+			Cover ret = new Cover(numVars);
+			long fixed = ~masks[0] & varMask;
+			while (fixed != 0) {
+				long bit = fixed & -fixed;
+				fixed &= fixed - 1;
+				ret.add(~values[0] & bit, varMask & ~bit);
+			}
+			return ret;
+		}
+
+		int var = getMostBinateVar();
+		if (var < 0) { var = getMostUsedVar(); }
+		long bit = 1L << var;
+		Cover ret = new Cover(numVars);
+		Cover pos = cofactor(bit, varMask & ~bit).complement();
+		Cover neg = cofactor(0, varMask & ~bit).complement();
+		for (int i = 0; i < pos.size; i++) {
+			ret.add(pos.values[i] | bit, pos.masks[i] & ~bit);
+		}
+		for (int i = 0; i < neg.size; i++) {
+			ret.add(neg.values[i], neg.masks[i] & ~bit);
+		}
+		ret.mergeAdjacentCubes(bit);
+		ret.removeContainedCubes();
+		return ret;
+	}
+
+	// returns the product of the two covers, every pair of intersecting cubes becoming one cube
+	public Cover intersect(Cover other) {
+		Cover ret = new Cover(numVars);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < other.size; j++) {
+				if (intersects(values[i], masks[i], other.values[j], other.masks[j])) {
+					long mask = masks[i] & other.masks[j];
+					ret.add((values[i] | other.values[j]) & ~mask, mask);
+				}
+			}
+		}
+		ret.removeContainedCubes();
+		return ret;
+	}
+
+	// removes every cube contained in another single cube of the cover, and duplicates
+	public void removeContainedCubes() {
+		// larger cubes first, so each cube only needs checking against the ones kept before it
+		Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.bitCount(masks[b]) - Long.bitCount(masks[a]));
+
+		long[] keptValues = new long[size];
+		long[] keptMasks = new long[size];
+		int kept = 0;
+		for (int i : order) {
+			boolean contained = false;
+			for (int k = 0; k < kept && !contained; k++) {
+				contained = cubeContains(keptValues[k], keptMasks[k], values[i], masks[i]);
+			}
+			if (!contained) {
+				keptValues[kept] = values[i];
+				keptMasks[kept] = masks[i];
+				kept++;
+			}
+		}
+		values = keptValues.length >= 8 ? keptValues : Arrays.copyOf(keptValues, 8);
+		masks = keptMasks.length >= 8 ? keptMasks : Arrays.copyOf(keptMasks, 8);
+		size = kept;
+	}
+
+	// merges pairs of cubes that only differ in the given variable into one cube with a dash there
+	private void mergeAdjacentCubes(long bit) {
+		HashMap<Long, Integer> withoutVar = new HashMap<Long, Integer>();
+		for (int i = 0; i < size; i++) {
+			if ((masks[i] & bit) != 0) { continue; }
+			// key on the cube with the variable removed; masks never collide with values here
+			long key = (values[i] & ~bit) * 31 + masks[i];
+			Integer j = withoutVar.get(key);
+			if (j != null && masks[j] == masks[i] && (values[j] & ~bit) == (values[i] & ~bit)) {
+				masks[j] |= bit;
+				values[j] &= ~bit;
+				values[i] = values[j];
+				masks[i] = masks[j];
+				withoutVar.remove(key);
+			} else {
+				withoutVar.put(key, i);
+			}
+		}
+	}
+
+	// returns the variable appearing in both polarities in the most cubes, or -1 if the cover is unate
+	private int getMostBinateVar() {
+		int best = -1;
+		int bestCount = 0;
+		for (int var = 0; var < numVars; var++) {
+			long bit = 1L << var;
+			int ones = 0;
+			int zeros = 0;
+			for (int i = 0; i < size; i++) {
+				if ((masks[i] & bit) != 0) { continue; }
+				if ((values[i] & bit) != 0) { ones++; } else { zeros++; }
+			}
+			if (ones > 0 && zeros > 0 && ones + zeros > bestCount) {
+				best = var;
+				bestCount = ones + zeros;
+			}
+		}
+		return best;
+	}
+
+	// returns the variable fixed in the most cubes
+	private int getMostUsedVar() {
+		int best = 0;
+		int bestCount = -1;
+		for (int var = 0; var < numVars; var++) {
+			long bit = 1L << var;
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if ((masks[i] & bit) == 0) { count++; }
+			}
+			if (count > bestCount) {
+				best = var;
+				bestCount = count;
+			}
+		}
+		return best;
+	}
+}
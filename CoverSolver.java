@@ -0,0 +1,373 @@
+// Minimum cover solver used to pick the nonessential prime implicants.
+// Each candidate (a prime implicant) covers a set of elements (the minterms still to be covered),
+// held as a BitSet row. The table is first reduced by essential candidates and row/column
+// dominance, then a branch-and-bound search finds every cover of minimum cost, where cost is
+// compared first by number of candidates and then by total literals, the same order
+// getShortestTerms and getNonessentialOptionsIndices used on Petrick's expansion.
+// Petrick's method (with incremental absorption) can be selected instead of the search.
+// With setLimits, the dominance reductions check a deadline once per row and the search every
+// DEADLINE_CHECK_INTERVAL nodes, and Petrick's method also a bound on its product, throwing a
+// BudgetExceededException once either runs out; findGreedyCover is the bounded fallback.
+
+import java.util.*;
+
+public class CoverSolver {
+
+	// how the reduced table is solved
+	public enum Method { BRANCH_AND_BOUND, PETRICK }
+
+	// search nodes between checks of the deadline
+	static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	private final int numElements;
+	private final BitSet[] coverage;	// elements covered by each candidate
+	private final int[] literals;		// literal cost of each candidate
+	private boolean findAllSolutions = true;
+	private Method method = Method.BRANCH_AND_BOUND;
+	private long deadline;					// System.nanoTime deadline, 0 for none
+	private int petrickProductSizeLimit;	// 0 for no limit
+
+	// search state
+	private BitSet[] coveredBy;		// candidates covering each element
+	private ArrayList<int[]> solutions;
+	private int bestCount;
+	private int bestLiterals;
+
+	// what the last findMinimumCovers did
+	private long numSearchNodes;
+	private int numPetrickClauses;
+	private int maxPetrickProductSize;
+
+	// creates a solver for candidates covering elements 0..numElements-1
+	public CoverSolver(BitSet[] coverage, int[] literals, int numElements) {
+		this.numElements = numElements;
+		this.coverage = coverage;
+		this.literals = literals;
+	}
+
+	// returns a solver for covering the given minterms with the given packed cubes
+	public static CoverSolver forImplicants(int numVars, long[] cubes, int[] minterms) {
+		BitSet[] coverage = new BitSet[cubes.length];
+		int[] literals = new int[cubes.length];
+		for (int c = 0; c < cubes.length; c++) {
+			coverage[c] = new BitSet(minterms.length);
+			for (int mt = 0; mt < minterms.length; mt++) {
+				if (Cube.covers(cubes[c], minterms[mt])) { coverage[c].set(mt); }
+			}
+			literals[c] = Cube.numLiterals(cubes[c], numVars);
+		}
+		return new CoverSolver(coverage, literals, minterms.length);
+	}
+
+	// when false, ties are broken arbitrarily and only one minimum cover is returned,
+	// which lets the column dominance reduction drop equal-cost candidates
+	public void setFindAllSolutions(boolean findAllSolutions) {
+		this.findAllSolutions = findAllSolutions;
+	}
+
+	// selects how the table left after the reductions is solved
+	public void setMethod(Method method) {
+		this.method = method;
+	}
+
+	// makes findMinimumCovers throw a BudgetExceededException once the System.nanoTime deadline
+	// passes or Petrick's product grows past petrickProductSizeLimit terms; 0 turns either check off
+	public void setLimits(long deadline, int petrickProductSizeLimit) {
+		this.deadline = deadline;
+		this.petrickProductSizeLimit = petrickProductSizeLimit;
+	}
+
+	// returns the number of branch and bound calls the last findMinimumCovers made
+	public long getNumSearchNodes() {
+		return numSearchNodes;
+	}
+
+	// returns the number of clauses of the last Petrick product, 0 if it was not used
+	public int getNumPetrickClauses() {
+		return numPetrickClauses;
+	}
+
+	// returns the most terms the last Petrick product held at once, 0 if it was not used
+	public int getMaxPetrickProductSize() {
+		return maxPetrickProductSize;
+	}
+
+	// returns every minimum-cost cover as sorted arrays of candidate indices
+	public ArrayList<int[]> findMinimumCovers() {
+		numSearchNodes = 0;
+		numPetrickClauses = 0;
+		maxPetrickProductSize = 0;
+		coveredBy = new BitSet[numElements];
+		for (int e = 0; e < numElements; e++) {
+			coveredBy[e] = new BitSet(coverage.length);
+		}
+		for (int c = 0; c < coverage.length; c++) {
+			for (int e = coverage[c].nextSetBit(0); e >= 0; e = coverage[c].nextSetBit(e + 1)) {
+				coveredBy[e].set(c);
+			}
+		}
+		for (int e = 0; e < numElements; e++) {
+			if (coveredBy[e].isEmpty()) {
+				throw new IllegalStateException("Element " + e + " is not covered by any candidate");
+			}
+		}
+
+		BitSet uncovered = new BitSet(numElements);
+		uncovered.set(0, numElements);
+		BitSet available = new BitSet(coverage.length);
+		available.set(0, coverage.length);
+		ArrayList<Integer> selected = new ArrayList<Integer>();
+		reduce(uncovered, available, selected);
+
+		solutions = new ArrayList<int[]>();
+		bestCount = Integer.MAX_VALUE;
+		bestLiterals = Integer.MAX_VALUE;
+		int selectedLiterals = 0;
+		for (int c : selected) {
+			selectedLiterals += literals[c];
+		}
+		if (method == Method.PETRICK) {
+			solveByPetrick(uncovered, available, selected, selectedLiterals);
+		} else {
+			search(uncovered, available, selected, selectedLiterals);
+		}
+
+		ArrayList<int[]> ret = solutions;
+		solutions = null;
+		coveredBy = null;
+		return ret;
+	}
+
+	// repeatedly selects essential candidates and removes dominated elements and candidates
+	private void reduce(BitSet uncovered, BitSet available, ArrayList<Integer> selected) {
+		boolean changed = true;
+		while (changed && !uncovered.isEmpty()) {
+			changed = false;
+
+			// an element only one available candidate covers forces that candidate
+			for (int e = uncovered.nextSetBit(0); e >= 0; e = uncovered.nextSetBit(e + 1)) {
+				BitSet cands = getAvailableCandidates(e, available);
+				if (cands.cardinality() == 1) {
+					int c = cands.nextSetBit(0);
+					selected.add(c);
+					available.clear(c);
+					uncovered.andNot(coverage[c]);
+					changed = true;
+				}
+			}
+
+			// element dominance: covering e1 always covers e2 if every candidate for e1 also covers e2
+			ArrayList<Integer> elems = new ArrayList<Integer>();
+			for (int e = uncovered.nextSetBit(0); e >= 0; e = uncovered.nextSetBit(e + 1)) {
+				elems.add(e);
+			}
+			BitSet[] cands = new BitSet[elems.size()];
+			for (int i = 0; i < cands.length; i++) {
+				cands[i] = getAvailableCandidates(elems.get(i), available);
+			}
+			for (int i = 0; i < cands.length; i++) {
+				MinimizationBudget.checkDeadline(deadline);
+				if (!uncovered.get(elems.get(i))) { continue; }
+				for (int j = 0; j < cands.length; j++) {
+					if (i == j || !uncovered.get(elems.get(j))) { continue; }
+					// drop e2 = elems[j] when cands[i] is a subset of cands[j]; keep the lower index on ties
+					if (isSubset(cands[i], cands[j]) && (!cands[i].equals(cands[j]) || i < j)) {
+						uncovered.clear(elems.get(j));
+						changed = true;
+					}
+				}
+			}
+
+			// candidate dominance: a candidate covering a subset of another's elements at no lower cost
+			// can never be in a minimum cover (or, for ties, can be swapped for the other one)
+			ArrayList<Integer> avail = new ArrayList<Integer>();
+			for (int c = available.nextSetBit(0); c >= 0; c = available.nextSetBit(c + 1)) {
+				avail.add(c);
+			}
+			BitSet[] rows = new BitSet[avail.size()];
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = (BitSet)coverage[avail.get(i)].clone();
+				rows[i].and(uncovered);
+			}
+			for (int j = 0; j < rows.length; j++) {
+				MinimizationBudget.checkDeadline(deadline);
+				int cj = avail.get(j);
+				if (rows[j].isEmpty()) {
+					available.clear(cj);
+					changed = true;
+					continue;
+				}
+				for (int i = 0; i < rows.length; i++) {
+					int ci = avail.get(i);
+					if (i == j || !available.get(ci) || !isSubset(rows[j], rows[i])) { continue; }
+					boolean strictlyCheaper = literals[ci] < literals[cj];
+					boolean tieBroken = !findAllSolutions && literals[ci] == literals[cj]
+						&& (!rows[i].equals(rows[j]) || i < j);
+					if (strictlyCheaper || tieBroken) {
+						available.clear(cj);
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	// multiplies out the product of sums of the reduced table and keeps its cheapest terms
+	private void solveByPetrick(BitSet uncovered, BitSet available, ArrayList<Integer> selected, int selectedLiterals) {
+		BitSet[] clauses = new BitSet[uncovered.cardinality()];
+		int i = 0;
+		for (int e = uncovered.nextSetBit(0); e >= 0; e = uncovered.nextSetBit(e + 1)) {
+			clauses[i++] = getAvailableCandidates(e, available);
+		}
+		Petrick petrick = new Petrick(clauses);
+		petrick.setLimits(deadline, petrickProductSizeLimit);
+		ArrayList<BitSet> terms = petrick.expand();
+		numPetrickClauses = petrick.getNumClauses();
+		maxPetrickProductSize = petrick.getMaxProductSize();
+		for (BitSet term : terms) {
+			for (int c = term.nextSetBit(0); c >= 0; c = term.nextSetBit(c + 1)) {
+				selected.add(c);
+				selectedLiterals += literals[c];
+			}
+			recordSolution(selected, selectedLiterals);
+			for (int c = term.nextSetBit(0); c >= 0; c = term.nextSetBit(c + 1)) {
+				selected.remove(selected.size() - 1);
+				selectedLiterals -= literals[c];
+			}
+		}
+	}
+
+	// branches on the uncovered element with the fewest candidates; candidates tried earlier in the
+	// branch are excluded from later siblings so each cover is only reached once
+	private void search(BitSet uncovered, BitSet available, ArrayList<Integer> selected, int selectedLiterals) {
+		if (++numSearchNodes % DEADLINE_CHECK_INTERVAL == 0) { MinimizationBudget.checkDeadline(deadline); }
+		if (uncovered.isEmpty()) {
+			recordSolution(selected, selectedLiterals);
+			return;
+		}
+
+		// prune on the number of candidates still needed, then on literals
+		int lowerBound = selected.size() + getIndependentElementCount(uncovered, available);
+		if (lowerBound > bestCount) { return; }
+		if (lowerBound == bestCount && (findAllSolutions ? selectedLiterals > bestLiterals : selectedLiterals >= bestLiterals)) { return; }
+
+		int branchElement = -1;
+		BitSet branchCands = null;
+		for (int e = uncovered.nextSetBit(0); e >= 0; e = uncovered.nextSetBit(e + 1)) {
+			BitSet cands = getAvailableCandidates(e, available);
+			if (cands.isEmpty()) { return; }	// earlier exclusions left this element uncoverable
+			if (branchCands == null || cands.cardinality() < branchCands.cardinality()) {
+				branchElement = e;
+				branchCands = cands;
+			}
+		}
+
+		// try the candidates covering the most uncovered elements first so good bounds come early
+		ArrayList<Integer> order = new ArrayList<Integer>();
+		for (int c = branchCands.nextSetBit(0); c >= 0; c = branchCands.nextSetBit(c + 1)) {
+			order.add(c);
+		}
+		final BitSet unc = uncovered;
+		order.sort((a, b) -> {
+			int diff = intersectionSize(coverage[b], unc) - intersectionSize(coverage[a], unc);
+			return diff != 0 ? diff : literals[a] - literals[b];
+		});
+
+		BitSet remaining = (BitSet)available.clone();
+		for (int c : order) {
+			remaining.clear(c);
+			BitSet nextUncovered = (BitSet)uncovered.clone();
+			nextUncovered.andNot(coverage[c]);
+			selected.add(c);
+			search(nextUncovered, (BitSet)remaining.clone(), selected, selectedLiterals + literals[c]);
+			selected.remove(selected.size() - 1);
+		}
+	}
+
+	// returns a cover, not necessarily minimum, built by repeatedly taking the candidate that covers
+	// the most uncovered elements (the fewest literals on ties); it runs in polynomial time whatever
+	// the table, so it is the fallback when findMinimumCovers runs out of budget
+	public int[] findGreedyCover() {
+		BitSet uncovered = new BitSet(numElements);
+		uncovered.set(0, numElements);
+		ArrayList<Integer> selected = new ArrayList<Integer>();
+		while (!uncovered.isEmpty()) {
+			int best = -1;
+			int bestSize = 0;
+			for (int c = 0; c < coverage.length; c++) {
+				int size = intersectionSize(coverage[c], uncovered);
+				if (size > bestSize || (size == bestSize && size > 0 && literals[c] < literals[best])) {
+					best = c;
+					bestSize = size;
+				}
+			}
+			if (best < 0) {
+				throw new IllegalStateException("Element " + uncovered.nextSetBit(0) + " is not covered by any candidate");
+			}
+			selected.add(best);
+			uncovered.andNot(coverage[best]);
+		}
+		int[] ret = new int[selected.size()];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = selected.get(i);
+		}
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	// keeps the cover if it ties the best found so far, or replaces them all if it beats it
+	private void recordSolution(ArrayList<Integer> selected, int selectedLiterals) {
+		int count = selected.size();
+		if (count > bestCount || (count == bestCount && selectedLiterals > bestLiterals)) { return; }
+		if (count < bestCount || selectedLiterals < bestLiterals) {
+			solutions.clear();
+			bestCount = count;
+			bestLiterals = selectedLiterals;
+		} else if (!findAllSolutions) {
+			return;
+		}
+		int[] solution = new int[count];
+		for (int i = 0; i < count; i++) {
+			solution[i] = selected.get(i);
+		}
+		Arrays.sort(solution);
+		solutions.add(solution);
+	}
+
+	// returns the size of a greedy set of uncovered elements no two of which share a candidate,
+	// a lower bound on how many more candidates any cover needs
+	private int getIndependentElementCount(BitSet uncovered, BitSet available) {
+		int ret = 0;
+		BitSet used = new BitSet(coverage.length);
+		for (int e = uncovered.nextSetBit(0); e >= 0; e = uncovered.nextSetBit(e + 1)) {
+			BitSet cands = getAvailableCandidates(e, available);
+			if (!cands.intersects(used)) {
+				used.or(cands);
+				ret++;
+			}
+		}
+		return ret;
+	}
+
+	// returns the available candidates that cover the element
+	private BitSet getAvailableCandidates(int element, BitSet available) {
+		BitSet ret = (BitSet)coveredBy[element].clone();
+		ret.and(available);
+		return ret;
+	}
+
+	// returns true if every bit of a is set in b
+	private static boolean isSubset(BitSet a, BitSet b) {
+		BitSet diff = (BitSet)a.clone();
+		diff.andNot(b);
+		return diff.isEmpty();
+	}
+
+	// returns the number of bits set in both a and b
+	private static int intersectionSize(BitSet a, BitSet b) {
+		BitSet both = (BitSet)a.clone();
+		both.and(b);
+		return both.cardinality();
+	}
+}
@@ -0,0 +1,91 @@
+// Helpers for implicants (cubes) encoded as primitives instead of '0'/'1'/'-' strings.
+// A cube is a value and a don't-care mask: bit b of the mask is set when the variable at assignment
+// bit b is a dash, and the value holds the fixed bits (always zero under the mask). As everywhere
+// else, vars.get(0) is the most significant assignment bit.
+//
+// The Quine-McCluskey engine packs the two ints of a cube over at most 32 variables into a single
+// long (mask in the high half, value in the low half) so tables of cubes are plain long arrays.
+
+import java.util.*;
+
+public final class Cube {
+
+	public static final int MAX_PACKED_VARS = 32;
+
+	private Cube() {}
+
+	// returns the cube packed into a single long
+	public static long pack(int value, int mask) {
+		return ((long)mask << 32) | (value & 0xFFFFFFFFL);
+	}
+
+	// returns the fixed bits of a packed cube
+	public static int value(long cube) {
+		return (int)cube;
+	}
+
+	// returns the don't-care mask of a packed cube
+	public static int mask(long cube) {
+		return (int)(cube >>> 32);
+	}
+
+	// returns true if the packed cube covers the given minterm
+	public static boolean covers(long cube, int minterm) {
+		return (minterm & ~mask(cube)) == value(cube);
+	}
+
+	// returns true if the packed cube a contains every minterm of the packed cube b
+	public static boolean contains(long a, long b) {
+		return (mask(b) & ~mask(a)) == 0 && (value(b) & ~mask(a)) == value(a);
+	}
+
+	// returns the number of literals needed to write the packed cube
+	public static int numLiterals(long cube, int numVars) {
+		return numVars - Integer.bitCount(mask(cube));
+	}
+
+	// returns the packed cube as a string of '0', '1' and '-' characters, most significant bit first
+	public static String toBitString(long cube, int numVars) {
+		return toBitString(value(cube) & 0xFFFFFFFFL, mask(cube) & 0xFFFFFFFFL, numVars);
+	}
+
+	// returns the cube as a string of '0', '1' and '-' characters, most significant bit first
+	public static String toBitString(long value, long mask, int numVars) {
+		char[] ret = new char[numVars];
+		for (int i = 0; i < numVars; i++) {
+			int bit = numVars - 1 - i;
+			if (((mask >>> bit) & 1) == 1) {
+				ret[i] = '-';
+			} else {
+				ret[i] = ((value >>> bit) & 1) == 1 ? '1' : '0';
+			}
+		}
+		return new String(ret);
+	}
+
+	// returns the packed cube for a string of '0', '1' and '-' characters
+	public static long fromBitString(String bits) {
+		int value = 0;
+		int mask = 0;
+		for (int i = 0; i < bits.length(); i++) {
+			value <<= 1;
+			mask <<= 1;
+			char c = bits.charAt(i);
+			if (c == '-') {
+				mask |= 1;
+			} else if (c == '1') {
+				value |= 1;
+			}
+		}
+		return pack(value, mask);
+	}
+
+	// returns the packed cubes as bit strings
+	public static ArrayList<String> toBitStrings(long[] cubes, int numVars) {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (long cube : cubes) {
+			ret.add(toBitString(cube, numVars));
+		}
+		return ret;
+	}
+}
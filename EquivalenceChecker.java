@@ -0,0 +1,98 @@
+// Checks whether two expressions describe the same function of the union of their variables.
+// Up to MAX_TABLE_VARS variables both compiled programs are run 64 rows at a time (evaluateWord) and
+// compared word by word, stopping at the first word that differs; past that both are built in one
+// Bdd, where equivalent functions share their root node, and the xor of the two gives a
+// counterexample and the number of differing rows without enumerating them.
+// diff lists every differing row instead of stopping at the first, so it needs a truth table's
+// worth of rows and is limited to TruthTable.MAX_VARS variables.
+
+import java.math.BigInteger;
+import java.util.*;
+
+public final class EquivalenceChecker {
+
+	// the most variables compared row by row before switching to a Bdd
+	public static final int MAX_TABLE_VARS = 20;
+
+	private EquivalenceChecker() {
+	}
+
+	// compares the expressions, stopping at the first assignment on which they differ
+	public static EquivalenceResult check(String first, String second) {
+		String a = BooleanExpression.normalize(first);
+		String b = BooleanExpression.normalize(second);
+		ArrayList<String> vars = BooleanExpression.getVarsInAlpha(a + b);
+		BooleanExpression ea = new BooleanExpression(a, vars);
+		BooleanExpression eb = new BooleanExpression(b, vars);
+		if (vars.size() <= MAX_TABLE_VARS) {
+			return compareTables(ea, eb, vars, false);
+		}
+		return compareBdds(ea, eb, vars);
+	}
+
+	// compares the expressions on every row, listing all the rows on which they differ
+	public static EquivalenceResult diff(String first, String second) {
+		String a = BooleanExpression.normalize(first);
+		String b = BooleanExpression.normalize(second);
+		ArrayList<String> vars = BooleanExpression.getVarsInAlpha(a + b);
+		if (vars.size() > TruthTable.MAX_VARS) {
+			throw new IllegalArgumentException("Listing the differing rows supports at most " + TruthTable.MAX_VARS + " variables, got " + vars.size());
+		}
+		return compareTables(new BooleanExpression(a, vars), new BooleanExpression(b, vars), vars, true);
+	}
+
+	// runs both programs a word of rows at a time; without listAll it returns at the first difference
+	private static EquivalenceResult compareTables(BooleanExpression ea, BooleanExpression eb, List<String> vars, boolean listAll) {
+		int numVars = vars.size();
+		long[] stackA = new long[Math.max(1, ea.getMaxStackDepth())];
+		long[] stackB = new long[Math.max(1, eb.getMaxStackDepth())];
+		// tables of fewer than 64 rows only use the low bits of their one word
+		long rowMask = (numVars < 6) ? (1L << (1 << numVars)) - 1 : -1L;
+
+		int firstRow = -1;
+		long count = 0;
+		int[] rows = listAll ? new int[16] : null;
+		for (int w = 0; w < TruthTable.getNumWords(numVars); w++) {
+			long differs = (ea.evaluateWord(w, stackA) ^ eb.evaluateWord(w, stackB)) & rowMask;
+			if (differs == 0) { continue; }
+			if (firstRow < 0) { firstRow = (w << 6) + Long.numberOfTrailingZeros(differs); }
+			if (!listAll) { break; }
+			while (differs != 0) {
+				if (count == rows.length) { rows = Arrays.copyOf(rows, 2 * rows.length); }
+				rows[(int)count++] = (w << 6) + Long.numberOfTrailingZeros(differs);
+				differs &= differs - 1;
+			}
+		}
+
+		String counterexample = (firstRow < 0) ? null : toBits(firstRow, numVars);
+		if (!listAll) {
+			return new EquivalenceResult(vars, counterexample, (firstRow < 0) ? BigInteger.ZERO : null, null);
+		}
+		return new EquivalenceResult(vars, counterexample, BigInteger.valueOf(count), Arrays.copyOf(rows, (int)count));
+	}
+
+	// builds both functions in one manager, where equivalence is a comparison of node ids
+	private static EquivalenceResult compareBdds(BooleanExpression ea, BooleanExpression eb, List<String> vars) {
+		Bdd bdd = new Bdd(vars.size());
+		bdd.setAutoReorder(true);
+		int f = bdd.ref(bdd.fromExpression(ea));
+		int g = bdd.ref(bdd.fromExpression(eb));
+		if (bdd.isEquivalent(f, g)) {
+			return new EquivalenceResult(vars, null, BigInteger.ZERO, null);
+		}
+
+		// any assignment of the xor is a counterexample; variables it leaves free are set to 0
+		int differs = bdd.xor(f, g);
+		String counterexample = bdd.anySat(differs).replace('-', '0');
+		return new EquivalenceResult(vars, counterexample, bdd.satCount(differs), null);
+	}
+
+	// returns the row as a '0'/'1' string, the most significant bit first
+	private static String toBits(int row, int numVars) {
+		char[] ret = new char[numVars];
+		for (int i = 0; i < numVars; i++) {
+			ret[i] = ((row >>> (numVars - 1 - i)) & 1) == 1 ? '1' : '0';
+		}
+		return new String(ret);
+	}
+}
@@ -0,0 +1,69 @@
+// Immutable result of comparing two expressions over the union of their variables: whether they are
+// equivalent and, if not, an assignment on which they differ. Rows read like truth table rows, with
+// vars.get(0) the most significant bit. Safe to share between threads.
+
+import java.math.BigInteger;
+import java.util.*;
+
+public final class EquivalenceResult {
+
+	private final List<String> vars;
+	private final String counterexample;	// null when equivalent
+	private final BigInteger numDifferences;	// null when the comparison stopped at the first one
+	private final int[] differingRows;	// null unless every difference was listed
+
+	public EquivalenceResult(List<String> vars, String counterexample, BigInteger numDifferences, int[] differingRows) {
+		this.vars = Collections.unmodifiableList(new ArrayList<String>(vars));
+		this.counterexample = counterexample;
+		this.numDifferences = numDifferences;
+		this.differingRows = (differingRows == null) ? null : differingRows.clone();
+	}
+
+	// returns the union of the variables of both expressions in alphabetical order
+	public List<String> getVars() {
+		return vars;
+	}
+
+	public boolean isEquivalent() {
+		return counterexample == null;
+	}
+
+	// returns an assignment on which the expressions differ as a '0'/'1' string in the order of vars,
+	// or null if they are equivalent
+	public String getCounterexample() {
+		return counterexample;
+	}
+
+	// returns the counterexample as "a=0 b=1 ...", or null if the expressions are equivalent
+	public String getCounterexampleAssignment() {
+		if (counterexample == null) { return null; }
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < vars.size(); i++) {
+			if (i > 0) { sb.append(' '); }
+			sb.append(vars.get(i)).append('=').append(counterexample.charAt(i));
+		}
+		return sb.toString();
+	}
+
+	// returns true if the number of differing rows is known
+	public boolean hasNumDifferences() {
+		return numDifferences != null;
+	}
+
+	// returns the number of assignments on which the expressions differ, or null if the comparison
+	// stopped at the first one
+	public BigInteger getNumDifferences() {
+		return numDifferences;
+	}
+
+	// returns true if every differing row was listed
+	public boolean hasDifferingRows() {
+		return differingRows != null;
+	}
+
+	// returns the rows on which the expressions differ in increasing order, or null if they were not
+	// listed
+	public int[] getDifferingRows() {
+		return (differingRows == null) ? null : differingRows.clone();
+	}
+}
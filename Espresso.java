@@ -0,0 +1,203 @@
+// Heuristic two-level minimizer in the style of Espresso, for functions too large for exact
+// Quine-McCluskey. Starting from any cover of the on-set it loops EXPAND (grow each cube to a prime
+// while it stays inside on-set + don't-cares), IRREDUNDANT (drop cubes the rest of the cover already
+// covers) and REDUCE (shrink each cube to what only it covers, so the next EXPAND can move it
+// somewhere better) until the cost stops improving. Every check is a containment test on cube covers,
+// so the run time depends on the size of the cover rather than on 2^numVars.
+// The result is a prime and irredundant cover, but not necessarily a minimum one.
+
+import java.util.*;
+
+public class Espresso {
+
+	// stop looping after this many REDUCE/EXPAND/IRREDUNDANT passes even if the cost still improves
+	public static final int MAX_ITERATIONS = 20;
+
+	private final Cover onSet;
+	private final Cover dcSet;
+	private int numIterations;
+
+	// creates the minimizer for a cover of the on-set and a cover of the don't-care set
+	public Espresso(Cover onSet, Cover dcSet) {
+		if (onSet.getNumVars() != dcSet.getNumVars()) {
+			throw new IllegalArgumentException("On-set and don't-care set must have the same variables");
+		}
+		this.onSet = onSet;
+		this.dcSet = dcSet;
+	}
+
+	// returns a prime and irredundant cover of the function
+	public Cover minimize() {
+		Cover cover = new Cover(onSet);
+		cover.removeContainedCubes();
+		expand(cover);
+		irredundant(cover);
+
+		numIterations = 0;
+		int cubes = cover.size();
+		int literals = cover.getNumLiterals();
+		while (numIterations < MAX_ITERATIONS) {
+			numIterations++;
+			Cover candidate = new Cover(cover);
+			reduce(candidate);
+			expand(candidate);
+			irredundant(candidate);
+
+			int newCubes = candidate.size();
+			int newLiterals = candidate.getNumLiterals();
+			if (newCubes > cubes || (newCubes == cubes && newLiterals >= literals)) { break; }
+			cover = candidate;
+			cubes = newCubes;
+			literals = newLiterals;
+		}
+		return cover;
+	}
+
+	// returns how many improvement passes the last call to minimize ran
+	public int getNumIterations() {
+		return numIterations;
+	}
+
+	// EXPAND: raises the literals of each cube, largest cubes first, as long as the cube stays inside
+	// the on-set and don't-cares, then drops every cube the expanded one now contains
+	void expand(Cover cover) {
+		sortBySizeDescending(cover);
+		Cover allowed = new Cover(cover);
+		allowed.addAll(dcSet);
+		long varMask = cover.getVarMask();
+
+		for (int i = 0; i < cover.size(); i++) {
+			long value = cover.getValue(i);
+			long mask = cover.getMask(i);
+
+			// first grow towards the other cubes, nearest first, so this cube can swallow them
+			for (int j : getCubesByDistance(cover, i)) {
+				long raise = (cover.getMask(j) | (value ^ cover.getValue(j))) & ~mask & varMask;
+				if (raise != 0 && allowed.containsCube(value & ~raise, mask | raise)) {
+					value &= ~raise;
+					mask |= raise;
+				}
+			}
+
+			// then raise any remaining literal, those most other cubes leave as dashes first
+			long fixed = ~mask & varMask;
+			for (int var : getLiteralsByDashCount(cover, fixed)) {
+				long bit = 1L << var;
+				if (allowed.containsCube(value & ~bit, mask | bit)) {
+					value &= ~bit;
+					mask |= bit;
+				}
+			}
+			cover.set(i, value, mask);
+			allowed.add(value, mask);
+
+			// the grown cube may now swallow others; compact the cover keeping its order
+			int kept = 0;
+			int newI = i;
+			for (int j = 0; j < cover.size(); j++) {
+				if (j != i && Cover.cubeContains(value, mask, cover.getValue(j), cover.getMask(j))) { continue; }
+				if (j == i) { newI = kept; }
+				cover.set(kept++, cover.getValue(j), cover.getMask(j));
+			}
+			cover.truncate(kept);
+			i = newI;
+		}
+	}
+
+	// IRREDUNDANT: removes each cube, smallest first, that the other cubes and the don't-cares cover
+	void irredundant(Cover cover) {
+		sortBySizeDescending(cover);
+		for (int i = cover.size() - 1; i >= 0; i--) {
+			Cover rest = new Cover(cover.getNumVars());
+			for (int j = 0; j < cover.size(); j++) {
+				if (j != i) { rest.add(cover.getValue(j), cover.getMask(j)); }
+			}
+			rest.addAll(dcSet);
+			if (rest.containsCube(cover.getValue(i), cover.getMask(i))) {
+				cover.remove(i);
+			}
+		}
+	}
+
+	// REDUCE: shrinks each cube, largest first, by fixing any dash whose half is already covered by
+	// the other cubes and the don't-cares
+	void reduce(Cover cover) {
+		sortBySizeDescending(cover);
+		for (int i = 0; i < cover.size(); i++) {
+			Cover rest = new Cover(cover.getNumVars());
+			for (int j = 0; j < cover.size(); j++) {
+				if (j != i) { rest.add(cover.getValue(j), cover.getMask(j)); }
+			}
+			rest.addAll(dcSet);
+
+			long value = cover.getValue(i);
+			long mask = cover.getMask(i);
+			long dashes = mask;
+			while (dashes != 0) {
+				long bit = dashes & -dashes;
+				dashes &= dashes - 1;
+				if (rest.containsCube(value | bit, mask & ~bit)) {
+					mask &= ~bit;			// the x = 1 half is covered elsewhere, keep x = 0
+				} else if (rest.containsCube(value, mask & ~bit)) {
+					value |= bit;			// the x = 0 half is covered elsewhere, keep x = 1
+					mask &= ~bit;
+				}
+			}
+			cover.set(i, value, mask);
+		}
+	}
+
+	// returns the indices of the other cubes ordered by how many literals of cube i would need raising
+	// to contain them, fewest first
+	private static ArrayList<Integer> getCubesByDistance(Cover cover, int i) {
+		long value = cover.getValue(i);
+		long mask = cover.getMask(i);
+		int[] distance = new int[cover.size()];
+		ArrayList<Integer> ret = new ArrayList<Integer>();
+		for (int j = 0; j < cover.size(); j++) {
+			if (j == i) { continue; }
+			distance[j] = Long.bitCount((cover.getMask(j) | (value ^ cover.getValue(j))) & ~mask);
+			ret.add(j);
+		}
+		ret.sort((a, b) -> distance[a] - distance[b]);
+		return ret;
+	}
+
+	// returns the fixed variables ordered by how many cubes of the cover have a dash there, most first
+	private static ArrayList<Integer> getLiteralsByDashCount(Cover cover, long fixed) {
+		int[] dashCounts = new int[cover.getNumVars()];
+		for (int i = 0; i < cover.size(); i++) {
+			long mask = cover.getMask(i);
+			while (mask != 0) {
+				dashCounts[Long.numberOfTrailingZeros(mask)]++;
+				mask &= mask - 1;
+			}
+		}
+		ArrayList<Integer> ret = new ArrayList<Integer>();
+		while (fixed != 0) {
+			ret.add(Long.numberOfTrailingZeros(fixed));
+			fixed &= fixed - 1;
+		}
+		ret.sort((a, b) -> dashCounts[b] - dashCounts[a]);
+		return ret;
+	}
+
+	// orders the cubes of the cover from most to fewest dashes
+	private static void sortBySizeDescending(Cover cover) {
+		int n = cover.size();
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.bitCount(cover.getMask(b)) - Long.bitCount(cover.getMask(a)));
+		long[] values = new long[n];
+		long[] masks = new long[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = cover.getValue(order[i]);
+			masks[i] = cover.getMask(order[i]);
+		}
+		for (int i = 0; i < n; i++) {
+			cover.set(i, values[i], masks[i]);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+// Writes minimized functions straight into an Appendable (a reused StringBuilder, a Writer, a
+// CharBuffer over a ByteBuffer's worth of chars, System.out...) one character or number at a time,
+// without building intermediate strings. Implicants are the usual '0'/'1'/'-' strings in the order
+// of vars.
+// Forms:
+//	  EXPRESSION  ab' + c, or (a + b')c for a product-of-sums result
+//	  MINTERMS    [1, 3, 5, 7], the decimal rows of the function
+//	  PLA         the espresso .pla format: a header, one "cube output" line per implicant, .e
+// appendPos writes a product of sums from the implicants of the complement.
+
+import java.io.*;
+import java.util.*;
+
+public final class ExpressionFormatter {
+
+	public enum Form { EXPRESSION, MINTERMS, PLA }
+
+	private ExpressionFormatter() {
+	}
+
+	// returns the form named, ignoring case; "expr", "sop" and "pos" all name the expression, which
+	// the mode of the minimizer makes a sum of products or a product of sums
+	public static Form parseForm(String name) {
+		String upper = name.trim().toUpperCase();
+		if (upper.equals("EXPR") || upper.equals("SOP") || upper.equals("POS")) { return Form.EXPRESSION; }
+		for (Form form : Form.values()) {
+			if (form.name().equals(upper)) { return form; }
+		}
+		throw new IllegalArgumentException("Unknown format \"" + name + "\"");
+	}
+
+	// appends the first solution of the result in the given form
+	public static void append(Appendable out, MinimizationResult result, Form form) throws IOException {
+		switch (form) {
+			case EXPRESSION:
+				if (result.isProductOfSums()) {
+					appendPos(out, result.getImplicants(), result.getVars());
+				} else {
+					appendSop(out, result.getImplicants(), result.getVars());
+				}
+				break;
+			case MINTERMS:
+				if (!result.hasTruthTable()) {
+					throw new IllegalArgumentException("The result has no truth table to list the minterms of");
+				}
+				appendDecimalList(out, result.getMinterms());
+				break;
+			default:
+				appendPla(out, result.getImplicants(), result.getVars(), result.isProductOfSums());
+				break;
+		}
+	}
+
+	// appends the implicants as a sum of products, "0" for none and "1" for a cube of all dashes
+	public static void appendSop(Appendable out, List<String> implicants, List<String> vars) throws IOException {
+		if (implicants.isEmpty()) {
+			out.append('0');
+			return;
+		}
+		for (int i = 0; i < implicants.size(); i++) {
+			if (i > 0) { out.append(" + "); }
+			appendProduct(out, implicants.get(i), vars);
+		}
+	}
+
+	// appends the literals of one implicant, "1" if it has none
+	public static void appendProduct(Appendable out, String implicant, List<String> vars) throws IOException {
+		boolean any = false;
+		for (int i = 0; i < implicant.length(); i++) {
+			char c = implicant.charAt(i);
+			if (c == '-') { continue; }
+			out.append(vars.get(i));
+			if (c == '0') { out.append('\''); }
+			any = true;
+		}
+		if (!any) { out.append('1'); }
+	}
+
+	// appends the product of sums whose sums are the complements of the given implicants of the
+	// complement (each cube of f' is a maxterm group of f): "1" for none and "0" for a cube of all
+	// dashes; sums of one literal are written without parentheses
+	public static void appendPos(Appendable out, List<String> complementImplicants, List<String> vars) throws IOException {
+		if (complementImplicants.isEmpty()) {
+			out.append('1');
+			return;
+		}
+		for (String implicant : complementImplicants) {
+			int numLiterals = countLiterals(implicant);
+			if (numLiterals == 0) {
+				out.append('0');
+				return;
+			}
+			if (numLiterals > 1) { out.append('('); }
+			boolean first = true;
+			for (int i = 0; i < implicant.length(); i++) {
+				char c = implicant.charAt(i);
+				if (c == '-') { continue; }
+				if (!first) { out.append(" + "); }
+				out.append(vars.get(i));
+				if (c == '1') { out.append('\''); }
+				first = false;
+			}
+			if (numLiterals > 1) { out.append(')'); }
+		}
+	}
+
+	// appends the rows as "[1, 3, 5]"
+	public static void appendDecimalList(Appendable out, int[] rows) throws IOException {
+		out.append('[');
+		for (int i = 0; i < rows.length; i++) {
+			if (i > 0) { out.append(", "); }
+			appendInt(out, rows[i]);
+		}
+		out.append(']');
+	}
+
+	// appends a single-output espresso .pla description of the implicants
+	public static void appendPla(Appendable out, List<String> implicants, List<String> vars) throws IOException {
+		appendPla(out, implicants, vars, false);
+	}
+
+	// appends a single-output espresso .pla description; the implicants of a complement are written
+	// as an off-set (.type r, output 0)
+	public static void appendPla(Appendable out, List<String> implicants, List<String> vars, boolean complement) throws IOException {
+		out.append(".i ");
+		appendInt(out, vars.size());
+		out.append("\n.o 1\n.ilb");
+		for (String var : vars) {
+			out.append(' ').append(var);
+		}
+		out.append("\n.ob f\n");
+		if (complement) { out.append(".type r\n"); }
+		out.append(".p ");
+		appendInt(out, implicants.size());
+		out.append('\n');
+		for (String implicant : implicants) {
+			out.append(implicant).append(complement ? " 0\n" : " 1\n");
+		}
+		out.append(".e\n");
+	}
+
+	// appends a multi-output espresso .pla description: one line per shared product term, with a 1 in
+	// the column of every output that sums it
+	public static void appendPla(Appendable out, MultiOutputResult result) throws IOException {
+		out.append(".i ");
+		appendInt(out, result.getNumVars());
+		out.append("\n.o ");
+		appendInt(out, result.getNumOutputs());
+		out.append("\n.ilb");
+		for (String var : result.getVars()) {
+			out.append(' ').append(var);
+		}
+		out.append("\n.ob");
+		for (int k = 0; k < result.getNumOutputs(); k++) {
+			out.append(" f");
+			appendInt(out, k + 1);
+		}
+		out.append("\n.p ");
+		appendInt(out, result.getNumProductTerms());
+		out.append('\n');
+		for (String term : result.getProductTerms()) {
+			out.append(term).append(' ');
+			for (int k = 0; k < result.getNumOutputs(); k++) {
+				out.append(result.getImplicants(k).contains(term) ? '1' : '0');
+			}
+			out.append('\n');
+		}
+		out.append(".e\n");
+	}
+
+	// appends the decimal digits of an int without creating a string
+	public static void appendInt(Appendable out, int value) throws IOException {
+		if (out instanceof StringBuilder) {
+			((StringBuilder)out).append(value);
+			return;
+		}
+		if (value < 0) {
+			out.append('-');
+			if (value == Integer.MIN_VALUE) {
+				out.append("2147483648");
+				return;
+			}
+			value = -value;
+		}
+		int div = 1;
+		while (value / div >= 10) {
+			div *= 10;
+		}
+		for (; div > 0; div /= 10) {
+			out.append((char)('0' + value / div % 10));
+		}
+	}
+
+	// returns the number of non-dash characters of the implicant
+	public static int countLiterals(String implicant) {
+		int ret = 0;
+		for (int i = 0; i < implicant.length(); i++) {
+			if (implicant.charAt(i) != '-') { ret++; }
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,43 @@
+// Thrown when an expression cannot be compiled. Holds the input and the position of the first
+// character that could not be parsed, so a caller can point at it:
+//	  ab+(c'd
+//	         ^ Expected ')'
+
+public class ExpressionSyntaxException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String reason;
+	private final String input;
+	private final int position;
+
+	public ExpressionSyntaxException(String reason, String input, int position) {
+		super(reason + " at position " + position + " in " + input);
+		this.reason = reason;
+		this.input = input;
+		this.position = position;
+	}
+
+	// returns what went wrong, without the position
+	public String getReason() {
+		return reason;
+	}
+
+	public String getInput() {
+		return input;
+	}
+
+	// returns the index into the input of the offending character, its length at the end of the input
+	public int getPosition() {
+		return position;
+	}
+
+	// returns a line with a caret under the offending character, to print below the input
+	public String getPointer() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < position; i++) {
+			sb.append(i < input.length() && input.charAt(i) == '\t' ? '\t' : ' ');
+		}
+		return sb.append('^').toString();
+	}
+}
@@ -0,0 +1,315 @@
+// Immutable multi-level form of minimized functions, built by Factorizer: a list of intermediate
+// nodes, each a factored expression of the variables and the nodes before it, and one factored
+// expression per output. Every node is evaluated once however many expressions use it, so
+//	  t1 = a + b'
+//	  f1 = t1c + d
+//	  f2 = t1d'
+// evaluates a + b' once where the two flat sums of products ac + b'c + d and ad' + b'd' evaluate
+// each of its literals twice. Safe to share between threads.
+// Costs count literals (every occurrence of a variable or node in an expression) and two-input AND
+// and OR gates, the operators evaluated (an n-input gate counts n - 1), inverters on the variables
+// being free; the flat costs are those of the sums of products (or products of sums) the network
+// was factored from, each output on its own.
+
+import java.io.*;
+import java.util.*;
+
+public final class FactoredNetwork {
+
+	private final List<String> vars;
+	private final List<String> nodeNames;
+	private final List<Expr> nodes;
+	private final List<String> outputNames;
+	private final List<Expr> outputs;
+	private final boolean productOfSums;
+	private final int numFlatLiterals;
+	private final int numFlatGates;
+
+	FactoredNetwork(List<String> vars, List<String> nodeNames, List<Expr> nodes, List<String> outputNames, List<Expr> outputs,
+			boolean productOfSums, int numFlatLiterals, int numFlatGates) {
+		this.vars = Collections.unmodifiableList(new ArrayList<String>(vars));
+		this.nodeNames = Collections.unmodifiableList(new ArrayList<String>(nodeNames));
+		this.nodes = Collections.unmodifiableList(new ArrayList<Expr>(nodes));
+		this.outputNames = Collections.unmodifiableList(new ArrayList<String>(outputNames));
+		this.outputs = Collections.unmodifiableList(new ArrayList<Expr>(outputs));
+		this.productOfSums = productOfSums;
+		this.numFlatLiterals = numFlatLiterals;
+		this.numFlatGates = numFlatGates;
+	}
+
+	public List<String> getVars() {
+		return vars;
+	}
+
+	// returns true if the network was factored from a product of sums
+	public boolean isProductOfSums() {
+		return productOfSums;
+	}
+
+	public int getNumNodes() {
+		return nodes.size();
+	}
+
+	// returns the name of intermediate node i: t1, t2, ... skipping the names of variables
+	public String getNodeName(int i) {
+		return nodeNames.get(i);
+	}
+
+	// returns the factored expression of intermediate node i
+	public String getNodeExpression(int i) {
+		return toString(nodes.get(i));
+	}
+
+	public int getNumOutputs() {
+		return outputs.size();
+	}
+
+	// returns the name of output k: f for a single output, f1, f2, ... for several
+	public String getOutputName(int k) {
+		return outputNames.get(k);
+	}
+
+	// returns the factored expression of output k, in terms of the variables and the nodes
+	public String getOutputExpression(int k) {
+		return toString(outputs.get(k));
+	}
+
+	// returns the number of literals over every node and output
+	public int getNumLiterals() {
+		int ret = 0;
+		for (Expr node : nodes) {
+			ret += node.getNumLiterals();
+		}
+		for (Expr output : outputs) {
+			ret += output.getNumLiterals();
+		}
+		return ret;
+	}
+
+	// returns the number of two-input AND and OR gates over every node and output
+	public int getNumGates() {
+		int ret = 0;
+		for (Expr node : nodes) {
+			ret += node.getNumGates();
+		}
+		for (Expr output : outputs) {
+			ret += output.getNumGates();
+		}
+		return ret;
+	}
+
+	// returns the number of literals of the flat two-level expressions the network replaces
+	public int getNumFlatLiterals() {
+		return numFlatLiterals;
+	}
+
+	// returns the number of two-input AND and OR gates of the flat two-level expressions the network
+	// replaces
+	public int getNumFlatGates() {
+		return numFlatGates;
+	}
+
+	// returns the value of output k on the row, vars.get(0) being its most significant bit
+	public boolean evaluate(int k, long row) {
+		boolean[] signals = new boolean[vars.size() + nodes.size()];
+		for (int i = 0; i < vars.size(); i++) {
+			signals[i] = ((row >>> (vars.size() - 1 - i)) & 1) != 0;
+		}
+		for (int i = 0; i < nodes.size(); i++) {
+			signals[vars.size() + i] = nodes.get(i).evaluate(signals);
+		}
+		return outputs.get(k).evaluate(signals);
+	}
+
+	// appends one "name = expression" line per node and then per output
+	public void append(Appendable out) throws IOException {
+		List<String> names = getSignalNames();
+		for (int i = 0; i < nodes.size(); i++) {
+			out.append(nodeNames.get(i)).append(" = ");
+			nodes.get(i).append(out, names, false);
+			out.append('\n');
+		}
+		for (int k = 0; k < outputs.size(); k++) {
+			out.append(outputNames.get(k)).append(" = ");
+			outputs.get(k).append(out, names, false);
+			out.append('\n');
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		try {
+			append(sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);	// a StringBuilder never throws
+		}
+		return sb.toString();
+	}
+
+	private String toString(Expr expr) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			expr.append(sb, getSignalNames(), false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);	// a StringBuilder never throws
+		}
+		return sb.toString();
+	}
+
+	// returns the names of the signals, the variables and then the nodes
+	private List<String> getSignalNames() {
+		ArrayList<String> ret = new ArrayList<String>(vars);
+		ret.addAll(nodeNames);
+		return ret;
+	}
+
+	// a factored expression: a constant, a literal (2s for signal s, 2s + 1 for its complement) or an
+	// AND or OR of two or more children, none of them of the same kind
+	static final class Expr {
+
+		static final int ZERO = 0;
+		static final int ONE = 1;
+		static final int LITERAL = 2;
+		static final int AND = 3;
+		static final int OR = 4;
+
+		static final Expr FALSE = new Expr(ZERO, -1, null);
+		static final Expr TRUE = new Expr(ONE, -1, null);
+
+		final int kind;
+		final int literal;		// for a LITERAL
+		final Expr[] children;	// for an AND or OR
+
+		private Expr(int kind, int literal, Expr[] children) {
+			this.kind = kind;
+			this.literal = literal;
+			this.children = children;
+		}
+
+		static Expr literal(int literal) {
+			return new Expr(LITERAL, literal, null);
+		}
+
+		// returns the AND of the terms, flattening nested ANDs and dropping the constant 1
+		static Expr and(List<Expr> terms) {
+			return combine(AND, terms);
+		}
+
+		// returns the OR of the terms, flattening nested ORs and dropping the constant 0
+		static Expr or(List<Expr> terms) {
+			return combine(OR, terms);
+		}
+
+		private static Expr combine(int kind, List<Expr> terms) {
+			Expr identity = (kind == AND) ? TRUE : FALSE;
+			ArrayList<Expr> flat = new ArrayList<Expr>();
+			for (Expr term : terms) {
+				if (term == identity) { continue; }
+				if (term.kind == ZERO || term.kind == ONE) { return term; }	// the other constant absorbs everything
+				if (term.kind == kind) {
+					flat.addAll(Arrays.asList(term.children));
+				} else {
+					flat.add(term);
+				}
+			}
+			if (flat.isEmpty()) { return identity; }
+			if (flat.size() == 1) { return flat.get(0); }
+			if (kind == AND) {
+				// the literals in order of their signals, then the sums: ab'(c + d)
+				flat.sort(Comparator.comparingInt((Expr e) -> (e.kind == LITERAL) ? e.literal : Integer.MAX_VALUE));
+			}
+			return new Expr(kind, -1, flat.toArray(new Expr[0]));
+		}
+
+		// returns the dual expression, ANDs and ORs swapped and constants and the literals of the
+		// first numVars signals complemented: the complement of the expression when every node it
+		// uses is replaced by its own dual
+		Expr dual(int numVars) {
+			switch (kind) {
+				case ZERO:
+					return TRUE;
+				case ONE:
+					return FALSE;
+				case LITERAL:
+					return ((literal >>> 1) < numVars) ? literal(literal ^ 1) : this;
+				default:
+					ArrayList<Expr> duals = new ArrayList<Expr>();
+					for (Expr child : children) {
+						duals.add(child.dual(numVars));
+					}
+					return combine((kind == AND) ? OR : AND, duals);
+			}
+		}
+
+		int getNumLiterals() {
+			if (kind == LITERAL) { return 1; }
+			if (children == null) { return 0; }
+			int ret = 0;
+			for (Expr child : children) {
+				ret += child.getNumLiterals();
+			}
+			return ret;
+		}
+
+		int getNumGates() {
+			if (children == null) { return 0; }
+			int ret = children.length - 1;
+			for (Expr child : children) {
+				ret += child.getNumGates();
+			}
+			return ret;
+		}
+
+		boolean evaluate(boolean[] signals) {
+			switch (kind) {
+				case ZERO:
+					return false;
+				case ONE:
+					return true;
+				case LITERAL:
+					return signals[literal >>> 1] != ((literal & 1) != 0);
+				case AND:
+					for (Expr child : children) {
+						if (!child.evaluate(signals)) { return false; }
+					}
+					return true;
+				default:
+					for (Expr child : children) {
+						if (child.evaluate(signals)) { return true; }
+					}
+					return false;
+			}
+		}
+
+		// appends the expression like ExpressionFormatter: products by juxtaposition, sums joined by
+		// " + " and parenthesized inside products
+		void append(Appendable out, List<String> names, boolean inProduct) throws IOException {
+			switch (kind) {
+				case ZERO:
+					out.append('0');
+					break;
+				case ONE:
+					out.append('1');
+					break;
+				case LITERAL:
+					out.append(names.get(literal >>> 1));
+					if ((literal & 1) != 0) { out.append('\''); }
+					break;
+				case AND:
+					for (Expr child : children) {
+						child.append(out, names, true);
+					}
+					break;
+				default:
+					if (inProduct) { out.append('('); }
+					for (int i = 0; i < children.length; i++) {
+						if (i > 0) { out.append(" + "); }
+						children[i].append(out, names, false);
+					}
+					if (inProduct) { out.append(')'); }
+					break;
+			}
+		}
+	}
+}
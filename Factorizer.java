@@ -0,0 +1,514 @@
+// Multi-level optimization of minimized covers, run after cover selection. A flat sum of products
+// evaluates every literal of every product term; a FactoredNetwork evaluates common factors once per
+// expression and shared subexpressions once for all outputs. Two algebraic steps:
+// 1. Extraction: the network starts with one node per output. The kernels of every node (its
+//	  cube-free quotients by a cube) and the common cubes of pairs of product terms are candidate
+//	  subexpressions; the one saving the most literals when divided into every node it divides
+//	  becomes a new node, and the search repeats until no candidate saves any. Only subexpressions
+//	  used by two nodes or more are extracted: factoring handles the rest better on its own, and a
+//	  single output is only factored.
+// 2. Factoring: every node is factored by GFACTOR: divide by a level-0 kernel, make the quotient
+//	  cube-free, divide by it in turn and factor quotient, divisor and remainder recursively.
+// The result is whichever of the extracted network and the outputs factored alone has fewer
+// literals, so it never has more literals than the flat form. Both steps are algebraic (identities
+// such as aa' = 0 are never used) and exact: every node computes precisely what it replaces.
+// Cubes are BitSets of literals, 2s for signal s and 2s + 1 for its complement; the signals are the
+// variables and then the extracted nodes. A product of sums is factored through the complement its
+// implicants cover, then dualized.
+
+import java.util.*;
+
+public final class Factorizer {
+
+	// kernels enumerated per node during extraction, and product terms in all above which extraction
+	// is skipped and the outputs are only factored, bounding the time spent on large covers
+	static final int MAX_KERNELS = 256;
+	static final int MAX_EXTRACTION_CUBES = 256;
+
+	private final int numVars;
+	private final int numOutputs;
+	private final ArrayList<List<BitSet>> functions = new ArrayList<List<BitSet>>();	// the outputs, then the extracted nodes
+	private int numFlatLiterals;
+	private int numFlatGates;
+
+	private Factorizer(List<List<String>> outputs, int numVars) {
+		this.numVars = numVars;
+		this.numOutputs = outputs.size();
+		for (List<String> implicants : outputs) {
+			ArrayList<BitSet> function = new ArrayList<BitSet>();
+			for (String implicant : implicants) {
+				if (implicant.length() != numVars) {
+					throw new IllegalArgumentException("Implicant " + implicant + " does not have " + numVars + " variables");
+				}
+				BitSet cube = new BitSet();
+				for (int i = 0; i < numVars; i++) {
+					char c = implicant.charAt(i);
+					if (c != '-') { cube.set(2 * i + ((c == '0') ? 1 : 0)); }
+				}
+				function.add(cube);
+				numFlatLiterals += cube.cardinality();
+				numFlatGates += Math.max(0, cube.cardinality() - 1);
+			}
+			numFlatGates += Math.max(0, function.size() - 1);
+			functions.add(function);
+		}
+	}
+
+	// factors the first solution of the result
+	public static FactoredNetwork factor(MinimizationResult result) {
+		return factor(Collections.singletonList(result.getImplicants()), result.getVars(), result.isProductOfSums());
+	}
+
+	// factors every output of the result into one network, sharing subexpressions between them
+	public static FactoredNetwork factor(MultiOutputResult result) {
+		ArrayList<List<String>> outputs = new ArrayList<List<String>>();
+		for (int k = 0; k < result.getNumOutputs(); k++) {
+			outputs.add(result.getImplicants(k));
+		}
+		return factor(outputs, result.getVars(), false);
+	}
+
+	// factors the sums of the implicants ('0'/'1'/'-' strings in the order of vars), one list per
+	// output; productOfSums reads every list as the implicants of the complement of its output, as in
+	// a product-of-sums MinimizationResult
+	public static FactoredNetwork factor(List<List<String>> outputs, List<String> vars, boolean productOfSums) {
+		Factorizer alone = new Factorizer(outputs, vars.size());
+		FactoredNetwork ret = alone.build(vars, productOfSums);
+		if (outputs.size() >= 2 && alone.getNumCubes() <= MAX_EXTRACTION_CUBES) {
+			Factorizer extracted = new Factorizer(outputs, vars.size());
+			extracted.extract();
+			FactoredNetwork network = extracted.build(vars, productOfSums);
+			if (network.getNumLiterals() < ret.getNumLiterals()
+					|| (network.getNumLiterals() == ret.getNumLiterals() && network.getNumGates() < ret.getNumGates())) {
+				ret = network;
+			}
+		}
+		return ret;
+	}
+
+	// extracts the best candidate subexpression into a new node until none saves a literal
+	private void extract() {
+		while (true) {
+			int numLiterals = getNumLiterals();
+			LinkedHashMap<Set<BitSet>, List<BitSet>> kernels = new LinkedHashMap<Set<BitSet>, List<BitSet>>();
+			for (List<BitSet> function : functions) {
+				findKernels(function, 0, numLiterals, kernels, kernels.size() + MAX_KERNELS);
+			}
+			List<BitSet> supports = new ArrayList<BitSet>();
+			for (List<BitSet> function : functions) {
+				supports.add(getSupport(function));
+			}
+			List<BitSet> best = null;
+			BitSet bestCube = null;
+			int bestGain = 0;
+			for (List<BitSet> kernel : kernels.values()) {
+				int gain = getKernelGain(kernel, supports);
+				if (gain > bestGain) {
+					best = kernel;
+					bestGain = gain;
+				}
+			}
+			for (BitSet cube : getCommonCubes()) {
+				int gain = getCubeGain(cube, supports);
+				if (gain > bestGain) {
+					bestCube = cube;
+					bestGain = gain;
+				}
+			}
+			if (bestCube != null) {
+				substituteCube(bestCube);
+			} else if (best != null) {
+				substituteKernel(best);
+			} else {
+				return;
+			}
+		}
+	}
+
+	// adds the kernels of the function reached by dividing by cubes of literals from minLiteral on,
+	// and the function itself if it is cube-free; each kernel is reached once, through the smallest
+	// literal of its co-kernel. Stops once out holds limit kernels.
+	private static void findKernels(List<BitSet> function, int minLiteral, int numLiterals, Map<Set<BitSet>, List<BitSet>> out,
+			int limit) {
+		int[] counts = getLiteralCounts(function, numLiterals);
+		for (int l = minLiteral; l < numLiterals && out.size() < limit; l++) {
+			if (counts[l] < 2) { continue; }
+			BitSet literal = new BitSet();
+			literal.set(l);
+			List<BitSet> containing = getMultiples(function, literal);
+			BitSet common = getCommonCube(containing);
+			if (common.nextSetBit(0) < l) { continue; }	// found from a smaller literal already
+			findKernels(divideByCube(containing, common), l + 1, numLiterals, out, limit);
+		}
+		if (isCubeFree(function) && out.size() < limit) {
+			out.putIfAbsent(new HashSet<BitSet>(function), function);
+		}
+	}
+
+	// returns the literals saved by making the kernel a node and dividing it into every node, or 0 if
+	// fewer than two nodes would use it: each of the |Q| * |K| products of the quotient Q and kernel
+	// K becomes a product of the quotient cube and the new node. supports holds the literals of each
+	// node, so nodes missing one of the kernel are skipped without dividing.
+	private int getKernelGain(List<BitSet> kernel, List<BitSet> supports) {
+		int kernelLiterals = getNumLiterals(kernel);
+		BitSet kernelSupport = getSupport(kernel);
+		int gain = -kernelLiterals;
+		int numUsers = 0;
+		for (int i = 0; i < functions.size(); i++) {
+			if (!isSubset(kernelSupport, supports.get(i))) { continue; }
+			List<BitSet> quotient = getQuotient(i, kernel);
+			if (quotient.isEmpty()) { continue; }
+			numUsers++;
+			gain += (kernel.size() - 1) * getNumLiterals(quotient) + quotient.size() * (kernelLiterals - 1);
+		}
+		return (numUsers < 2) ? 0 : gain;
+	}
+
+	// returns the quotient of function i by the divisor, empty for a node that is the divisor itself
+	// and would only become a copy of the new node
+	private List<BitSet> getQuotient(int i, List<BitSet> divisor) {
+		List<BitSet> function = functions.get(i);
+		if (i >= numOutputs && function.size() == divisor.size() && new HashSet<BitSet>(function).equals(new HashSet<BitSet>(divisor))) {
+			return new ArrayList<BitSet>();
+		}
+		return divide(function, divisor);
+	}
+
+	// returns the intersections of two or more literals of product terms of different nodes
+	private Collection<BitSet> getCommonCubes() {
+		LinkedHashSet<BitSet> ret = new LinkedHashSet<BitSet>();
+		for (int i = 0; i < functions.size(); i++) {
+			for (int j = i + 1; j < functions.size(); j++) {
+				for (BitSet a : functions.get(i)) {
+					for (BitSet b : functions.get(j)) {
+						BitSet common = (BitSet)a.clone();
+						common.and(b);
+						if (common.cardinality() >= 2) { ret.add(common); }
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	// returns the literals saved by making the cube a node used by every product term containing it,
+	// or 0 if fewer than two nodes would use it
+	private int getCubeGain(BitSet cube, List<BitSet> supports) {
+		int size = cube.cardinality();
+		int numMultiples = 0;
+		int numUsers = 0;
+		for (int i = 0; i < functions.size(); i++) {
+			if (!isSubset(cube, supports.get(i))) { continue; }
+			List<BitSet> function = functions.get(i);
+			if (i >= numOutputs && function.size() == 1 && function.get(0).equals(cube)) { continue; }
+			int n = 0;
+			for (BitSet c : function) {
+				if (isSubset(cube, c)) { n++; }
+			}
+			numMultiples += n;
+			if (n > 0) { numUsers++; }
+		}
+		return (numUsers < 2) ? 0 : numMultiples * (size - 1) - size;
+	}
+
+	// makes the kernel a node and rewrites every node it divides as quotient * node + remainder
+	private void substituteKernel(List<BitSet> kernel) {
+		int literal = getNumLiterals();
+		for (int i = 0; i < functions.size(); i++) {
+			List<BitSet> quotient = getQuotient(i, kernel);
+			if (quotient.isEmpty()) { continue; }
+			List<BitSet> rewritten = getRemainder(functions.get(i), quotient, kernel);
+			for (BitSet q : quotient) {
+				BitSet cube = (BitSet)q.clone();
+				cube.set(literal);
+				rewritten.add(cube);
+			}
+			functions.set(i, rewritten);
+		}
+		functions.add(kernel);
+	}
+
+	// makes the cube a node and replaces it by the node in every product term containing it
+	private void substituteCube(BitSet common) {
+		int literal = getNumLiterals();
+		List<BitSet> node = Collections.singletonList(common);
+		for (int i = 0; i < functions.size(); i++) {
+			if (getQuotient(i, node).isEmpty()) { continue; }
+			ArrayList<BitSet> rewritten = new ArrayList<BitSet>();
+			for (BitSet cube : functions.get(i)) {
+				if (isSubset(common, cube)) {
+					cube = (BitSet)cube.clone();
+					cube.andNot(common);
+					cube.set(literal);
+				}
+				rewritten.add(cube);
+			}
+			functions.set(i, rewritten);
+		}
+		functions.add(node);
+	}
+
+	// factors every node the outputs use, in an order where each only uses the ones before it
+	private FactoredNetwork build(List<String> vars, boolean productOfSums) {
+		int numNodes = functions.size() - numOutputs;
+		int[] order = new int[numNodes];	// new index of each node, -1 if unused
+		Arrays.fill(order, -1);
+		ArrayList<Integer> used = new ArrayList<Integer>();
+		for (int k = 0; k < numOutputs; k++) {
+			visit(functions.get(k), order, used);
+		}
+		int[] signals = new int[numVars + numNodes];
+		for (int s = 0; s < signals.length; s++) {
+			signals[s] = (s < numVars) ? s : numVars + order[s - numVars];
+		}
+		int numLiterals = 2 * (numVars + used.size());
+
+		ArrayList<String> nodeNames = new ArrayList<String>();
+		ArrayList<FactoredNetwork.Expr> nodes = new ArrayList<FactoredNetwork.Expr>();
+		int number = 0;
+		for (int node : used) {
+			String name;
+			do {
+				name = "t" + (++number);
+			} while (vars.contains(name));
+			nodeNames.add(name);
+			nodes.add(getExpr(rename(functions.get(numOutputs + node), signals), numLiterals, productOfSums));
+		}
+		ArrayList<String> outputNames = new ArrayList<String>();
+		ArrayList<FactoredNetwork.Expr> outputs = new ArrayList<FactoredNetwork.Expr>();
+		for (int k = 0; k < numOutputs; k++) {
+			outputNames.add((numOutputs == 1) ? "f" : "f" + (k + 1));
+			outputs.add(getExpr(rename(functions.get(k), signals), numLiterals, productOfSums));
+		}
+		return new FactoredNetwork(vars, nodeNames, nodes, outputNames, outputs, productOfSums, numFlatLiterals, numFlatGates);
+	}
+
+	// adds the nodes the function uses to used after the nodes they use in turn
+	private void visit(List<BitSet> function, int[] order, List<Integer> used) {
+		for (BitSet cube : function) {
+			for (int l = cube.nextSetBit(2 * numVars); l >= 0; l = cube.nextSetBit(l + 1)) {
+				int node = (l >>> 1) - numVars;
+				if (order[node] >= 0) { continue; }
+				visit(functions.get(numOutputs + node), order, used);
+				order[node] = used.size();
+				used.add(node);
+			}
+		}
+	}
+
+	// returns the cubes with the signals of their literals renumbered
+	private static List<BitSet> rename(List<BitSet> function, int[] signals) {
+		ArrayList<BitSet> ret = new ArrayList<BitSet>();
+		for (BitSet cube : function) {
+			BitSet renamed = new BitSet();
+			for (int l = cube.nextSetBit(0); l >= 0; l = cube.nextSetBit(l + 1)) {
+				renamed.set(2 * signals[l >>> 1] + (l & 1));
+			}
+			ret.add(renamed);
+		}
+		return ret;
+	}
+
+	private FactoredNetwork.Expr getExpr(List<BitSet> function, int numLiterals, boolean productOfSums) {
+		FactoredNetwork.Expr ret = factor(function, numLiterals);
+		return productOfSums ? ret.dual(numVars) : ret;
+	}
+
+	// returns the factored form of the function (GFACTOR)
+	static FactoredNetwork.Expr factor(List<BitSet> function, int numLiterals) {
+		if (getMaxCount(getLiteralCounts(function, numLiterals)) < 2) { return getSum(function); }
+		List<BitSet> divisor = getQuickDivisor(function, numLiterals);
+		List<BitSet> quotient = divide(function, divisor);
+		if (quotient.size() == 1) { return factorByLiteral(function, quotient.get(0), numLiterals); }
+		quotient = makeCubeFree(quotient);
+		divisor = divide(function, quotient);
+		if (!isCubeFree(divisor)) { return factorByLiteral(function, getCommonCube(divisor), numLiterals); }
+		List<BitSet> remainder = getRemainder(function, quotient, divisor);
+		return FactoredNetwork.Expr.or(Arrays.asList(
+			FactoredNetwork.Expr.and(Arrays.asList(factor(quotient, numLiterals), factor(divisor, numLiterals))),
+			factor(remainder, numLiterals)));
+	}
+
+	// factors out the literal of the cube found in the most product terms, and with it whatever those
+	// terms have in common
+	private static FactoredNetwork.Expr factorByLiteral(List<BitSet> function, BitSet cube, int numLiterals) {
+		if (cube.isEmpty()) { return getSum(function); }
+		int[] counts = getLiteralCounts(function, numLiterals);
+		int best = cube.nextSetBit(0);
+		for (int l = cube.nextSetBit(best + 1); l >= 0; l = cube.nextSetBit(l + 1)) {
+			if (counts[l] > counts[best]) { best = l; }
+		}
+		BitSet literal = new BitSet();
+		literal.set(best);
+		List<BitSet> quotient = divideByCube(function, literal);
+		List<BitSet> remainder = getRemainder(function, quotient, Collections.singletonList(literal));
+		BitSet common = getCommonCube(quotient);
+		common.set(best);
+		return FactoredNetwork.Expr.or(Arrays.asList(
+			FactoredNetwork.Expr.and(Arrays.asList(getProduct(common), factor(divideByCube(function, common), numLiterals))),
+			factor(remainder, numLiterals)));
+	}
+
+	// returns a level-0 kernel of a function with a repeated literal, reached by dividing by the
+	// most frequent literal and making the quotient cube-free until no literal repeats
+	private static List<BitSet> getQuickDivisor(List<BitSet> function, int numLiterals) {
+		List<BitSet> ret = function;
+		while (true) {
+			int[] counts = getLiteralCounts(ret, numLiterals);
+			int best = 0;
+			for (int l = 1; l < numLiterals; l++) {
+				if (counts[l] > counts[best]) { best = l; }
+			}
+			if (counts[best] < 2) { return ret; }
+			BitSet literal = new BitSet();
+			literal.set(best);
+			ret = makeCubeFree(divideByCube(ret, literal));
+		}
+	}
+
+	// returns the algebraic quotient of the function by the divisor: the cubes q such that q * d is a
+	// product term of the function for every cube d of the divisor
+	static List<BitSet> divide(List<BitSet> function, List<BitSet> divisor) {
+		List<BitSet> ret = null;
+		for (BitSet d : divisor) {
+			List<BitSet> quotient = divideByCube(function, d);
+			if (ret == null) {
+				ret = quotient;
+			} else {
+				ret.retainAll(new HashSet<BitSet>(quotient));
+			}
+			if (ret.isEmpty()) { break; }
+		}
+		return (ret == null) ? new ArrayList<BitSet>() : ret;
+	}
+
+	// returns the product terms of the function that are not a product of the quotient and divisor
+	static List<BitSet> getRemainder(List<BitSet> function, List<BitSet> quotient, List<BitSet> divisor) {
+		HashSet<BitSet> products = new HashSet<BitSet>();
+		for (BitSet q : quotient) {
+			for (BitSet d : divisor) {
+				BitSet product = (BitSet)q.clone();
+				product.or(d);
+				products.add(product);
+			}
+		}
+		ArrayList<BitSet> ret = new ArrayList<BitSet>();
+		for (BitSet cube : function) {
+			if (!products.contains(cube)) { ret.add(cube); }
+		}
+		return ret;
+	}
+
+	// returns the product terms containing the cube, with the cube taken out
+	static List<BitSet> divideByCube(List<BitSet> function, BitSet cube) {
+		ArrayList<BitSet> ret = new ArrayList<BitSet>();
+		for (BitSet c : function) {
+			if (!isSubset(cube, c)) { continue; }
+			BitSet q = (BitSet)c.clone();
+			q.andNot(cube);
+			ret.add(q);
+		}
+		return ret;
+	}
+
+	// returns the product terms containing the cube
+	private static List<BitSet> getMultiples(List<BitSet> function, BitSet cube) {
+		ArrayList<BitSet> ret = new ArrayList<BitSet>();
+		for (BitSet c : function) {
+			if (isSubset(cube, c)) { ret.add(c); }
+		}
+		return ret;
+	}
+
+	// returns the literals every product term has, none for no terms
+	static BitSet getCommonCube(List<BitSet> function) {
+		if (function.isEmpty()) { return new BitSet(); }
+		BitSet ret = (BitSet)function.get(0).clone();
+		for (BitSet cube : function) {
+			ret.and(cube);
+		}
+		return ret;
+	}
+
+	// returns the function divided by the literals its product terms have in common
+	private static List<BitSet> makeCubeFree(List<BitSet> function) {
+		BitSet common = getCommonCube(function);
+		return common.isEmpty() ? function : divideByCube(function, common);
+	}
+
+	// returns true if the function has two or more product terms sharing no literal
+	static boolean isCubeFree(List<BitSet> function) {
+		return function.size() >= 2 && getCommonCube(function).isEmpty();
+	}
+
+	// returns every literal of the function
+	private static BitSet getSupport(List<BitSet> function) {
+		BitSet ret = new BitSet();
+		for (BitSet cube : function) {
+			ret.or(cube);
+		}
+		return ret;
+	}
+
+	private static boolean isSubset(BitSet cube, BitSet of) {
+		for (int l = cube.nextSetBit(0); l >= 0; l = cube.nextSetBit(l + 1)) {
+			if (!of.get(l)) { return false; }
+		}
+		return true;
+	}
+
+	private static int[] getLiteralCounts(List<BitSet> function, int numLiterals) {
+		int[] ret = new int[numLiterals];
+		for (BitSet cube : function) {
+			for (int l = cube.nextSetBit(0); l >= 0; l = cube.nextSetBit(l + 1)) {
+				ret[l]++;
+			}
+		}
+		return ret;
+	}
+
+	private static int getMaxCount(int[] counts) {
+		int ret = 0;
+		for (int count : counts) {
+			ret = Math.max(ret, count);
+		}
+		return ret;
+	}
+
+	private static int getNumLiterals(List<BitSet> function) {
+		int ret = 0;
+		for (BitSet cube : function) {
+			ret += cube.cardinality();
+		}
+		return ret;
+	}
+
+	private static FactoredNetwork.Expr getSum(List<BitSet> function) {
+		ArrayList<FactoredNetwork.Expr> terms = new ArrayList<FactoredNetwork.Expr>();
+		for (BitSet cube : function) {
+			terms.add(getProduct(cube));
+		}
+		return FactoredNetwork.Expr.or(terms);
+	}
+
+	private static FactoredNetwork.Expr getProduct(BitSet cube) {
+		ArrayList<FactoredNetwork.Expr> literals = new ArrayList<FactoredNetwork.Expr>();
+		for (int l = cube.nextSetBit(0); l >= 0; l = cube.nextSetBit(l + 1)) {
+			literals.add(FactoredNetwork.Expr.literal(l));
+		}
+		return FactoredNetwork.Expr.and(literals);
+	}
+
+	// returns the number of literal indices in use, which is also the first literal of the next node
+	private int getNumLiterals() {
+		return 2 * (numVars + functions.size() - numOutputs);
+	}
+
+	private int getNumCubes() {
+		int ret = 0;
+		for (List<BitSet> function : functions) {
+			ret += function.size();
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,99 @@
+// Lock-free histogram of non-negative longs (nanoseconds, usually) in the style of HdrHistogram:
+// values below 64 get a bucket each, and every power of two above that is split into 32 equal
+// buckets, so any recorded value is reported within 1/32 (about 3%) of its true value whatever its
+// magnitude, in a fixed 1888-bucket array. Recording is one atomic increment plus the running
+// count, sum, min and max; reading walks the buckets.
+
+import java.util.concurrent.atomic.*;
+
+public class LatencyHistogram {
+
+	static final int SUB_BUCKET_BITS = 5;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// the highest bucket holds values up to Long.MAX_VALUE: shift 57, top 63
+	static final int MAX_SHIFT = 62 - SUB_BUCKET_BITS;
+	static final int NUM_BUCKETS = MAX_SHIFT * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	// records one value; negative values count as 0
+	public void record(long value) {
+		if (value < 0) { value = 0; }
+		counts.incrementAndGet(getBucket(value));
+		count.increment();
+		sum.add(value);
+		min.accumulate(value);
+		max.accumulate(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	// returns the exact smallest value recorded, 0 if there are none
+	public long getMin() {
+		return (getCount() == 0) ? 0 : min.get();
+	}
+
+	// returns the exact largest value recorded
+	public long getMax() {
+		return max.get();
+	}
+
+	// returns the exact mean of the values recorded, 0 if there are none
+	public double getMean() {
+		long n = getCount();
+		return (n == 0) ? 0 : (double)sum.sum() / n;
+	}
+
+	// returns the value at or below which the given percentage (0 to 100) of the values fall, as the
+	// upper end of its bucket (never past the largest value recorded)
+	public long getValueAtPercentile(double percentile) {
+		long n = getCount();
+		if (n == 0) { return 0; }
+		long target = Math.max(1, (long)Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for (int b = 0; b < NUM_BUCKETS; b++) {
+			seen += counts.get(b);
+			if (seen >= target) { return Math.min(getBucketUpperBound(b), getMax()); }
+		}
+		return getMax();
+	}
+
+	// forgets every value; values recorded while it runs may be partly kept
+	public void reset() {
+		for (int b = 0; b < NUM_BUCKETS; b++) {
+			counts.set(b, 0);
+		}
+		count.reset();
+		sum.reset();
+		min.reset();
+		max.reset();
+	}
+
+	// returns the bucket of a non-negative value
+	static int getBucket(long value) {
+		if (value < 2 * SUB_BUCKETS) { return (int)value; }
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKETS + (int)(value >>> shift);
+	}
+
+	// returns the largest value that falls in the bucket
+	static long getBucketUpperBound(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) { return bucket; }
+		int shift = bucket / SUB_BUCKETS - 1;
+		long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+		return (shift == MAX_SHIFT && top == 2 * SUB_BUCKETS - 1) ? Long.MAX_VALUE : ((top + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + " mean=" + Math.round(getMean()) + " p50=" + getValueAtPercentile(50)
+			+ " p90=" + getValueAtPercentile(90) + " p99=" + getValueAtPercentile(99)
+			+ " p99.9=" + getValueAtPercentile(99.9) + " max=" + getMax();
+	}
+}
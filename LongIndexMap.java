@@ -0,0 +1,82 @@
+// Open-addressing hash map from long keys to dense insertion indices 0..size()-1.
+// Used to deduplicate packed cubes without boxing them into a LinkedHashSet.
+
+import java.util.*;
+
+public class LongIndexMap {
+
+	private long[] keys;
+	private int[] slots;	// index + 1 into keys, 0 for an empty slot
+	private int size;
+
+	public LongIndexMap() {
+		this(16);
+	}
+
+	public LongIndexMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new long[Math.max(4, expectedSize)];
+		slots = new int[capacity];
+	}
+
+	// returns the number of distinct keys added so far
+	public int size() {
+		return size;
+	}
+
+	// returns the key added at the given index
+	public long keyAt(int index) {
+		return keys[index];
+	}
+
+	// returns the keys in insertion order
+	public long[] toArray() {
+		return Arrays.copyOf(keys, size);
+	}
+
+	// returns the index of the key, or -1 if it was never added
+	public int indexOf(long key) {
+		int mask = slots.length - 1;
+		for (int slot = hash(key) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			if (keys[slots[slot] - 1] == key) { return slots[slot] - 1; }
+		}
+		return -1;
+	}
+
+	// adds the key if it is not present and returns its index
+	public int add(long key) {
+		int mask = slots.length - 1;
+		int slot = hash(key) & mask;
+		for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+			if (keys[slots[slot] - 1] == key) { return slots[slot] - 1; }
+		}
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+		}
+		keys[size] = key;
+		slots[slot] = ++size;
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return size - 1;
+	}
+
+	// doubles the slot table and reinserts every key
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = hash(keys[i]) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = i + 1;
+		}
+	}
+
+	// mixes the bits of the key so nearby cubes spread across the table
+	private static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int)(key ^ (key >>> 32));
+	}
+}
@@ -0,0 +1,134 @@
+// Thread-safe MinimizationListener accumulating the measurements of every minimization it is given:
+// a LatencyHistogram per stage, a running total per counter and, per Quine-McCluskey level, the
+// cubes, neighbour lookups and combined pairs. One registry may be shared by any number of
+// minimizers and threads. register exposes it as an MBean so the numbers can be read over JMX.
+//
+//	  MetricsRegistry metrics = new MetricsRegistry();
+//	  Minimizer minimizer = new Minimizer().withListener(metrics);
+//	  ...
+//	  metrics.getHistogram(MinimizationListener.Stage.COVER).getValueAtPercentile(99)
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+public class MetricsRegistry implements MinimizationListener, MetricsRegistryMBean {
+
+	public static final String DEFAULT_OBJECT_NAME = "booleanalgebra:type=MinimizationMetrics";
+
+	// a cube has at most one dash per variable
+	static final int MAX_LEVELS = Cube.MAX_PACKED_VARS + 1;
+
+	private final EnumMap<Stage, LatencyHistogram> stages = new EnumMap<Stage, LatencyHistogram>(Stage.class);
+	private final EnumMap<Counter, LongAdder> counters = new EnumMap<Counter, LongAdder>(Counter.class);
+	private final AtomicLongArray levelCubes = new AtomicLongArray(MAX_LEVELS);
+	private final AtomicLongArray levelAttempts = new AtomicLongArray(MAX_LEVELS);
+	private final AtomicLongArray levelSuccesses = new AtomicLongArray(MAX_LEVELS);
+
+	// the maps are filled once here and only read afterwards, so they need no locking
+	public MetricsRegistry() {
+		for (Stage stage : Stage.values()) {
+			stages.put(stage, new LatencyHistogram());
+		}
+		for (Counter counter : Counter.values()) {
+			counters.put(counter, new LongAdder());
+		}
+	}
+
+	@Override
+	public void onStage(Stage stage, long nanos) {
+		stages.get(stage).record(nanos);
+	}
+
+	@Override
+	public void onCount(Counter counter, long value) {
+		counters.get(counter).add(value);
+	}
+
+	@Override
+	public void onCombineLevel(int level, long cubes, long attempts, long successes) {
+		levelCubes.addAndGet(level, cubes);
+		levelAttempts.addAndGet(level, attempts);
+		levelSuccesses.addAndGet(level, successes);
+	}
+
+	// returns the live histogram of the stage's latencies in nanoseconds
+	public LatencyHistogram getHistogram(Stage stage) {
+		return stages.get(stage);
+	}
+
+	// returns the total of the counter over every minimization so far
+	public long getCount(Counter counter) {
+		return counters.get(counter).sum();
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		LinkedHashMap<String, Long> ret = new LinkedHashMap<String, Long>();
+		for (Counter counter : Counter.values()) {
+			ret.put(counter.name(), getCount(counter));
+		}
+		return ret;
+	}
+
+	@Override
+	public Map<String, String> getStageLatencies() {
+		LinkedHashMap<String, String> ret = new LinkedHashMap<String, String>();
+		for (Stage stage : Stage.values()) {
+			ret.put(stage.name(), stages.get(stage).toString());
+		}
+		return ret;
+	}
+
+	@Override
+	public List<String> getCombineLevels() {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (int level = 0; level < MAX_LEVELS; level++) {
+			if (levelCubes.get(level) == 0) { continue; }
+			ret.add("level " + level + ": cubes=" + levelCubes.get(level) + " attempts=" + levelAttempts.get(level)
+				+ " successes=" + levelSuccesses.get(level));
+		}
+		return ret;
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : stages.values()) {
+			histogram.reset();
+		}
+		for (LongAdder counter : counters.values()) {
+			counter.reset();
+		}
+		for (int level = 0; level < MAX_LEVELS; level++) {
+			levelCubes.set(level, 0);
+			levelAttempts.set(level, 0);
+			levelSuccesses.set(level, 0);
+		}
+	}
+
+	// registers the registry with the platform MBean server under DEFAULT_OBJECT_NAME
+	public ObjectName register() throws JMException {
+		ObjectName name = new ObjectName(DEFAULT_OBJECT_NAME);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		return name;
+	}
+
+	// returns a report of every stage seen, every non-zero counter and every level, one per line
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Stage stage : Stage.values()) {
+			if (stages.get(stage).getCount() == 0) { continue; }
+			sb.append(stage).append(" ns: ").append(stages.get(stage)).append('\n');
+		}
+		for (Counter counter : Counter.values()) {
+			if (getCount(counter) == 0) { continue; }
+			sb.append(counter).append(": ").append(getCount(counter)).append('\n');
+		}
+		for (String level : getCombineLevels()) {
+			sb.append(level).append('\n');
+		}
+		return sb.toString();
+	}
+}
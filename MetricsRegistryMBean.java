@@ -0,0 +1,18 @@
+// Management interface of MetricsRegistry, so the metrics can be read over JMX (jconsole,
+// VisualVM, any JMX exporter) once registered.
+
+import java.util.*;
+
+public interface MetricsRegistryMBean {
+
+	// every counter by name
+	Map<String, Long> getCounters();
+
+	// a latency summary in nanoseconds for every stage by name
+	Map<String, String> getStageLatencies();
+
+	// one line per Quine-McCluskey level seen: cubes, neighbour lookups and pairs combined
+	List<String> getCombineLevels();
+
+	void reset();
+}
@@ -0,0 +1,75 @@
+// Limits on a single minimization: a wall-clock time limit, the most prime implicants to generate
+// and the most terms Petrick's product may hold. They are checked cooperatively inside the prime
+// implicant and cover loops, which throw a BudgetExceededException; the Minimizer then falls back to
+// a bounded method (growing each minterm into one prime in place of the prime implicants, a greedy
+// cover in place of the minimum one) and marks the result as not minimal, so one pathological input
+// costs bounded time and memory instead of hanging a thread or exhausting the heap.
+// A limit of 0 means none. Immutable.
+
+import java.util.concurrent.*;
+
+public final class MinimizationBudget {
+
+	public static final MinimizationBudget UNLIMITED = new MinimizationBudget(0, 0, 0);
+
+	private final long timeLimitNanos;
+	private final int maxPrimeImplicants;
+	private final int maxPetrickProductSize;
+
+	private MinimizationBudget(long timeLimitNanos, int maxPrimeImplicants, int maxPetrickProductSize) {
+		if (timeLimitNanos < 0 || maxPrimeImplicants < 0 || maxPetrickProductSize < 0) {
+			throw new IllegalArgumentException("Budget limits must not be negative");
+		}
+		this.timeLimitNanos = timeLimitNanos;
+		this.maxPrimeImplicants = maxPrimeImplicants;
+		this.maxPetrickProductSize = maxPetrickProductSize;
+	}
+
+	public MinimizationBudget withTimeLimit(long time, TimeUnit unit) {
+		return new MinimizationBudget(unit.toNanos(time), maxPrimeImplicants, maxPetrickProductSize);
+	}
+
+	public MinimizationBudget withMaxPrimeImplicants(int maxPrimeImplicants) {
+		return new MinimizationBudget(timeLimitNanos, maxPrimeImplicants, maxPetrickProductSize);
+	}
+
+	public MinimizationBudget withMaxPetrickProductSize(int maxPetrickProductSize) {
+		return new MinimizationBudget(timeLimitNanos, maxPrimeImplicants, maxPetrickProductSize);
+	}
+
+	public long getTimeLimitNanos() {
+		return timeLimitNanos;
+	}
+
+	public int getMaxPrimeImplicants() {
+		return maxPrimeImplicants;
+	}
+
+	public int getMaxPetrickProductSize() {
+		return maxPetrickProductSize;
+	}
+
+	public boolean isUnlimited() {
+		return timeLimitNanos == 0 && maxPrimeImplicants == 0 && maxPetrickProductSize == 0;
+	}
+
+	// returns the System.nanoTime deadline of a minimization starting now, 0 for none
+	public long getDeadline() {
+		if (timeLimitNanos == 0) { return 0; }
+		long ret = System.nanoTime() + timeLimitNanos;
+		return (ret == 0) ? 1 : ret;
+	}
+
+	// throws if the deadline (0 for none) has passed
+	static void checkDeadline(long deadline) {
+		if (deadline != 0 && System.nanoTime() - deadline > 0) {
+			throw new BudgetExceededException("Time limit exceeded");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MinimizationBudget[timeLimitNanos=" + timeLimitNanos + ", maxPrimeImplicants=" + maxPrimeImplicants
+			+ ", maxPetrickProductSize=" + maxPetrickProductSize + "]";
+	}
+}
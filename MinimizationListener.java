@@ -0,0 +1,39 @@
+// Receives measurements from a Minimizer given one with withListener: how long each stage of a
+// minimization took and what it counted along the way, a multi-output minimization reporting its
+// joint primes and cover once. Calls come from whichever thread ran the minimization, possibly
+// several at once, so implementations must be thread-safe and should return quickly. A Minimizer
+// without a listener measures nothing.
+// MetricsRegistry is the standard implementation.
+
+public interface MinimizationListener {
+
+	// the timed parts of a minimization; TOTAL spans the whole call, truth table included, and
+	// FACTORING is timed by the separate calls to Minimizer.factor
+	enum Stage { TRUTH_TABLE, STORE_LOOKUP, PRIME_IMPLICANTS, ESSENTIALS, COVER, HEURISTIC, TOTAL, FACTORING }
+
+	enum Counter {
+		MINIMIZATIONS,
+		ROWS_EVALUATED,					// truth table rows evaluated, don't-care rows included
+		PRIME_IMPLICANTS,
+		ESSENTIAL_PRIME_IMPLICANTS,
+		COVER_CANDIDATES,				// nonessential primes left for the cover solver
+		COVER_SEARCH_NODES,				// branch and bound calls
+		PETRICK_CLAUSES,
+		PETRICK_MAX_PRODUCT_SIZE,		// most terms of Petrick's product at once
+		ESPRESSO_ITERATIONS,
+		CACHE_HITS,
+		CACHE_MISSES,
+		STORE_HITS,						// results read from a ResultStore instead of minimized
+		BUDGET_EXCEEDED					// minimizations finished by a fallback
+	}
+
+	// called once per stage with its wall-clock time
+	void onStage(Stage stage, long nanos);
+
+	// called with the value of a counter for one minimization
+	void onCount(Counter counter, long value);
+
+	// called once per Quine-McCluskey level: level L holds the cubes with L dashes, attempts is the
+	// number of neighbour lookups made and successes the number of pairs that combined
+	void onCombineLevel(int level, long cubes, long attempts, long successes);
+}
@@ -0,0 +1,242 @@
+// Immutable result of one minimization: the variables, the minterms and don't-cares, the prime
+// implicants found along the way, and every minimum solution as a list of implicants ('0'/'1'/'-'
+// strings in the order of vars). Safe to share between threads.
+// Every list of implicants is kept in IMPLICANT_ORDER and the solutions in the order of their
+// implicant lists, so a result reads the same however it was produced: minimized afresh, mapped back
+// from a cached or stored canonical form, or decoded.
+// A product-of-sums result keeps the truth table of the function but the implicants of its
+// complement: each implicant of f' is one sum of f, (a + b') for the implicant a'b.
+// A result the Minimizer finished with a fallback after its MinimizationBudget ran out is marked
+// as such and is not guaranteed minimal.
+
+import java.io.*;
+import java.util.*;
+
+public final class MinimizationResult {
+
+	private final List<String> vars;
+	private final TruthTable truthTable;	// null when the engine never built one
+	private final TruthTable dontCares;		// null when there are none or the engine never built the table
+	private final List<String> primeImplicants;
+	private final List<String> essentialPrimeImplicants;
+	private final List<List<String>> solutions;
+	private final Minimizer.Engine engine;
+	private final boolean productOfSums;
+	private final boolean budgetExceeded;
+
+	// compares implicants position by position with '1' before '0' before '-', so the terms of a sum
+	// read in the order of the variables: ab + ac' + a'd + bc
+	public static final Comparator<String> IMPLICANT_ORDER = (x, y) -> {
+		for (int i = 0; i < Math.min(x.length(), y.length()); i++) {
+			int diff = getLiteralRank(x.charAt(i)) - getLiteralRank(y.charAt(i));
+			if (diff != 0) { return diff; }
+		}
+		return x.length() - y.length();
+	};
+
+	public MinimizationResult(List<String> vars, TruthTable truthTable, List<String> primeImplicants,
+			List<String> essentialPrimeImplicants, List<List<String>> solutions, Minimizer.Engine engine) {
+		this(vars, truthTable, null, primeImplicants, essentialPrimeImplicants, solutions, engine);
+	}
+
+	public MinimizationResult(List<String> vars, TruthTable truthTable, TruthTable dontCares, List<String> primeImplicants,
+			List<String> essentialPrimeImplicants, List<List<String>> solutions, Minimizer.Engine engine) {
+		this(vars, truthTable, dontCares, primeImplicants, essentialPrimeImplicants, solutions, engine, false);
+	}
+
+	// productOfSums marks the implicants as those of the complement of the function in truthTable
+	public MinimizationResult(List<String> vars, TruthTable truthTable, TruthTable dontCares, List<String> primeImplicants,
+			List<String> essentialPrimeImplicants, List<List<String>> solutions, Minimizer.Engine engine, boolean productOfSums) {
+		this(vars, truthTable, dontCares, primeImplicants, essentialPrimeImplicants, solutions, engine, productOfSums, false);
+	}
+
+	// budgetExceeded marks a result finished by a fallback, which may not be minimal
+	public MinimizationResult(List<String> vars, TruthTable truthTable, TruthTable dontCares, List<String> primeImplicants,
+			List<String> essentialPrimeImplicants, List<List<String>> solutions, Minimizer.Engine engine, boolean productOfSums,
+			boolean budgetExceeded) {
+		this.vars = Collections.unmodifiableList(new ArrayList<String>(vars));
+		this.truthTable = (truthTable == null) ? null : new TruthTable(truthTable);
+		this.dontCares = (dontCares == null || dontCares.getNumMinterms() == 0) ? null : new TruthTable(dontCares);
+		this.primeImplicants = sorted(primeImplicants);
+		this.essentialPrimeImplicants = sorted(essentialPrimeImplicants);
+		ArrayList<List<String>> sols = new ArrayList<List<String>>();
+		for (List<String> solution : solutions) {
+			sols.add(sorted(solution));
+		}
+		sols.sort(MinimizationResult::compareSolutions);
+		this.solutions = Collections.unmodifiableList(sols);
+		this.engine = engine;
+		this.productOfSums = productOfSums;
+		this.budgetExceeded = budgetExceeded;
+	}
+
+	// returns the same implicants as a product of sums of the function in truthTable, whose
+	// complement they cover
+	public MinimizationResult toProductOfSums(TruthTable truthTable, TruthTable dontCares) {
+		return new MinimizationResult(vars, truthTable, dontCares, primeImplicants, essentialPrimeImplicants, solutions, engine, true,
+			budgetExceeded);
+	}
+
+	// returns the variables, vars.get(0) being the leftmost character of every implicant
+	public List<String> getVars() {
+		return vars;
+	}
+
+	public int getNumVars() {
+		return vars.size();
+	}
+
+	public Minimizer.Engine getEngine() {
+		return engine;
+	}
+
+	// returns true if a budget ran out and the result was finished by a fallback
+	public boolean isBudgetExceeded() {
+		return budgetExceeded;
+	}
+
+	// returns true if the result is guaranteed minimal: found by the exact engine within its budget
+	public boolean isMinimal() {
+		return engine == Minimizer.Engine.EXACT && !budgetExceeded;
+	}
+
+	// returns true if the implicants are those of the complement, each one a sum of the expression
+	public boolean isProductOfSums() {
+		return productOfSums;
+	}
+
+	// returns true if the truth table was built, so getTruthTable and getMinterms are available
+	public boolean hasTruthTable() {
+		return truthTable != null;
+	}
+
+	// returns a copy of the truth table, or null if the engine never built one
+	public TruthTable getTruthTable() {
+		return (truthTable == null) ? null : new TruthTable(truthTable);
+	}
+
+	// returns the minterms in increasing order, or null if the engine never built the truth table
+	public int[] getMinterms() {
+		return (truthTable == null) ? null : truthTable.getMinterms();
+	}
+
+	// returns true if the function has don't-care rows in its truth table
+	public boolean hasDontCares() {
+		return dontCares != null;
+	}
+
+	// returns a copy of the table of don't-care rows, or null if there are none
+	public TruthTable getDontCareTable() {
+		return (dontCares == null) ? null : new TruthTable(dontCares);
+	}
+
+	// returns the don't-care rows in increasing order, empty if there are none
+	public int[] getDontCares() {
+		return (dontCares == null) ? new int[0] : dontCares.getMinterms();
+	}
+
+	public List<String> getPrimeImplicants() {
+		return primeImplicants;
+	}
+
+	public List<String> getEssentialPrimeImplicants() {
+		return essentialPrimeImplicants;
+	}
+
+	// returns every minimum solution; there is always at least one
+	public List<List<String>> getSolutions() {
+		return solutions;
+	}
+
+	// returns the implicants of the first solution
+	public List<String> getImplicants() {
+		return solutions.get(0);
+	}
+
+	// returns the reduced boolean expression of the first solution
+	public String getReducedExpression() {
+		StringBuilder sb = new StringBuilder();
+		appendReducedExpression(sb, solutions.get(0));
+		return sb.toString();
+	}
+
+	// returns the reduced boolean expression of every solution
+	public List<String> getReducedExpressions() {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (List<String> solution : solutions) {
+			StringBuilder sb = new StringBuilder();
+			appendReducedExpression(sb, solution);
+			ret.add(sb.toString());
+		}
+		return ret;
+	}
+
+	// appends the expression of one of the solutions, as a sum of products or a product of sums
+	public void appendReducedExpression(StringBuilder sb, List<String> solution) {
+		try {
+			if (productOfSums) {
+				ExpressionFormatter.appendPos(sb, solution, vars);
+			} else {
+				ExpressionFormatter.appendSop(sb, solution, vars);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);	// a StringBuilder never throws
+		}
+	}
+
+	// returns the number of product terms (sums for a product of sums) in the first solution
+	public int getNumCubes() {
+		return solutions.get(0).size();
+	}
+
+	// returns the number of literals in the first solution
+	public int getNumLiterals() {
+		return getNumLiterals(solutions.get(0));
+	}
+
+	// returns the total number of literals (non-dash characters) in the implicants
+	public static int getNumLiterals(List<String> imps) {
+		int ret = 0;
+		for (String imp : imps) {
+			ret += ExpressionFormatter.countLiterals(imp);
+		}
+		return ret;
+	}
+
+	// returns the reduced boolean expression given the implicants needed to cover the whole expression
+	public static String getReducedBoolExpr(List<String> implicantsToUse, List<String> vars) {
+		StringBuilder sb = new StringBuilder();
+		appendReducedBoolExpr(sb, implicantsToUse, vars);
+		return sb.toString();
+	}
+
+	// appends the reduced boolean expression to the builder; "0" for no implicants and "1" for an
+	// implicant of all dashes
+	public static void appendReducedBoolExpr(StringBuilder sb, List<String> implicantsToUse, List<String> vars) {
+		try {
+			ExpressionFormatter.appendSop(sb, implicantsToUse, vars);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);	// a StringBuilder never throws
+		}
+	}
+
+	// returns an unmodifiable copy of the implicants in IMPLICANT_ORDER
+	private static List<String> sorted(List<String> imps) {
+		ArrayList<String> ret = new ArrayList<String>(imps);
+		ret.sort(IMPLICANT_ORDER);
+		return Collections.unmodifiableList(ret);
+	}
+
+	// compares sorted solutions implicant by implicant, a shorter one first when one is a prefix
+	private static int compareSolutions(List<String> x, List<String> y) {
+		for (int i = 0; i < Math.min(x.size(), y.size()); i++) {
+			int diff = IMPLICANT_ORDER.compare(x.get(i), y.get(i));
+			if (diff != 0) { return diff; }
+		}
+		return x.size() - y.size();
+	}
+
+	private static int getLiteralRank(char c) {
+		return (c == '1') ? 0 : (c == '0') ? 1 : 2;
+	}
+}
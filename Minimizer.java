@@ -0,0 +1,699 @@
+// Reusable, thread-safe entry point for minimizing boolean functions.
+// A Minimizer only holds its configuration; every call to minimize builds its own truth table,
+// Quine-McCluskey engine and cover solver, and returns an immutable MinimizationResult, so one
+// instance can serve any number of threads at once.
+// In POS mode the rows that are neither minterms nor don't-cares are minimized with the same engine
+// and the implicants of that complement read back as the sums of a product of sums; AUTO does both
+// from the one truth table and keeps whichever form has fewer literals.
+// Given a MinimizationListener (withListener), minimizations report the time of each stage and their
+// counts to it, a multi-output one counting as one minimization; without one, measuring costs a null
+// check per stage.
+// Given a MinimizationBudget (withBudget), an exact minimization that runs out of time or exceeds a
+// limit falls back to growing each minterm into one prime (if the prime implicants ran out) or to a
+// greedy cover (if the cover did), and the result is marked with isBudgetExceeded. Such results are
+// never cached. Exact multi-output minimizations are bounded the same way, the joint cover falling
+// back to a greedy one and the outputs to growing their minterms into primes each on its own.
+// Given a ResultStore (withStore), functions without don't-cares of up to its number of variables
+// are canonicalized and read from it instead of minimized, whatever the engine, once their truth
+// table is built.
+// Whatever the input, a row that is both true and a don't-care is a don't-care: the minterms are
+// the true rows that are not don't-cares.
+// factor is the optional multi-level stage after cover selection: it turns the chosen cover into a
+// FactoredNetwork (see Factorizer) and reports its time to the listener as the FACTORING stage.
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class Minimizer {
+
+	// exact Quine-McCluskey with a minimum cover, or the Espresso-style heuristic
+	public enum Engine { EXACT, HEURISTIC }
+
+	// sum of products, product of sums, or whichever of the two has fewer literals
+	public enum Mode { SOP, POS, AUTO }
+
+	// the most variables of an expression or cover the heuristic engine builds the truth table of to
+	// look it up in the cache or store; past this it works on the cubes alone, uncached
+	public static final int MAX_CACHED_HEURISTIC_VARS = 20;
+
+	private final Engine engine;
+	private final CoverSolver.Method coverMethod;
+	private final ForkJoinPool pool;	// null to run each minimization on the calling thread
+	private final ResultCache cache;	// null to always minimize
+	private final ResultStore store;	// null to minimize small functions like any other
+	private final Mode mode;
+	private final MinimizationListener listener;	// null to measure nothing
+	private final MinimizationBudget budget;
+
+	// creates an exact minimizer using the branch and bound cover solver
+	public Minimizer() {
+		this(Engine.EXACT, CoverSolver.Method.BRANCH_AND_BOUND);
+	}
+
+	public Minimizer(Engine engine) {
+		this(engine, CoverSolver.Method.BRANCH_AND_BOUND);
+	}
+
+	public Minimizer(Engine engine, CoverSolver.Method coverMethod) {
+		this(engine, coverMethod, null, null, null, Mode.SOP, null, MinimizationBudget.UNLIMITED);
+	}
+
+	private Minimizer(Engine engine, CoverSolver.Method coverMethod, ForkJoinPool pool, ResultCache cache, ResultStore store,
+			Mode mode, MinimizationListener listener, MinimizationBudget budget) {
+		this.engine = engine;
+		this.coverMethod = coverMethod;
+		this.pool = pool;
+		this.cache = cache;
+		this.store = store;
+		this.mode = mode;
+		this.listener = listener;
+		this.budget = budget;
+	}
+
+	// returns a copy of this minimizer that generates prime implicants of large functions in parallel
+	// on the given pool (e.g. ForkJoinPool.commonPool()); null turns parallel generation off
+	public Minimizer withPool(ForkJoinPool pool) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	// returns a copy of this minimizer that looks results up in the given cache before minimizing;
+	// the cache may be shared between minimizers and threads. The heuristic engine then builds the
+	// truth table of expressions and covers too, up to MAX_CACHED_HEURISTIC_VARS variables
+	public Minimizer withCache(ResultCache cache) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	// returns a copy of this minimizer that reads the minimal sum of products of every function without
+	// don't-cares small enough for the store from it, instead of minimizing; such results are exact
+	// whatever the engine. null turns the store off
+	public Minimizer withStore(ResultStore store) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	// returns a copy of this minimizer that returns single-output results in the given form;
+	// minimizeOutputs always shares product terms and is unaffected
+	public Minimizer withMode(Mode mode) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	// returns a copy of this minimizer that reports the stage times and counts of every single-output
+	// minimization to the listener (e.g. a MetricsRegistry); null measures nothing
+	public Minimizer withListener(MinimizationListener listener) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	// returns a copy of this minimizer that bounds every exact single-output minimization by the
+	// budget, falling back as described above once it runs out
+	public Minimizer withBudget(MinimizationBudget budget) {
+		return new Minimizer(engine, coverMethod, pool, cache, store, mode, listener, budget);
+	}
+
+	public Engine getEngine() {
+		return engine;
+	}
+
+	public CoverSolver.Method getCoverMethod() {
+		return coverMethod;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public ResultCache getCache() {
+		return cache;
+	}
+
+	public ResultStore getStore() {
+		return store;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public MinimizationListener getListener() {
+		return listener;
+	}
+
+	public MinimizationBudget getBudget() {
+		return budget;
+	}
+
+	// minimizes an expression such as "ab(c'+d) + (a'd + c)'", optionally followed by '|' and an
+	// expression of the don't-care rows, as in "ab + c | a'b'"; its letters become the variables in
+	// alphabetical order, and the rows both expressions are true on are don't-cares
+	public MinimizationResult minimize(String expr) {
+		long start = startStage();
+		long deadline = budget.getDeadline();
+		String normalized = BooleanExpression.normalize(expr);
+		String[] parts = BooleanExpression.splitDontCares(normalized);
+		ArrayList<String> vars = BooleanExpression.getVarsInAlpha(normalized);
+		BooleanExpression compiled = new BooleanExpression(parts[0], vars);
+		BooleanExpression dcCompiled = (parts[1] == null) ? null : new BooleanExpression(parts[1], vars);
+
+		// the heuristic engine works on cube covers, only building the truth table to look the function up
+		if (!usesTruthTable(vars.size())) {
+			Cover dcSet = (dcCompiled == null) ? new Cover(vars.size()) : dcCompiled.toCover();
+			return finish(start, minimizeCovers(compiled.toCover(), dcSet, vars));
+		}
+		long tableStart = startStage();
+		TruthTable table = TruthTable.fromExpression(compiled);
+		TruthTable dontCares = (dcCompiled == null) ? null : TruthTable.fromExpression(dcCompiled);
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.TRUTH_TABLE, tableStart);
+			listener.onCount(MinimizationListener.Counter.ROWS_EVALUATED, (long)table.getNumRows() * (dontCares == null ? 1 : 2));
+		}
+		return finish(start, minimizeChecked(table, dontCares, vars, deadline));
+	}
+
+	// minimizes the function given by covers of its on-set and don't-care set, such as those of a
+	// PlaDescription, without expression evaluation: the heuristic engine works on the cubes as they
+	// are (unless a cache or store needs the truth table) and the exact one sets their rows in a truth
+	// table
+	public MinimizationResult minimize(Cover onSet, Cover dcSet, List<String> vars) {
+		long start = startStage();
+		long deadline = budget.getDeadline();
+		if (onSet.getNumVars() != vars.size() || dcSet.getNumVars() != vars.size()) {
+			throw new IllegalArgumentException("Expected covers of " + vars.size() + " variables, got " + onSet.getNumVars()
+				+ " and " + dcSet.getNumVars());
+		}
+		if (!usesTruthTable(vars.size())) {
+			return finish(start, minimizeCovers(onSet, dcSet, vars));
+		}
+		long tableStart = startStage();
+		TruthTable table = TruthTable.fromCover(onSet);
+		TruthTable dontCares = (dcSet.size() == 0) ? null : TruthTable.fromCover(dcSet);
+		endStage(MinimizationListener.Stage.TRUTH_TABLE, tableStart);
+		return finish(start, minimizeChecked(table, dontCares, vars, deadline));
+	}
+
+	// returns true if an expression or cover of numVars variables is minimized from its truth table:
+	// always by the exact engine, and by the heuristic one when a cache or store could hold it
+	private boolean usesTruthTable(int numVars) {
+		return engine == Engine.EXACT || ((cache != null || store != null) && numVars <= MAX_CACHED_HEURISTIC_VARS);
+	}
+
+	// minimizes a minterm list written "numVars:m1,m2,..." and optionally followed by '|' and the
+	// don't-care rows, as in "4:0,4,8,9|1,2"; a row in both lists is a don't-care
+	public MinimizationResult minimizeMinterms(String list) {
+		int colon = list.indexOf(':');
+		if (colon < 0) {
+			throw new IllegalArgumentException("Expected \"numVars:m1,m2,...\", got \"" + list + "\"");
+		}
+		int numVars = Integer.parseInt(list.substring(0, colon).trim());
+		String[] lists = BooleanExpression.splitDontCares(list.substring(colon + 1));
+		int[] dontCares = (lists[1] == null) ? new int[0] : parseIntList(lists[1]);
+		return minimize(parseIntList(lists[0]), dontCares, numVars);
+	}
+
+	// returns the comma separated integers of the string
+	static int[] parseIntList(String list) {
+		String trimmed = list.trim();
+		if (trimmed.isEmpty()) { return new int[0]; }
+		String[] parts = trimmed.split(",");
+		int[] ret = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			ret[i] = Integer.parseInt(parts[i].trim());
+		}
+		return ret;
+	}
+
+	// minimizes the function of numVars variables that is true on the given rows; the variables are
+	// named a, b, c, ... with a the most significant bit of a row
+	public MinimizationResult minimize(int[] minterms, int numVars) {
+		return minimize(minterms, new int[0], numVars);
+	}
+
+	// minimizes the function of numVars variables that is true on the minterms and may be anything on
+	// the don't-care rows; a row in both is a don't-care
+	public MinimizationResult minimize(int[] minterms, int[] dontCares, int numVars) {
+		TruthTable dcTable = (dontCares.length == 0) ? null : toTable(dontCares, numVars, "Don't-care");
+		return minimize(toTable(minterms, numVars, "Minterm"), dcTable, getDefaultVars(numVars));
+	}
+
+	// returns the table true on the given rows, which must be in range
+	private static TruthTable toTable(int[] rows, int numVars, String what) {
+		TruthTable ret = new TruthTable(numVars);
+		for (int row : rows) {
+			if (row < 0 || row >= ret.getNumRows()) {
+				throw new IllegalArgumentException(what + " " + row + " out of range for " + numVars + " variables");
+			}
+			ret.set(row, true);
+		}
+		return ret;
+	}
+
+	// minimizes the function given by its truth table
+	public MinimizationResult minimize(TruthTable table, List<String> vars) {
+		return minimize(table, null, vars);
+	}
+
+	// minimizes the function given by its truth table, free to take any value on the rows true in
+	// dontCares (null for none); a row true in both tables is a don't-care
+	public MinimizationResult minimize(TruthTable table, TruthTable dontCares, List<String> vars) {
+		return finish(startStage(), minimizeChecked(table, dontCares, vars, budget.getDeadline()));
+	}
+
+	// returns the first solution of the result factored into a multi-level network
+	public FactoredNetwork factor(MinimizationResult result) {
+		long start = startStage();
+		FactoredNetwork ret = Factorizer.factor(result);
+		endStage(MinimizationListener.Stage.FACTORING, start);
+		return ret;
+	}
+
+	// returns the outputs of the result factored into one multi-level network sharing subexpressions
+	public FactoredNetwork factor(MultiOutputResult result) {
+		long start = startStage();
+		FactoredNetwork ret = Factorizer.factor(result);
+		endStage(MinimizationListener.Stage.FACTORING, start);
+		return ret;
+	}
+
+	// returns the time a stage starts at, 0 without a listener
+	private long startStage() {
+		return (listener == null) ? 0 : System.nanoTime();
+	}
+
+	// reports the time since start to the listener, if there is one
+	private void endStage(MinimizationListener.Stage stage, long start) {
+		if (listener != null) { listener.onStage(stage, System.nanoTime() - start); }
+	}
+
+	// reports a count to the listener, if there is one
+	private void count(MinimizationListener.Counter counter, long value) {
+		if (listener != null) { listener.onCount(counter, value); }
+	}
+
+	// reports the whole minimization that started at start and returns its result
+	private <T> T finish(long start, T result) {
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.TOTAL, start);
+			listener.onCount(MinimizationListener.Counter.MINIMIZATIONS, 1);
+		}
+		return result;
+	}
+
+	// checks the tables against the variables, clears the don't-cares from the table and minimizes
+	// it in the configured mode by the System.nanoTime deadline (0 for none)
+	private MinimizationResult minimizeChecked(TruthTable table, TruthTable dontCares, List<String> vars, long deadline) {
+		if (vars.size() != table.getNumVars()) {
+			throw new IllegalArgumentException("Expected " + table.getNumVars() + " variables, got " + vars.size());
+		}
+		if (dontCares != null) {
+			if (dontCares.getNumVars() != table.getNumVars()) {
+				throw new IllegalArgumentException("Expected a don't-care table of " + table.getNumVars() + " variables, got " + dontCares.getNumVars());
+			}
+			if (dontCares.getNumMinterms() == 0) {
+				dontCares = null;
+			} else {
+				table = table.andNot(dontCares);
+			}
+		}
+
+		// a product of sums covers the complement, the rows that are neither minterms nor don't-cares
+		MinimizationResult sop = null;
+		MinimizationResult pos = null;
+		if (mode != Mode.POS) {
+			sop = minimizeCached(table, dontCares, vars, deadline);
+		}
+		if (mode != Mode.SOP) {
+			TruthTable offSet = table.complement();
+			if (dontCares != null) { offSet = offSet.andNot(dontCares); }
+			pos = minimizeCached(offSet, dontCares, vars, deadline).toProductOfSums(table, dontCares);
+		}
+		return pickCheaper(sop, pos);
+	}
+
+	// returns the result with fewer literals, then fewer terms, the sum of products on a tie; either
+	// may be null
+	private static MinimizationResult pickCheaper(MinimizationResult sop, MinimizationResult pos) {
+		if (pos == null) { return sop; }
+		if (sop == null) { return pos; }
+		if (pos.getNumLiterals() != sop.getNumLiterals()) {
+			return (pos.getNumLiterals() < sop.getNumLiterals()) ? pos : sop;
+		}
+		return (pos.getNumCubes() < sop.getNumCubes()) ? pos : sop;
+	}
+
+	// minimizes the sum of products of the function, through the store and the cache if there are
+	// any; the don't-cares must already be cleared from the table; results that ran out of budget are
+	// not cached
+	private MinimizationResult minimizeCached(TruthTable table, TruthTable dontCares, List<String> vars, long deadline) {
+		if (store != null && dontCares == null && table.getNumVars() <= store.getMaxVars()) {
+			long start = startStage();
+			MinimizationResult stored = store.lookup(table, vars);
+			if (stored != null) {
+				endStage(MinimizationListener.Stage.STORE_LOOKUP, start);
+				count(MinimizationListener.Counter.STORE_HITS, 1);
+				return stored;
+			}
+		}
+		if (cache == null) {
+			return minimizeTable(table, dontCares, vars, deadline);
+		}
+
+		// look the function up in its canonical form, minimizing and storing it on a miss
+		NpTransform transform = cache.isNpCanonical() ? NpTransform.canonicalize(table, dontCares) : NpTransform.identity(table.getNumVars());
+		TruthTable canonical = transform.apply(table);
+		TruthTable canonicalDontCares = (dontCares == null) ? null : transform.apply(dontCares);
+		MinimizationResult result = cache.get(engine, canonical, canonicalDontCares);
+		count((result == null) ? MinimizationListener.Counter.CACHE_MISSES : MinimizationListener.Counter.CACHE_HITS, 1);
+		if (result == null) {
+			result = minimizeTable(canonical, canonicalDontCares, getDefaultVars(table.getNumVars()), deadline);
+			if (!result.isBudgetExceeded()) { cache.put(engine, canonical, canonicalDontCares, result); }
+		}
+		return transform.mapResultBack(result, table, dontCares, vars);
+	}
+
+	// minimizes the function given by its truth table and don't-cares without consulting the cache,
+	// falling back once the System.nanoTime deadline (0 for none) or another limit of the budget runs out
+	private MinimizationResult minimizeTable(TruthTable table, TruthTable dontCares, List<String> vars, long deadline) {
+		int numVars = table.getNumVars();
+		int[] minterms = table.getMinterms();
+		int[] dcRows = (dontCares == null) ? new int[0] : dontCares.getMinterms();
+
+		if (engine == Engine.HEURISTIC) {
+			return minimizeRows(minterms, dcRows, vars, table, dontCares);
+		}
+
+		// first part of the Quine-McCluskey Algorithm, then the essential prime implicants
+		long start = startStage();
+		QuineMcCluskey qm = new QuineMcCluskey(numVars, minterms, dcRows);
+		qm.setPool(pool);
+		qm.setCollectStats(listener != null);
+		qm.setLimits(deadline, budget.getMaxPrimeImplicants());
+		long[] primes;
+		try {
+			primes = qm.findPrimeImplicants();
+		} catch (BudgetExceededException e) {
+			// too many primes to enumerate in time, so only grow the primes a cover needs
+			count(MinimizationListener.Counter.BUDGET_EXCEEDED, 1);
+			ArrayList<String> implicants = expandGreedily(table, dontCares);
+			List<List<String>> solutions = new ArrayList<List<String>>();
+			solutions.add(implicants);
+			return new MinimizationResult(vars, table, dontCares, implicants, new ArrayList<String>(), solutions, Engine.HEURISTIC,
+				false, true);
+		}
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.PRIME_IMPLICANTS, start);
+			long[][] levels = qm.getLevelStats();
+			for (int level = 0; level < levels.length; level++) {
+				listener.onCombineLevel(level, levels[level][0], levels[level][1], levels[level][2]);
+			}
+			listener.onCount(MinimizationListener.Counter.PRIME_IMPLICANTS, primes.length);
+			start = System.nanoTime();
+		}
+		long[] essentials = qm.findEssentialPrimeImplicants();
+		int[] uncovered = qm.getUncoveredMinterms();
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.ESSENTIALS, start);
+			listener.onCount(MinimizationListener.Counter.ESSENTIAL_PRIME_IMPLICANTS, essentials.length);
+			start = System.nanoTime();
+		}
+
+		// every minimum set of nonessential implicants covering what the essentials leave
+		List<List<String>> solutions = new ArrayList<List<String>>();
+		ArrayList<String> essentialStrings = Cube.toBitStrings(essentials, numVars);
+		boolean budgetExceeded = false;
+		if (uncovered.length == 0) {
+			solutions.add(essentialStrings);
+		} else {
+			long[] candidates = qm.getNonessentialPrimeImplicants();
+			CoverSolver solver = CoverSolver.forImplicants(numVars, candidates, uncovered);
+			solver.setMethod(coverMethod);
+			solver.setLimits(deadline, budget.getMaxPetrickProductSize());
+			List<int[]> covers;
+			try {
+				covers = solver.findMinimumCovers();
+			} catch (BudgetExceededException e) {
+				count(MinimizationListener.Counter.BUDGET_EXCEEDED, 1);
+				covers = Collections.singletonList(solver.findGreedyCover());
+				budgetExceeded = true;
+			}
+			for (int[] cover : covers) {
+				ArrayList<String> solution = new ArrayList<String>(essentialStrings);
+				for (int c : cover) {
+					solution.add(Cube.toBitString(candidates[c], numVars));
+				}
+				solutions.add(solution);
+			}
+			if (listener != null) {
+				endStage(MinimizationListener.Stage.COVER, start);
+				listener.onCount(MinimizationListener.Counter.COVER_CANDIDATES, candidates.length);
+				listener.onCount(MinimizationListener.Counter.COVER_SEARCH_NODES, solver.getNumSearchNodes());
+				listener.onCount(MinimizationListener.Counter.PETRICK_CLAUSES, solver.getNumPetrickClauses());
+				listener.onCount(MinimizationListener.Counter.PETRICK_MAX_PRODUCT_SIZE, solver.getMaxPetrickProductSize());
+			}
+		}
+
+		return new MinimizationResult(vars, table, dontCares, Cube.toBitStrings(primes, numVars), essentialStrings, solutions, engine,
+			false, budgetExceeded);
+	}
+
+	// returns a cover of the minterms made by growing each minterm not yet covered into a prime
+	// implicant, one variable at a time, while every row of the cube stays a minterm or don't-care.
+	// Each cube only costs lookups of its own rows, so this stays near linear in the size of the
+	// table where enumerating every prime (or running Espresso from single rows) can blow up
+	private static ArrayList<String> expandGreedily(TruthTable table, TruthTable dontCares) {
+		int numVars = table.getNumVars();
+		TruthTable covered = new TruthTable(numVars);
+		ArrayList<String> ret = new ArrayList<String>();
+		for (int mt : table.getMinterms()) {
+			if (covered.get(mt)) { continue; }
+			int value = mt;
+			int mask = 0;
+			for (int v = 0; v < numVars; v++) {
+				// the cube doubles across the bit if its mirror image there is all minterms and don't-cares
+				int bit = 1 << v;
+				int mirror = value ^ bit;
+				boolean grows = true;
+				for (int sub = mask; grows; sub = (sub - 1) & mask) {
+					int row = mirror | sub;
+					grows = table.get(row) || (dontCares != null && dontCares.get(row));
+					if (sub == 0) { break; }
+				}
+				if (grows) {
+					mask |= bit;
+					value &= ~bit;
+				}
+			}
+			for (int sub = mask; ; sub = (sub - 1) & mask) {
+				covered.set(value | sub, true);
+				if (sub == 0) { break; }
+			}
+			ret.add(Cube.toBitString(Cube.pack(value, mask), numVars));
+		}
+		return ret;
+	}
+
+	// runs the heuristic engine on the rows of the on-set and the don't-care set
+	private MinimizationResult minimizeRows(int[] minterms, int[] dcRows, List<String> vars, TruthTable table, TruthTable dontCares) {
+		int numVars = table.getNumVars();
+		Cover onSet = new Cover(numVars);
+		for (int mt : minterms) {
+			onSet.add(mt, 0);
+		}
+		Cover dcSet = new Cover(numVars);
+		for (int dc : dcRows) {
+			dcSet.add(dc, 0);
+		}
+		return minimizeCover(onSet, dcSet, vars, table, dontCares);
+	}
+
+	// runs the heuristic engine on the covers in the configured mode; the complement of a product of
+	// sums is the complement of the on-set and don't-care covers together
+	private MinimizationResult minimizeCovers(Cover onSet, Cover dcSet, List<String> vars) {
+		MinimizationResult sop = null;
+		MinimizationResult pos = null;
+		if (mode != Mode.POS) {
+			sop = minimizeCover(onSet, dcSet, vars, null, null);
+		}
+		if (mode != Mode.SOP) {
+			Cover careSet = new Cover(onSet);
+			careSet.addAll(dcSet);
+			pos = minimizeCover(careSet.complement(), dcSet, vars, null, null).toProductOfSums(null, null);
+		}
+		return pickCheaper(sop, pos);
+	}
+
+	// runs the heuristic engine on covers of the on-set and the don't-care set
+	private MinimizationResult minimizeCover(Cover onSet, Cover dcSet, List<String> vars, TruthTable table, TruthTable dontCares) {
+		long start = startStage();
+		Espresso espresso = new Espresso(onSet, dcSet);
+		Cover result = espresso.minimize();
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.HEURISTIC, start);
+			listener.onCount(MinimizationListener.Counter.ESPRESSO_ITERATIONS, espresso.getNumIterations());
+		}
+		ArrayList<String> implicants = result.toBitStrings();
+		List<List<String>> solutions = new ArrayList<List<String>>();
+		solutions.add(implicants);
+		return new MinimizationResult(vars, table, dontCares, implicants, new ArrayList<String>(), solutions, Engine.HEURISTIC);
+	}
+
+	// minimizes several expressions together, each optionally with '|' and its don't-cares, sharing
+	// product terms between them; the letters of all of them become the variables in alphabetical order
+	public MultiOutputResult minimizeOutputs(List<String> exprs) {
+		long start = startStage();
+		ArrayList<String> normalized = new ArrayList<String>();
+		for (String expr : exprs) {
+			normalized.add(BooleanExpression.normalize(expr));
+		}
+		ArrayList<String> vars = BooleanExpression.getVarsInAlpha(String.join("", normalized));
+
+		// the on-sets and don't-cares of every output come out of a single truth table pass
+		int numOutputs = normalized.size();
+		ArrayList<BooleanExpression> compiled = new ArrayList<BooleanExpression>();
+		String[] dcExprs = new String[numOutputs];
+		for (int k = 0; k < numOutputs; k++) {
+			String[] parts = BooleanExpression.splitDontCares(normalized.get(k));
+			compiled.add(new BooleanExpression(parts[0], vars));
+			dcExprs[k] = parts[1];
+		}
+		// the don't-care expressions follow the outputs
+		int[] dcIndex = new int[numOutputs];
+		for (int k = 0; k < numOutputs; k++) {
+			dcIndex[k] = -1;
+			if (dcExprs[k] != null) {
+				dcIndex[k] = compiled.size();
+				compiled.add(new BooleanExpression(dcExprs[k], vars));
+			}
+		}
+		long tableStart = startStage();
+		TruthTable[] tables = TruthTable.fromExpressions(compiled.toArray(new BooleanExpression[0]));
+		if (listener != null) {
+			endStage(MinimizationListener.Stage.TRUTH_TABLE, tableStart);
+			listener.onCount(MinimizationListener.Counter.ROWS_EVALUATED, (long)tables[0].getNumRows() * tables.length);
+		}
+		TruthTable[] onSets = Arrays.copyOf(tables, numOutputs);
+		TruthTable[] dontCares = new TruthTable[numOutputs];
+		for (int k = 0; k < numOutputs; k++) {
+			dontCares[k] = (dcIndex[k] < 0) ? null : tables[dcIndex[k]];
+		}
+		return finish(start, minimizeOutputsChecked(onSets, dontCares, vars));
+	}
+
+	// minimizes the functions of numVars variables true on each list of minterms together, free to take
+	// any value on the matching don't-care rows (null for none), which win over the minterms
+	public MultiOutputResult minimizeOutputs(int[][] minterms, int[][] dontCares, int numVars) {
+		long start = startStage();
+		TruthTable[] onSets = new TruthTable[minterms.length];
+		TruthTable[] dcTables = new TruthTable[minterms.length];
+		for (int k = 0; k < minterms.length; k++) {
+			onSets[k] = toTable(minterms[k], numVars, "Minterm");
+			if (dontCares != null && dontCares[k] != null) { dcTables[k] = toTable(dontCares[k], numVars, "Don't-care"); }
+		}
+		return finish(start, minimizeOutputsChecked(onSets, dcTables, getDefaultVars(numVars)));
+	}
+
+	// minimizes the functions given by covers of their on-sets and don't-care sets together, such as
+	// those of a PlaDescription; the rows of the cubes are set in truth tables without expression
+	// evaluation
+	public MultiOutputResult minimizeOutputs(Cover[] onSets, Cover[] dcSets, List<String> vars) {
+		long start = startStage();
+		TruthTable[] tables = new TruthTable[onSets.length];
+		TruthTable[] dcTables = new TruthTable[onSets.length];
+		for (int k = 0; k < onSets.length; k++) {
+			tables[k] = TruthTable.fromCover(onSets[k]);
+			if (dcSets != null && dcSets[k] != null && dcSets[k].size() > 0) { dcTables[k] = TruthTable.fromCover(dcSets[k]); }
+		}
+		endStage(MinimizationListener.Stage.TRUTH_TABLE, start);
+		return finish(start, minimizeOutputsChecked(tables, dcTables, vars));
+	}
+
+	// minimizes the functions given by their truth tables together, choosing the fewest distinct
+	// product terms over all outputs; dontCares may be null or hold null entries, and a row true in
+	// both tables of an output is a don't-care
+	public MultiOutputResult minimizeOutputs(TruthTable[] tables, TruthTable[] dontCares, List<String> vars) {
+		return finish(startStage(), minimizeOutputsChecked(tables, dontCares, vars));
+	}
+
+	// checks the tables against the variables, clears the don't-cares from the tables and minimizes
+	// them together
+	private MultiOutputResult minimizeOutputsChecked(TruthTable[] tables, TruthTable[] dontCares, List<String> vars) {
+		int numOutputs = tables.length;
+		TruthTable[] onSets = new TruthTable[numOutputs];
+		TruthTable[] dcs = new TruthTable[numOutputs];
+		for (int k = 0; k < numOutputs; k++) {
+			if (tables[k].getNumVars() != vars.size()) {
+				throw new IllegalArgumentException("Expected " + vars.size() + " variables in output " + k + ", got " + tables[k].getNumVars());
+			}
+			dcs[k] = (dontCares == null || dontCares[k] == null || dontCares[k].getNumMinterms() == 0) ? null : dontCares[k];
+			onSets[k] = (dcs[k] == null) ? tables[k] : tables[k].andNot(dcs[k]);
+		}
+		int numVars = vars.size();
+
+		ArrayList<String> productTerms = new ArrayList<String>();
+		List<List<String>> outputImplicants = new ArrayList<List<String>>();
+		Engine resultEngine = engine;
+		boolean budgetExceeded = false;
+		if (engine == Engine.EXACT) {
+			MultiOutputQuineMcCluskey qm = new MultiOutputQuineMcCluskey(onSets, dcs);
+			qm.setLimits(budget.getDeadline(), budget.getMaxPrimeImplicants(), budget.getMaxPetrickProductSize());
+			long start = startStage();
+			try {
+				long[] primes = qm.findPrimeImplicants();
+				if (listener != null) {
+					endStage(MinimizationListener.Stage.PRIME_IMPLICANTS, start);
+					listener.onCount(MinimizationListener.Counter.PRIME_IMPLICANTS, primes.length);
+					start = System.nanoTime();
+				}
+				int[] cover;
+				try {
+					cover = qm.findMinimumCover();
+				} catch (BudgetExceededException e) {
+					count(MinimizationListener.Counter.BUDGET_EXCEEDED, 1);
+					cover = qm.findGreedyCover();
+					budgetExceeded = true;
+				}
+				for (int p : cover) {
+					productTerms.add(Cube.toBitString(primes[p], numVars));
+				}
+				for (int k = 0; k < numOutputs; k++) {
+					long[] implicants;
+					try {
+						implicants = qm.selectForOutput(k, cover);
+					} catch (BudgetExceededException e) {
+						count(MinimizationListener.Counter.BUDGET_EXCEEDED, 1);
+						implicants = qm.selectForOutputGreedily(k, cover);
+						budgetExceeded = true;
+					}
+					outputImplicants.add(Cube.toBitStrings(implicants, numVars));
+				}
+				if (listener != null) {
+					endStage(MinimizationListener.Stage.COVER, start);
+					listener.onCount(MinimizationListener.Counter.COVER_CANDIDATES, primes.length);
+					listener.onCount(MinimizationListener.Counter.COVER_SEARCH_NODES, qm.getNumSearchNodes());
+				}
+			} catch (BudgetExceededException e) {
+				// too many primes to enumerate in time, so only grow the primes each output needs
+				count(MinimizationListener.Counter.BUDGET_EXCEEDED, 1);
+				resultEngine = Engine.HEURISTIC;
+				budgetExceeded = true;
+			}
+		}
+		if (resultEngine == Engine.HEURISTIC) {
+			// each output on its own, sharing only the product terms that come out identical
+			LinkedHashSet<String> distinct = new LinkedHashSet<String>();
+			for (int k = 0; k < numOutputs; k++) {
+				List<String> implicants = budgetExceeded ? expandGreedily(onSets[k], dcs[k]) : minimizeTable(onSets[k], dcs[k], vars, 0).getImplicants();
+				distinct.addAll(implicants);
+				outputImplicants.add(implicants);
+			}
+			productTerms.addAll(distinct);
+		}
+		return new MultiOutputResult(vars, Arrays.asList(onSets), Arrays.asList(dcs), productTerms, outputImplicants, resultEngine,
+			budgetExceeded);
+	}
+
+	// returns the variable names a, b, c, ... (x26, x27, ... past z)
+	public static ArrayList<String> getDefaultVars(int numVars) {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (int i = 0; i < numVars; i++) {
+			ret.add(i < 26 ? String.valueOf((char)('a' + i)) : "x" + i);
+		}
+		return ret;
+	}
+}
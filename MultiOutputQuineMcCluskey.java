@@ -0,0 +1,293 @@
+// Multi-output Quine-McCluskey engine for several functions of the same variables.
+// Every cube carries a tag, the set of outputs (one bit each) it is an implicant of. Two cubes
+// combine as in QuineMcCluskey when their tags share an output, and the combination is tagged with
+// the shared outputs. A cube only counts as absorbed when the combination keeps its whole tag, so a
+// cube that is prime for the product of some outputs survives even when it grows for one of them
+// alone. The tagged primes are then the candidates of one joint cover over every (output, minterm)
+// pair, in which a product term serves every output in its tag but is paid for once.
+// Don't-care rows combine like minterms for their output and are never required to be covered; a
+// row in both the on-set and the don't-cares of an output is a don't-care, as everywhere in the
+// Minimizer.
+// With setLimits, combining checks a deadline every DEADLINE_CHECK_INTERVAL cubes and counts the
+// primes after every level, and the joint cover is bounded like CoverSolver's, throwing a
+// BudgetExceededException once any limit runs out; findGreedyCover is the bounded fallback for the
+// cover.
+
+import java.util.*;
+
+public class MultiOutputQuineMcCluskey {
+
+	// tags are held in a long
+	public static final int MAX_OUTPUTS = 64;
+	// cubes combined between checks of the deadline
+	static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	private final int numVars;
+	private final int varMask;	// one bit per variable
+	private final TruthTable[] onSets;
+	private final TruthTable[] dontCares;	// entries may be null
+	private long[] primeImplicants;
+	private long[] primeTags;
+	private long deadline;					// System.nanoTime deadline, 0 for none
+	private int maxPrimeImplicants;			// 0 for no limit
+	private int petrickProductSizeLimit;	// 0 for no limit
+	private BitSet[] coverage;		// (output, minterm) pairs covered by each prime, once built
+	private int[] coverLiterals;
+	private int numCoverElements;
+	private long numSearchNodes;	// of the last findMinimumCover
+
+	// creates the engine for the on-sets of the outputs and their don't-cares (null, or null entries,
+	// for none); a row in both is a don't-care
+	public MultiOutputQuineMcCluskey(TruthTable[] onSets, TruthTable[] dontCares) {
+		if (onSets.length == 0 || onSets.length > MAX_OUTPUTS) {
+			throw new IllegalArgumentException("Expected 1 to " + MAX_OUTPUTS + " outputs, got " + onSets.length);
+		}
+		this.numVars = onSets[0].getNumVars();
+		if (numVars > Cube.MAX_PACKED_VARS) {
+			throw new IllegalArgumentException("Quine-McCluskey supports at most " + Cube.MAX_PACKED_VARS + " variables, got " + numVars);
+		}
+		for (TruthTable t : onSets) {
+			if (t.getNumVars() != numVars) { throw new IllegalArgumentException("Every output must have the same variables"); }
+		}
+		if (dontCares != null && dontCares.length != onSets.length) {
+			throw new IllegalArgumentException("Expected " + onSets.length + " don't-care tables, got " + dontCares.length);
+		}
+		this.varMask = (numVars == 32) ? -1 : (1 << numVars) - 1;
+		this.dontCares = (dontCares == null) ? new TruthTable[onSets.length] : dontCares.clone();
+		this.onSets = new TruthTable[onSets.length];
+		for (int k = 0; k < onSets.length; k++) {
+			this.onSets[k] = (this.dontCares[k] == null) ? onSets[k] : onSets[k].andNot(this.dontCares[k]);
+		}
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	public int getNumOutputs() {
+		return onSets.length;
+	}
+
+	// makes findPrimeImplicants throw a BudgetExceededException once the System.nanoTime deadline
+	// passes or more than maxPrimeImplicants primes are found, and findMinimumCover once the deadline
+	// passes or Petrick's product grows past petrickProductSizeLimit terms; 0 turns any check off
+	public void setLimits(long deadline, int maxPrimeImplicants, int petrickProductSizeLimit) {
+		this.deadline = deadline;
+		this.maxPrimeImplicants = maxPrimeImplicants;
+		this.petrickProductSizeLimit = petrickProductSizeLimit;
+	}
+
+	// finds the tagged prime implicants, combining cubes level by level until no more pairs can be made
+	public long[] findPrimeImplicants() {
+		LongIndexMap primes = new LongIndexMap();
+		long[] tags = new long[16];
+
+		// the first level is every row that is a minterm or don't-care of some output, tagged with those outputs
+		LongIndexMap level = new LongIndexMap();
+		long[] levelTags = new long[16];
+		for (int w = 0; w < TruthTable.getNumWords(numVars); w++) {
+			long any = 0;
+			for (int k = 0; k < onSets.length; k++) {
+				any |= getCareWord(k, w);
+			}
+			while (any != 0) {
+				int row = (w << 6) + Long.numberOfTrailingZeros(any);
+				any &= any - 1;
+				long tag = 0;
+				for (int k = 0; k < onSets.length; k++) {
+					if ((getCareWord(k, w) & (1L << row)) != 0) { tag |= 1L << k; }
+				}
+				int i = level.add(Cube.pack(row, 0));
+				levelTags = ensureCapacity(levelTags, i);
+				levelTags[i] = tag;
+			}
+		}
+
+		while (level.size() > 0) {
+			boolean[] absorbed = new boolean[level.size()];
+			LongIndexMap nextLevel = new LongIndexMap(level.size());
+			long[] nextTags = new long[Math.max(16, level.size())];
+
+			// each cube looks up its neighbours one bit above it; a combination's tag is the outputs both share
+			for (int i = 0; i < level.size(); i++) {
+				if (i % DEADLINE_CHECK_INTERVAL == DEADLINE_CHECK_INTERVAL - 1) { MinimizationBudget.checkDeadline(deadline); }
+				long cube = level.keyAt(i);
+				int value = Cube.value(cube);
+				int mask = Cube.mask(cube);
+				int zeros = ~value & ~mask & varMask;
+				while (zeros != 0) {
+					int bit = zeros & -zeros;
+					zeros &= zeros - 1;
+					int j = level.indexOf(Cube.pack(value | bit, mask));
+					if (j < 0) { continue; }
+					long tag = levelTags[i] & levelTags[j];
+					if (tag == 0) { continue; }
+					if (tag == levelTags[i]) { absorbed[i] = true; }
+					if (tag == levelTags[j]) { absorbed[j] = true; }
+					int n = nextLevel.add(Cube.pack(value, mask | bit));
+					nextTags = ensureCapacity(nextTags, n);
+					nextTags[n] = tag;
+				}
+			}
+
+			// every cube whose whole tag did not carry over is prime, if it covers a minterm of its outputs
+			for (int i = 0; i < level.size(); i++) {
+				if (absorbed[i]) { continue; }
+				long tag = getCoveredOutputs(level.keyAt(i), levelTags[i]);
+				if (tag == 0) { continue; }
+				int p = primes.add(level.keyAt(i));
+				tags = ensureCapacity(tags, p);
+				tags[p] = tag;
+			}
+			if (maxPrimeImplicants > 0 && primes.size() > maxPrimeImplicants) {
+				throw new BudgetExceededException("More than " + maxPrimeImplicants + " prime implicants");
+			}
+			MinimizationBudget.checkDeadline(deadline);
+			level = nextLevel;
+			levelTags = nextTags;
+		}
+
+		primeImplicants = primes.toArray();
+		primeTags = Arrays.copyOf(tags, primeImplicants.length);
+		return primeImplicants.clone();
+	}
+
+	// returns the tag of each prime implicant, bit k set if it may be used for output k
+	public long[] getPrimeTags() {
+		if (primeTags == null) { findPrimeImplicants(); }
+		return primeTags.clone();
+	}
+
+	// returns the indices into the prime implicants of a joint cover with the fewest distinct product
+	// terms, then the fewest literals
+	public int[] findMinimumCover() {
+		CoverSolver solver = getCoverSolver(true);
+		solver.setFindAllSolutions(false);
+		solver.setLimits(deadline, petrickProductSizeLimit);
+		try {
+			return solver.findMinimumCovers().get(0);
+		} finally {
+			numSearchNodes = solver.getNumSearchNodes();
+		}
+	}
+
+	// returns the number of branch and bound calls the last findMinimumCover made
+	public long getNumSearchNodes() {
+		return numSearchNodes;
+	}
+
+	// returns the indices into the prime implicants of a joint cover picked greedily, the bounded
+	// fallback once findMinimumCover runs out of budget
+	public int[] findGreedyCover() {
+		return getCoverSolver(false).findGreedyCover();
+	}
+
+	// returns a solver for covering every (output, minterm) pair with the tagged primes; bounded builds
+	// check the deadline, and the table is kept for later calls once built
+	private CoverSolver getCoverSolver(boolean bounded) {
+		if (primeImplicants == null) { findPrimeImplicants(); }
+		if (coverage == null) {
+			// one element per (output, minterm) pair, numbered output by output in row order, so an
+			// element is the offset of its word plus the minterms below it in the word
+			int numWords = TruthTable.getNumWords(numVars);
+			int[][] wordOffsets = new int[onSets.length][numWords];
+			int numElements = 0;
+			for (int k = 0; k < onSets.length; k++) {
+				long[] words = onSets[k].getWords();
+				for (int w = 0; w < numWords; w++) {
+					wordOffsets[k][w] = numElements;
+					numElements += Long.bitCount(words[w]);
+				}
+			}
+
+			// each prime covers the minterms among its rows of the outputs in its tag
+			BitSet[] cov = new BitSet[primeImplicants.length];
+			int[] literals = new int[primeImplicants.length];
+			for (int p = 0; p < primeImplicants.length; p++) {
+				if (bounded && p % DEADLINE_CHECK_INTERVAL == DEADLINE_CHECK_INTERVAL - 1) { MinimizationBudget.checkDeadline(deadline); }
+				cov[p] = new BitSet(numElements);
+				int value = Cube.value(primeImplicants[p]);
+				int mask = Cube.mask(primeImplicants[p]);
+				for (int sub = mask; ; sub = (sub - 1) & mask) {
+					int row = value | sub;
+					long bit = 1L << row;
+					for (long tag = primeTags[p]; tag != 0; tag &= tag - 1) {
+						int k = Long.numberOfTrailingZeros(tag);
+						long word = onSets[k].getWords()[row >>> 6];
+						if ((word & bit) != 0) { cov[p].set(wordOffsets[k][row >>> 6] + Long.bitCount(word & (bit - 1))); }
+					}
+					if (sub == 0) { break; }
+				}
+				literals[p] = Cube.numLiterals(primeImplicants[p], numVars);
+			}
+			coverage = cov;
+			coverLiterals = literals;
+			numCoverElements = numElements;
+		}
+		return new CoverSolver(coverage, coverLiterals, numCoverElements);
+	}
+
+	// returns the product terms output k uses out of the chosen primes (indices into the prime
+	// implicants): a minimum subset of those tagged with k that covers its minterms, bounded by the
+	// limits like findMinimumCover
+	public long[] selectForOutput(int k, int[] chosen) {
+		return selectForOutput(k, chosen, false);
+	}
+
+	// returns the product terms output k uses out of the chosen primes, a subset picked greedily: the
+	// bounded fallback once selectForOutput runs out of budget
+	public long[] selectForOutputGreedily(int k, int[] chosen) {
+		return selectForOutput(k, chosen, true);
+	}
+
+	private long[] selectForOutput(int k, int[] chosen, boolean greedy) {
+		if (primeImplicants == null) { findPrimeImplicants(); }
+		int[] minterms = onSets[k].getMinterms();
+		if (minterms.length == 0) { return new long[0]; }
+
+		ArrayList<Long> candidates = new ArrayList<Long>();
+		for (int p : chosen) {
+			if ((primeTags[p] >>> k & 1) == 1) { candidates.add(primeImplicants[p]); }
+		}
+		long[] cubes = new long[candidates.size()];
+		for (int i = 0; i < cubes.length; i++) {
+			cubes[i] = candidates.get(i);
+		}
+
+		CoverSolver solver = CoverSolver.forImplicants(numVars, cubes, minterms);
+		solver.setFindAllSolutions(false);
+		solver.setLimits(deadline, petrickProductSizeLimit);
+		int[] cover = greedy ? solver.findGreedyCover() : solver.findMinimumCovers().get(0);
+		long[] ret = new long[cover.length];
+		for (int i = 0; i < cover.length; i++) {
+			ret[i] = cubes[cover[i]];
+		}
+		return ret;
+	}
+
+	// returns the outputs of the tag for which the cube covers at least one minterm
+	long getCoveredOutputs(long cube, long tag) {
+		int value = Cube.value(cube);
+		int mask = Cube.mask(cube);
+		long ret = 0;
+		for (int sub = mask; ; sub = (sub - 1) & mask) {
+			int row = value | sub;
+			for (int k = 0; k < onSets.length; k++) {
+				if ((tag >>> k & 1) == 1 && onSets[k].get(row)) { ret |= 1L << k; }
+			}
+			if (ret == tag || sub == 0) { return ret; }
+		}
+	}
+
+	// returns word w of the rows that are minterms or don't-cares of output k
+	private long getCareWord(int k, int w) {
+		long ret = onSets[k].getWords()[w];
+		if (dontCares[k] != null) { ret |= dontCares[k].getWords()[w]; }
+		return ret;
+	}
+
+	// returns the array, grown if index is past its end
+	private static long[] ensureCapacity(long[] a, int index) {
+		return (index < a.length) ? a : Arrays.copyOf(a, Math.max(index + 1, 2 * a.length));
+	}
+}
@@ -0,0 +1,130 @@
+// Immutable result of minimizing several functions of the same variables together: the truth table
+// of each output, the distinct product terms of the joint cover and, for each output, which of them
+// it sums ('0'/'1'/'-' strings in the order of vars). Safe to share between threads.
+// A result the Minimizer finished with a fallback after its MinimizationBudget ran out is marked
+// as such and is not guaranteed minimal.
+
+import java.util.*;
+
+public final class MultiOutputResult {
+
+	private final List<String> vars;
+	private final List<TruthTable> truthTables;
+	private final List<TruthTable> dontCares;	// null entries for outputs without any
+	private final List<String> productTerms;
+	private final List<List<String>> outputImplicants;
+	private final Minimizer.Engine engine;
+	private final boolean budgetExceeded;
+
+	public MultiOutputResult(List<String> vars, List<TruthTable> truthTables, List<TruthTable> dontCares,
+			List<String> productTerms, List<List<String>> outputImplicants, Minimizer.Engine engine) {
+		this(vars, truthTables, dontCares, productTerms, outputImplicants, engine, false);
+	}
+
+	// budgetExceeded marks a result finished by a fallback, which may not be minimal
+	public MultiOutputResult(List<String> vars, List<TruthTable> truthTables, List<TruthTable> dontCares,
+			List<String> productTerms, List<List<String>> outputImplicants, Minimizer.Engine engine, boolean budgetExceeded) {
+		this.vars = Collections.unmodifiableList(new ArrayList<String>(vars));
+		ArrayList<TruthTable> tables = new ArrayList<TruthTable>();
+		ArrayList<TruthTable> dcs = new ArrayList<TruthTable>();
+		for (int k = 0; k < truthTables.size(); k++) {
+			tables.add(new TruthTable(truthTables.get(k)));
+			TruthTable dc = (dontCares == null) ? null : dontCares.get(k);
+			dcs.add((dc == null || dc.getNumMinterms() == 0) ? null : new TruthTable(dc));
+		}
+		this.truthTables = tables;
+		this.dontCares = dcs;
+		this.productTerms = Collections.unmodifiableList(new ArrayList<String>(productTerms));
+		ArrayList<List<String>> imps = new ArrayList<List<String>>();
+		for (List<String> implicants : outputImplicants) {
+			imps.add(Collections.unmodifiableList(new ArrayList<String>(implicants)));
+		}
+		this.outputImplicants = Collections.unmodifiableList(imps);
+		this.engine = engine;
+		this.budgetExceeded = budgetExceeded;
+	}
+
+	public List<String> getVars() {
+		return vars;
+	}
+
+	public int getNumVars() {
+		return vars.size();
+	}
+
+	public int getNumOutputs() {
+		return truthTables.size();
+	}
+
+	public Minimizer.Engine getEngine() {
+		return engine;
+	}
+
+	// returns true if a budget ran out and the result was finished by a fallback
+	public boolean isBudgetExceeded() {
+		return budgetExceeded;
+	}
+
+	// returns true if the result is guaranteed minimal: found by the exact engine within its budget
+	public boolean isMinimal() {
+		return engine == Minimizer.Engine.EXACT && !budgetExceeded;
+	}
+
+	// returns a copy of the truth table of output k
+	public TruthTable getTruthTable(int k) {
+		return new TruthTable(truthTables.get(k));
+	}
+
+	// returns the minterms of output k in increasing order
+	public int[] getMinterms(int k) {
+		return truthTables.get(k).getMinterms();
+	}
+
+	// returns the don't-care rows of output k in increasing order, empty if there are none
+	public int[] getDontCares(int k) {
+		return (dontCares.get(k) == null) ? new int[0] : dontCares.get(k).getMinterms();
+	}
+
+	// returns the distinct product terms used by any output
+	public List<String> getProductTerms() {
+		return productTerms;
+	}
+
+	// returns the product terms output k sums
+	public List<String> getImplicants(int k) {
+		return outputImplicants.get(k);
+	}
+
+	// returns the reduced boolean expression of output k
+	public String getReducedExpression(int k) {
+		return MinimizationResult.getReducedBoolExpr(outputImplicants.get(k), vars);
+	}
+
+	// returns the reduced boolean expression of every output
+	public List<String> getReducedExpressions() {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (List<String> implicants : outputImplicants) {
+			ret.add(MinimizationResult.getReducedBoolExpr(implicants, vars));
+		}
+		return ret;
+	}
+
+	// returns the number of distinct product terms, each built once however many outputs use it
+	public int getNumProductTerms() {
+		return productTerms.size();
+	}
+
+	// returns the number of literals over the distinct product terms
+	public int getNumLiterals() {
+		return MinimizationResult.getNumLiterals(productTerms);
+	}
+
+	// returns the number of product terms summed over all outputs, the inputs of the output OR gates
+	public int getNumOutputTerms() {
+		int ret = 0;
+		for (List<String> implicants : outputImplicants) {
+			ret += implicants.size();
+		}
+		return ret;
+	}
+}
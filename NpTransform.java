@@ -0,0 +1,278 @@
+// A permutation and negation of the input variables of a function (an NP transform).
+// Position j of the transformed function reads the original variable perm[j], negated if bit
+// perm[j] of negated is set (bits numbered by position, position 0 being the leftmost character of
+// an implicant). Functions that differ only by renaming or complementing inputs share one canonical
+// form, the transform whose truth table compares smallest, so their minimizations can be shared.
+// Negating the output is left out on purpose: the minimum sum of products of f' cannot be read off
+// the one for f.
+
+import java.util.*;
+import java.util.function.*;
+
+public final class NpTransform {
+
+	// n! * 2^n transforms are tried, 3840 for 5 variables
+	public static final int MAX_CANONICAL_VARS = 5;
+
+	// the rows of a word whose row bit b is 0
+	private static final long[] LOW_HALVES = {
+		0x5555555555555555L, 0x3333333333333333L, 0x0F0F0F0F0F0F0F0FL,
+		0x00FF00FF00FF00FFL, 0x0000FFFF0000FFFFL, 0x00000000FFFFFFFFL
+	};
+
+	// the n! * 2^n - 1 steps that take the packed rows of a function of n variables through every
+	// transform: a Gray code over the negations for each permutation, the permutations following one
+	// another by adjacent swaps (Steinhaus-Johnson-Trotter). Step i is the delta swap
+	// (w & KEEPS[i]) | ((w >>> SHIFTS[i]) & MASKS[i]) | ((w & MASKS[i]) << SHIFTS[i]); OPS[i] is the
+	// position it negates, times 2, or the first of the two it swaps, times 2 plus 1
+	private static final long[][] STEP_KEEPS = new long[MAX_CANONICAL_VARS + 1][];
+	private static final long[][] STEP_MASKS = new long[MAX_CANONICAL_VARS + 1][];
+	private static final int[][] STEP_SHIFTS = new int[MAX_CANONICAL_VARS + 1][];
+	private static final int[][] STEP_OPS = new int[MAX_CANONICAL_VARS + 1][];
+	private static final int STEP_COUNT_BITS = 12;	// 5! * 2^5 - 1 steps fit
+
+	static {
+		for (int n = 0; n <= MAX_CANONICAL_VARS; n++) {
+			initSteps(n);
+		}
+	}
+
+	private final int[] perm;
+	private final int negated;
+
+	public NpTransform(int[] perm, int negated) {
+		this.perm = perm.clone();
+		this.negated = negated;
+	}
+
+	// returns the transform that changes nothing
+	public static NpTransform identity(int numVars) {
+		int[] perm = new int[numVars];
+		for (int i = 0; i < numVars; i++) {
+			perm[i] = i;
+		}
+		return new NpTransform(perm, 0);
+	}
+
+	public int getNumVars() {
+		return perm.length;
+	}
+
+	// returns the transform taking the table to its canonical form; tables with more than
+	// MAX_CANONICAL_VARS variables only get the identity
+	public static NpTransform canonicalize(TruthTable table) {
+		return canonicalize(table, null);
+	}
+
+	// returns the transform taking the table and its don't-cares (null for none) to their canonical
+	// form, compared by the on-set first and the don't-cares second
+	public static NpTransform canonicalize(TruthTable table, TruthTable dontCares) {
+		int numVars = table.getNumVars();
+		if (numVars > MAX_CANONICAL_VARS) { return identity(numVars); }
+
+		// walk every transform on the packed words themselves, remembering only the step of the best;
+		// the transform is replayed from the step count at the end
+		long word = table.getWords()[0];
+		long[] keeps = STEP_KEEPS[numVars];
+		long[] masks = STEP_MASKS[numVars];
+		int[] shifts = STEP_SHIFTS[numVars];
+		int bestSteps = 0;
+		if (dontCares == null) {
+			// a table of at most 32 rows leaves room below it for the step count, so the best step is a
+			// plain minimum with no branch to mispredict
+			long best = word << STEP_COUNT_BITS;
+			for (int i = 0; i < masks.length; i++) {
+				word = (word & keeps[i]) | ((word >>> shifts[i]) & masks[i]) | ((word & masks[i]) << shifts[i]);
+				best = Math.min(best, (word << STEP_COUNT_BITS) | (i + 1));
+			}
+			bestSteps = (int)(best & ((1 << STEP_COUNT_BITS) - 1));
+		} else {
+			long dcWord = dontCares.getWords()[0];
+			long bestWord = word;
+			long bestDcWord = dcWord;
+			for (int i = 0; i < masks.length; i++) {
+				word = (word & keeps[i]) | ((word >>> shifts[i]) & masks[i]) | ((word & masks[i]) << shifts[i]);
+				dcWord = (dcWord & keeps[i]) | ((dcWord >>> shifts[i]) & masks[i]) | ((dcWord & masks[i]) << shifts[i]);
+				int cmp = Long.compareUnsigned(word, bestWord);
+				if (cmp < 0 || (cmp == 0 && Long.compareUnsigned(dcWord, bestDcWord) < 0)) {
+					bestWord = word;
+					bestDcWord = dcWord;
+					bestSteps = i + 1;
+				}
+			}
+		}
+
+		int[] perm = identity(numVars).perm;
+		int neg = 0;
+		int[] ops = STEP_OPS[numVars];
+		for (int i = 0; i < bestSteps; i++) {
+			int pos = ops[i] >>> 1;
+			if ((ops[i] & 1) == 0) {
+				neg ^= 1 << perm[pos];
+			} else {
+				int tmp = perm[pos];
+				perm[pos] = perm[pos + 1];
+				perm[pos + 1] = tmp;
+			}
+		}
+		return new NpTransform(perm, neg);
+	}
+
+	// calls the action with the packed word of every transform of the function of at most
+	// MAX_CANONICAL_VARS variables, n! * 2^n calls in all, repeats included
+	static void forEachTransformed(long word, int numVars, LongConsumer action) {
+		long[] keeps = STEP_KEEPS[numVars];
+		long[] masks = STEP_MASKS[numVars];
+		int[] shifts = STEP_SHIFTS[numVars];
+		action.accept(word);
+		for (int i = 0; i < masks.length; i++) {
+			word = (word & keeps[i]) | ((word >>> shifts[i]) & masks[i]) | ((word & masks[i]) << shifts[i]);
+			action.accept(word);
+		}
+	}
+
+	// fills in the steps for functions of n variables
+	private static void initSteps(int n) {
+		int[] swaps = getAdjacentSwaps(n);
+		int numSteps = (swaps.length + 1) * (1 << n) - 1;
+		STEP_KEEPS[n] = new long[numSteps];
+		STEP_MASKS[n] = new long[numSteps];
+		STEP_SHIFTS[n] = new int[numSteps];
+		STEP_OPS[n] = new int[numSteps];
+		int i = 0;
+		for (int p = 0; p <= swaps.length; p++) {
+			if (p > 0) {
+				// rows with a 1 in the lower row bit of the pair and a 0 in the higher move up by the shift
+				int bit = n - 2 - swaps[p - 1];
+				long mask = ~LOW_HALVES[bit] & LOW_HALVES[bit + 1];
+				STEP_KEEPS[n][i] = ~(mask | (mask << (1 << bit)));
+				STEP_MASKS[n][i] = mask;
+				STEP_SHIFTS[n][i] = 1 << bit;
+				STEP_OPS[n][i++] = 2 * swaps[p - 1] + 1;
+			}
+			for (int k = 1; k < (1 << n); k++) {
+				// the two halves of the rows swap places, so nothing is kept
+				int position = Integer.numberOfTrailingZeros(k);
+				int bit = n - 1 - position;
+				STEP_MASKS[n][i] = LOW_HALVES[bit];
+				STEP_SHIFTS[n][i] = 1 << bit;
+				STEP_OPS[n][i++] = 2 * position;
+			}
+		}
+	}
+
+	// returns the n! - 1 adjacent swaps that step through every permutation of n positions
+	static int[] getAdjacentSwaps(int n) {
+		int numPerms = 1;
+		for (int i = 2; i <= n; i++) {
+			numPerms *= i;
+		}
+		int[] ret = new int[Math.max(0, numPerms - 1)];
+		int[] perm = new int[n];
+		int[] dir = new int[n];
+		for (int i = 0; i < n; i++) {
+			perm[i] = i;
+			dir[i] = -1;
+		}
+		for (int k = 0; k < ret.length; k++) {
+			// move the largest element whose neighbour in its direction is smaller
+			int pos = -1;
+			for (int i = 0; i < n; i++) {
+				int j = i + dir[perm[i]];
+				if (j >= 0 && j < n && perm[j] < perm[i] && (pos < 0 || perm[i] > perm[pos])) { pos = i; }
+			}
+			int mobile = perm[pos];
+			int j = pos + dir[mobile];
+			perm[pos] = perm[j];
+			perm[j] = mobile;
+			ret[k] = Math.min(pos, j);
+			for (int v = mobile + 1; v < n; v++) {
+				dir[v] = -dir[v];
+			}
+		}
+		return ret;
+	}
+
+	// returns the truth table of the transformed function
+	public TruthTable apply(TruthTable table) {
+		int numVars = perm.length;
+		TruthTable ret = new TruthTable(numVars);
+		for (int row = 0; row < table.getNumRows(); row++) {
+			if (table.get(row)) { ret.set(mapRow(row), true); }
+		}
+		return ret;
+	}
+
+	// returns the row of the transformed function that reads the same inputs as the original row
+	int mapRow(int row) {
+		int numVars = perm.length;
+		int ret = 0;
+		for (int j = 0; j < numVars; j++) {
+			int src = perm[j];
+			int bit = (row >>> (numVars - 1 - src)) & 1;
+			bit ^= (negated >>> src) & 1;
+			ret |= bit << (numVars - 1 - j);
+		}
+		return ret;
+	}
+
+	// returns an implicant of the transformed function as an implicant of the original one
+	public String mapImplicantBack(String imp) {
+		char[] ret = new char[imp.length()];
+		for (int j = 0; j < imp.length(); j++) {
+			int src = perm[j];
+			char c = imp.charAt(j);
+			if (c != '-' && ((negated >>> src) & 1) == 1) {
+				c = (c == '0') ? '1' : '0';
+			}
+			ret[src] = c;
+		}
+		return new String(ret);
+	}
+
+	// returns a packed cube (see Cube) of the transformed function as a packed cube of the original one
+	public long mapCubeBack(long cube) {
+		int numVars = perm.length;
+		int value = Cube.value(cube);
+		int mask = Cube.mask(cube);
+		int retValue = 0;
+		int retMask = 0;
+		for (int j = 0; j < numVars; j++) {
+			int src = perm[j];
+			int from = numVars - 1 - j;
+			int to = numVars - 1 - src;
+			if (((mask >>> from) & 1) == 1) {
+				retMask |= 1 << to;
+			} else {
+				retValue |= (((value >>> from) ^ (negated >>> src)) & 1) << to;
+			}
+		}
+		return Cube.pack(retValue, retMask);
+	}
+
+	// returns every implicant mapped back to the original function
+	public ArrayList<String> mapImplicantsBack(List<String> imps) {
+		ArrayList<String> ret = new ArrayList<String>();
+		for (String imp : imps) {
+			ret.add(mapImplicantBack(imp));
+		}
+		return ret;
+	}
+
+	// returns the result for the transformed function as the result for the original table and vars
+	public MinimizationResult mapResultBack(MinimizationResult result, TruthTable table, List<String> vars) {
+		return mapResultBack(result, table, null, vars);
+	}
+
+	// returns the result for the transformed function as the result for the original table,
+	// don't-cares (null for none) and vars
+	public MinimizationResult mapResultBack(MinimizationResult result, TruthTable table, TruthTable dontCares, List<String> vars) {
+		List<List<String>> solutions = new ArrayList<List<String>>();
+		for (List<String> solution : result.getSolutions()) {
+			solutions.add(mapImplicantsBack(solution));
+		}
+		return new MinimizationResult(vars, table, dontCares, mapImplicantsBack(result.getPrimeImplicants()),
+			mapImplicantsBack(result.getEssentialPrimeImplicants()), solutions, result.getEngine(), result.isProductOfSums(),
+			result.isBudgetExceeded());
+	}
+}
@@ -0,0 +1,153 @@
+// Petrick's method with absorption applied as the product is expanded.
+// Every element (minterm) contributes a clause: the sum of the candidates covering it. The product
+// of the clauses is multiplied out one clause at a time, and after each multiplication duplicate
+// terms are dropped and absorption (X + XY = X) removes every term containing another one. Terms are
+// BitSets of candidate indices kept in a subsumption-aware set, so the intermediate sum never grows
+// past the antichain of irredundant partial covers instead of the full Cartesian product.
+
+import java.util.*;
+
+public class Petrick {
+
+	// terms multiplied between checks of the limits
+	static final int LIMIT_CHECK_INTERVAL = 1024;
+
+	private final BitSet[] clauses;
+	private int numClauses;		// after reduction, set by expand
+	private int maxProductSize;	// most terms held at once, set by expand
+	private long deadline;		// System.nanoTime deadline, 0 for none
+	private int productSizeLimit;	// 0 for no limit
+
+	// creates the product of sums for the given coverage table; coveredBy[e] holds the
+	// candidates covering element e
+	public Petrick(BitSet[] coveredBy) {
+		this.clauses = coveredBy;
+	}
+
+	// makes expand throw a BudgetExceededException once the System.nanoTime deadline passes or the
+	// product holds more than productSizeLimit terms; 0 turns either check off
+	public void setLimits(long deadline, int productSizeLimit) {
+		this.deadline = deadline;
+		this.productSizeLimit = productSizeLimit;
+	}
+
+	// returns every irredundant cover, each as a BitSet of candidate indices
+	public ArrayList<BitSet> expand() {
+		ArrayList<BitSet> ordered = getReducedClauses();
+		numClauses = ordered.size();
+
+		TermSet terms = new TermSet();
+		terms.add(new BitSet());
+		maxProductSize = 1;
+		for (BitSet clause : ordered) {
+			TermSet next = new TermSet();
+			int numMultiplied = 0;
+			for (BitSet term : terms.toList()) {
+				// a single clause can multiply a large product out further, so check within it too
+				if (++numMultiplied % LIMIT_CHECK_INTERVAL == 0) { checkLimits(next); }
+				// X(X + Y) = X, so a term already meeting the clause passes through unchanged
+				if (term.intersects(clause)) {
+					next.add(term);
+					continue;
+				}
+				for (int c = clause.nextSetBit(0); c >= 0; c = clause.nextSetBit(c + 1)) {
+					BitSet product = (BitSet)term.clone();
+					product.set(c);
+					next.add(product);
+				}
+			}
+			terms = next;
+			maxProductSize = Math.max(maxProductSize, terms.size());
+			checkLimits(terms);
+		}
+		return terms.toList();
+	}
+
+	// throws if the product has grown past its limit or the deadline has passed
+	private void checkLimits(TermSet product) {
+		if (productSizeLimit > 0 && product.size() > productSizeLimit) {
+			throw new BudgetExceededException("Petrick's product grew past " + productSizeLimit + " terms");
+		}
+		MinimizationBudget.checkDeadline(deadline);
+	}
+
+	// returns the number of distinct irredundant clauses the last expand multiplied out
+	public int getNumClauses() {
+		return numClauses;
+	}
+
+	// returns the most terms the product held at once during the last expand
+	public int getMaxProductSize() {
+		return maxProductSize;
+	}
+
+	// returns the distinct clauses with any clause containing another removed ((X)(X + Y) = X),
+	// smallest first so the product grows as slowly as possible
+	private ArrayList<BitSet> getReducedClauses() {
+		TermSet reduced = new TermSet();
+		for (BitSet clause : clauses) {
+			if (clause.isEmpty()) {
+				throw new IllegalStateException("A minterm is not covered by any candidate");
+			}
+			reduced.add(clause);
+		}
+		return reduced.toList();
+	}
+
+	// an antichain of BitSets under inclusion, grouped by cardinality: adding a set that contains
+	// one already present does nothing, and adding a set removes every present set containing it
+	static class TermSet {
+
+		private final ArrayList<ArrayList<BitSet>> bySize = new ArrayList<ArrayList<BitSet>>();
+		private final HashSet<BitSet> distinct = new HashSet<BitSet>();
+
+		// adds the term unless it is absorbed by a smaller or equal term already present
+		void add(BitSet term) {
+			if (distinct.contains(term)) { return; }
+			int size = term.cardinality();
+			for (int s = 0; s < size && s < bySize.size(); s++) {
+				for (BitSet other : bySize.get(s)) {
+					if (isSubset(other, term)) { return; }
+				}
+			}
+
+			// the new term absorbs every larger term containing it
+			for (int s = size + 1; s < bySize.size(); s++) {
+				Iterator<BitSet> it = bySize.get(s).iterator();
+				while (it.hasNext()) {
+					BitSet other = it.next();
+					if (isSubset(term, other)) {
+						it.remove();
+						distinct.remove(other);
+					}
+				}
+			}
+
+			while (bySize.size() <= size) {
+				bySize.add(new ArrayList<BitSet>());
+			}
+			bySize.get(size).add(term);
+			distinct.add(term);
+		}
+
+		// returns the terms, smallest first
+		ArrayList<BitSet> toList() {
+			ArrayList<BitSet> ret = new ArrayList<BitSet>();
+			for (ArrayList<BitSet> terms : bySize) {
+				ret.addAll(terms);
+			}
+			return ret;
+		}
+
+		int size() {
+			return distinct.size();
+		}
+	}
+
+	// returns true if every bit of a is set in b
+	private static boolean isSubset(BitSet a, BitSet b) {
+		BitSet diff = (BitSet)a.clone();
+		diff.andNot(b);
+		return diff.isEmpty();
+	}
+}
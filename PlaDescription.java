@@ -0,0 +1,59 @@
+// A function read from an espresso .pla description by PlaReader: the input and output labels and,
+// for each output, a cover of its on-set and one of its don't-care set with the .type of the file
+// already applied, so an off-set given instead of an on-set has been complemented. The covers are
+// the cubes of the file (plus any complements), never expanded to minterms.
+
+import java.util.*;
+
+public final class PlaDescription {
+
+	private final List<String> inputLabels;
+	private final List<String> outputLabels;
+	private final List<Cover> onSets;
+	private final List<Cover> dcSets;
+
+	PlaDescription(List<String> inputLabels, List<String> outputLabels, List<Cover> onSets, List<Cover> dcSets) {
+		this.inputLabels = Collections.unmodifiableList(new ArrayList<String>(inputLabels));
+		this.outputLabels = Collections.unmodifiableList(new ArrayList<String>(outputLabels));
+		this.onSets = Collections.unmodifiableList(new ArrayList<Cover>(onSets));
+		this.dcSets = Collections.unmodifiableList(new ArrayList<Cover>(dcSets));
+	}
+
+	public int getNumInputs() {
+		return inputLabels.size();
+	}
+
+	public int getNumOutputs() {
+		return outputLabels.size();
+	}
+
+	// returns the .ilb labels, or a, b, c, ... if the file has none; these become the variables
+	public List<String> getInputLabels() {
+		return inputLabels;
+	}
+
+	// returns the .ob labels, or f (f1, f2, ... for several outputs) if the file has none
+	public List<String> getOutputLabels() {
+		return outputLabels;
+	}
+
+	// returns the cover of the on-set of output k; callers must not modify it
+	public Cover getOnSet(int k) {
+		return onSets.get(k);
+	}
+
+	// returns the cover of the don't-care set of output k, empty for none; callers must not modify it
+	public Cover getDontCareSet(int k) {
+		return dcSets.get(k);
+	}
+
+	// returns the covers of the on-sets of every output in order
+	public Cover[] getOnSets() {
+		return onSets.toArray(new Cover[0]);
+	}
+
+	// returns the covers of the don't-care sets of every output in order
+	public Cover[] getDontCareSets() {
+		return dcSets.toArray(new Cover[0]);
+	}
+}
@@ -0,0 +1,273 @@
+// Reads espresso .pla descriptions (the format ExpressionFormatter writes) straight into cube covers,
+// so a function that already exists as a cube list is minimized without writing it as an
+// expression or evaluating a truth table. The file is streamed through one 64KB buffer from a
+// channel and parsed byte by byte: cube lines never become Strings, only the few directive lines do,
+// so the memory used is that of the covers however large the file is.
+//
+// Understood: .i, .o, .ilb, .ob, .p (ignored), .type f|fd|r|fr|dr|fdr (fd when absent, as in
+// espresso), .e and .end, '#' comments, and cube lines of inputs 0/1/-(or 2) followed by outputs
+// 1(or 4) for the on-set, 0 for the off-set, -(or 2) for the don't-care set and ~(or 3) for none,
+// with spaces or '|' anywhere between them; a cube of one output may leave its output column out if
+// its inputs are written as one word. Which of those sets count is given by the .type; an off-set
+// is complemented into the on-set (type r) or into the don't-cares (fr, fdr: rows given neither way
+// are free). Multiple-valued descriptions (.mv, .kiss) are rejected.
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class PlaReader {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private int numInputs = -1;
+	private int numOutputs = 1;
+	private String type = "fd";
+	private List<String> inputLabels;
+	private List<String> outputLabels;
+	private Cover[] onSets;		// null until the first cube line
+	private Cover[] dcSets;
+	private Cover[] offSets;
+
+	private byte[] line = new byte[256];
+	private int lineLength;
+	private long lineNumber;
+	private boolean ended;
+
+	private PlaReader() {}
+
+	// reads the description from the file
+	public static PlaDescription read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	// reads the description from the channel up to .e or the end of the stream; throws
+	// IllegalArgumentException, naming the line, if it is malformed
+	public static PlaDescription read(ReadableByteChannel channel) throws IOException {
+		return new PlaReader().parse(channel);
+	}
+
+	// reads the description from the text, for descriptions already in memory
+	public static PlaDescription parse(String text) {
+		try {
+			return read(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII))));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private PlaDescription parse(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] bytes = buf.array();
+		while (!ended && channel.read(buf) >= 0) {
+			int end = buf.position();
+			for (int i = 0; i < end && !ended; i++) {
+				byte b = bytes[i];
+				if (b == '\n') {
+					endLine();
+				} else if (b != '\r') {
+					if (lineLength == line.length) { line = Arrays.copyOf(line, 2 * lineLength); }
+					line[lineLength++] = b;
+				}
+			}
+			buf.clear();
+		}
+		if (!ended && lineLength > 0) { endLine(); }
+		return build();
+	}
+
+	// handles the line collected so far and starts the next one
+	private void endLine() {
+		lineNumber++;
+		int end = lineLength;
+		lineLength = 0;
+		for (int i = 0; i < end; i++) {
+			if (line[i] == '#') {
+				end = i;
+				break;
+			}
+		}
+		int start = 0;
+		while (start < end && isSpace(line[start])) {
+			start++;
+		}
+		if (start == end) { return; }
+		if (line[start] == '.') {
+			directive(new String(line, start, end - start, StandardCharsets.US_ASCII).trim().split("\\s+"));
+		} else {
+			cube(start, end);
+		}
+	}
+
+	private void directive(String[] words) {
+		String keyword = words[0];
+		switch (keyword) {
+			case ".i":
+				if (onSets != null) { throw error(".i after the first cube"); }
+				numInputs = parseCount(words, 0, Cover.MAX_VARS);
+				break;
+			case ".o":
+				if (onSets != null) { throw error(".o after the first cube"); }
+				numOutputs = parseCount(words, 1, Integer.MAX_VALUE);
+				break;
+			case ".ilb":
+				inputLabels = Arrays.asList(words).subList(1, words.length);
+				break;
+			case ".ob":
+				outputLabels = Arrays.asList(words).subList(1, words.length);
+				break;
+			case ".p":
+				parseCount(words, 0, Integer.MAX_VALUE);
+				break;
+			case ".type":
+				if (words.length != 2 || !Arrays.asList("f", "fd", "r", "fr", "dr", "fdr").contains(words[1])) {
+					throw error("expected .type f, fd, r, fr, dr or fdr");
+				}
+				type = words[1];
+				break;
+			case ".e":
+			case ".end":
+				ended = true;
+				break;
+			default:
+				throw error("unsupported directive " + keyword);
+		}
+	}
+
+	// parses the one number after the keyword
+	private int parseCount(String[] words, int min, int max) {
+		try {
+			if (words.length == 2) {
+				int ret = Integer.parseInt(words[1]);
+				if (ret >= min && ret <= max) { return ret; }
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw error("expected " + words[0] + " followed by a number from " + min + " to " + max);
+	}
+
+	// adds the cube on line[start, end) to the covers its outputs name
+	private void cube(int start, int end) {
+		if (numInputs < 0) { throw error(".i must come before the first cube"); }
+		if (onSets == null) {
+			onSets = newCovers();
+			dcSets = newCovers();
+			offSets = newCovers();
+		}
+		long value = 0;
+		long mask = 0;
+		int numRead = 0;
+		int k = 0;
+		boolean split = false;	// a separator between two inputs
+		for (int i = start; i < end; i++) {
+			byte c = line[i];
+			if (isSpace(c) || c == '|') {
+				if (numRead > 0 && numRead < numInputs) { split = true; }
+				continue;
+			}
+			if (numRead < numInputs) {
+				value <<= 1;
+				mask <<= 1;
+				if (c == '1') {
+					value |= 1;
+				} else if (c == '-' || c == '2') {
+					mask |= 1;
+				} else if (c != '0') {
+					throw error("bad input character '" + (char)c + "'");
+				}
+				numRead++;
+				continue;
+			}
+			if (k == numOutputs) { throw error("more than " + numInputs + " inputs and " + numOutputs + " outputs"); }
+			if (c == '1' || c == '4') {
+				onSets[k].add(value, mask);
+			} else if (c == '0') {
+				offSets[k].add(value, mask);
+			} else if (c == '-' || c == '2') {
+				dcSets[k].add(value, mask);
+			} else if (c != '~' && c != '3') {
+				throw error("bad output character '" + (char)c + "'");
+			}
+			k++;
+		}
+		// a description of one output may leave its output column out: the cube is in the on-set. A
+		// split cube is not read that way, so "11 1" of three inputs is an error rather than 111
+		if (numRead == numInputs && k == 0 && numOutputs == 1 && !split) {
+			onSets[0].add(value, mask);
+			k = 1;
+		}
+		if (numRead < numInputs || k < numOutputs) {
+			throw error("expected " + numInputs + " inputs and " + numOutputs + " outputs");
+		}
+	}
+
+	// applies the type to the cubes read and returns the description
+	private PlaDescription build() {
+		if (numInputs < 0) { throw new IllegalArgumentException("PLA has no .i line"); }
+		if (onSets == null) {
+			onSets = newCovers();
+			dcSets = newCovers();
+			offSets = newCovers();
+		}
+		List<String> inputs = (inputLabels == null) ? Minimizer.getDefaultVars(numInputs) : inputLabels;
+		if (inputs.size() != numInputs) {
+			throw new IllegalArgumentException("PLA .ilb has " + inputs.size() + " labels for " + numInputs + " inputs");
+		}
+		List<String> outputs = outputLabels;
+		if (outputs == null) {
+			outputs = new ArrayList<String>();
+			for (int k = 0; k < numOutputs; k++) {
+				outputs.add((numOutputs == 1) ? "f" : "f" + (k + 1));
+			}
+		}
+		if (outputs.size() != numOutputs) {
+			throw new IllegalArgumentException("PLA .ob has " + outputs.size() + " labels for " + numOutputs + " outputs");
+		}
+
+		boolean hasOn = type.indexOf('f') >= 0;
+		boolean hasDc = type.indexOf('d') >= 0;
+		boolean hasOff = type.indexOf('r') >= 0;
+		ArrayList<Cover> ons = new ArrayList<Cover>();
+		ArrayList<Cover> dcs = new ArrayList<Cover>();
+		for (int k = 0; k < numOutputs; k++) {
+			Cover dc = hasDc ? dcSets[k] : new Cover(numInputs);
+			Cover on = onSets[k];
+			if (!hasOn) {
+				// only the off-set (and don't-cares) given: the rest is the on-set
+				Cover given = new Cover(offSets[k]);
+				given.addAll(dc);
+				on = given.complement();
+			} else if (hasOff) {
+				// both given: the rows in neither are free
+				Cover given = new Cover(onSets[k]);
+				given.addAll(offSets[k]);
+				dc = given.complement();
+			}
+			ons.add(on);
+			dcs.add(dc);
+		}
+		return new PlaDescription(inputs, outputs, ons, dcs);
+	}
+
+	private Cover[] newCovers() {
+		Cover[] ret = new Cover[numOutputs];
+		for (int k = 0; k < numOutputs; k++) {
+			ret[k] = new Cover(numInputs);
+		}
+		return ret;
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException("PLA line " + lineNumber + ": " + message);
+	}
+}
@@ -0,0 +1,391 @@
+// Primitive-encoded Quine-McCluskey engine.
+// Implicants are packed cubes (see Cube) held in long arrays, grouped into buckets indexed by the
+// number of 1's in their value. Two cubes combine when they share a mask and their values differ in
+// exactly one bit, so instead of comparing every pair of adjacent buckets each cube looks up its
+// single-bit neighbours in a hash index of the level, which keeps 16-24 variable functions tractable.
+// Given a ForkJoinPool, large levels are combined in parallel: one task per pair of adjacent buckets,
+// split further into chunks of large buckets, with the paired flags in a lock-free bitset and each
+// task's combined cubes merged into one deduplicated level as the tasks join.
+// Don't-care rows take part in combining like minterms, so they can grow the prime implicants, but
+// they are never required to be covered: primes made only of don't-cares are dropped, and the
+// essentials and the cover are chosen over the minterms alone. A row given as both a minterm and a
+// don't-care is a don't-care, as everywhere in the Minimizer.
+// With setLimits, combining checks a deadline every DEADLINE_CHECK_INTERVAL cubes and counts the
+// primes after every level, throwing a BudgetExceededException once either runs out.
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class QuineMcCluskey {
+
+	private final int numVars;
+	private final int varMask;	// one bit per variable
+	private final int[] minterms;	// sorted, none of them a don't-care
+	private final int[] dontCares;	// sorted
+	private long[] primeImplicants;
+	private long[] essentialPrimeImplicants;
+	private int[] uncoveredMinterms;
+	private ForkJoinPool pool;	// null to combine on the calling thread
+	private boolean collectStats;
+	private long[][] levelStats;	// cubes, lookups and combined pairs of each level, when collected
+	private long deadline;			// System.nanoTime deadline, 0 for none
+	private int maxPrimeImplicants;	// 0 for no limit
+
+	// levels smaller than this are combined on the calling thread even when a pool is set
+	static final int PARALLEL_THRESHOLD = 4096;
+	// cubes per task when splitting a large bucket
+	static final int CHUNK_SIZE = 1024;
+	// cubes combined between checks of the deadline
+	static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	// creates the engine for the given true rows of a function of numVars variables
+	public QuineMcCluskey(int numVars, int[] minterms) {
+		this(numVars, minterms, new int[0]);
+	}
+
+	// creates the engine for the given true rows and don't-care rows; rows given as both are don't-cares
+	public QuineMcCluskey(int numVars, int[] minterms, int[] dontCares) {
+		if (numVars < 0 || numVars > Cube.MAX_PACKED_VARS) {
+			throw new IllegalArgumentException("Quine-McCluskey supports at most " + Cube.MAX_PACKED_VARS + " variables, got " + numVars);
+		}
+		this.numVars = numVars;
+		this.varMask = (numVars == 32) ? -1 : (1 << numVars) - 1;
+		this.dontCares = dontCares.clone();
+		Arrays.sort(this.dontCares);
+		int[] mts = new int[minterms.length];
+		int numMts = 0;
+		for (int mt : minterms) {
+			if (Arrays.binarySearch(this.dontCares, mt) < 0) { mts[numMts++] = mt; }
+		}
+		this.minterms = Arrays.copyOf(mts, numMts);
+		Arrays.sort(this.minterms);
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	// combines large levels on the given pool; null combines everything on the calling thread
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	// makes findPrimeImplicants throw a BudgetExceededException once the System.nanoTime deadline
+	// passes or more than maxPrimeImplicants primes are found; 0 turns either check off
+	public void setLimits(long deadline, int maxPrimeImplicants) {
+		this.deadline = deadline;
+		this.maxPrimeImplicants = maxPrimeImplicants;
+	}
+
+	// when true, findPrimeImplicants also counts the cubes, lookups and combinations of each level
+	public void setCollectStats(boolean collectStats) {
+		this.collectStats = collectStats;
+	}
+
+	// returns one {cubes, neighbour lookups, pairs combined} row per level of the last
+	// findPrimeImplicants, level L holding the cubes with L dashes; null unless stats were collected
+	public long[][] getLevelStats() {
+		return (levelStats == null) ? null : levelStats.clone();
+	}
+
+	// returns the sorted minterms of the function that are not don't-cares
+	public int[] getMinterms() {
+		return minterms.clone();
+	}
+
+	// returns the sorted don't-care rows
+	public int[] getDontCares() {
+		return dontCares.clone();
+	}
+
+	// finds the prime implicants using the first part of the Quine-McCluskey Algorithm,
+	// combining cubes level by level until no more pairs can be made
+	public long[] findPrimeImplicants() {
+		LongIndexMap primes = new LongIndexMap();
+
+		// the first level is just the minterms and the don't-cares
+		LongIndexMap level = new LongIndexMap(minterms.length + dontCares.length);
+		for (int mt : minterms) {
+			level.add(Cube.pack(mt, 0));
+		}
+		for (int dc : dontCares) {
+			level.add(Cube.pack(dc, 0));
+		}
+
+		ArrayList<long[]> stats = collectStats ? new ArrayList<long[]>() : null;
+		while (level.size() > 0) {
+			int[][] buckets = getBucketsByNumOnes(level);
+			AtomicLongArray paired = new AtomicLongArray((level.size() + 63) >>> 6);
+			LongIndexMap nextLevel;
+
+			// cubes in bucket k can only pair with cubes in bucket k + 1
+			if (pool != null && level.size() >= PARALLEL_THRESHOLD) {
+				nextLevel = mergeLevelParts(pool.invoke(new CombineLevelTask(level, buckets, paired)));
+			} else {
+				nextLevel = new LongIndexMap(level.size());
+				for (int k = 0; k < buckets.length - 1; k++) {
+					combineBucket(level, buckets[k], 0, buckets[k].length, paired, nextLevel);
+				}
+			}
+
+			if (stats != null) { stats.add(getLevelStats(level, stats.size(), nextLevel.size())); }
+
+			// every cube that did not pair up is prime, but only worth keeping if it covers a minterm
+			for (int i = 0; i < level.size(); i++) {
+				if (!isPaired(paired, i) && (dontCares.length == 0 || coversMinterm(level.keyAt(i)))) {
+					primes.add(level.keyAt(i));
+				}
+			}
+			if (maxPrimeImplicants > 0 && primes.size() > maxPrimeImplicants) {
+				throw new BudgetExceededException("More than " + maxPrimeImplicants + " prime implicants");
+			}
+			MinimizationBudget.checkDeadline(deadline);
+			level = nextLevel;
+		}
+
+		primeImplicants = primes.toArray();
+		levelStats = (stats == null) ? null : stats.toArray(new long[0][]);
+		return primeImplicants.clone();
+	}
+
+	// returns {cubes, neighbour lookups, pairs combined} for level number dashes. Each cube looks up one
+	// neighbour per 0 bit. Every cube of the next level is an implicant with dashes + 1 dashes, and
+	// both halves of it across any one of those dashes are implicants in this level, so it was made
+	// by exactly dashes + 1 pairs
+	private long[] getLevelStats(LongIndexMap level, int dashes, int nextLevelSize) {
+		long lookups = 0;
+		for (int i = 0; i < level.size(); i++) {
+			long cube = level.keyAt(i);
+			lookups += Integer.bitCount(~Cube.value(cube) & ~Cube.mask(cube) & varMask);
+		}
+		return new long[] { level.size(), lookups, (long)(dashes + 1) * nextLevelSize };
+	}
+
+	// returns true if the cube covers at least one minterm, enumerating whichever is fewer: the rows
+	// of the cube or the minterms
+	boolean coversMinterm(long cube) {
+		int value = Cube.value(cube);
+		int mask = Cube.mask(cube);
+		if (Integer.bitCount(mask) < 31 && (1 << Integer.bitCount(mask)) <= minterms.length) {
+			for (int sub = mask; ; sub = (sub - 1) & mask) {
+				if (Arrays.binarySearch(minterms, value | sub) >= 0) { return true; }
+				if (sub == 0) { return false; }
+			}
+		}
+		for (int mt : minterms) {
+			if (Cube.covers(cube, mt)) { return true; }
+		}
+		return false;
+	}
+
+	// combines the cubes bucket[from..to) with their neighbours in the next bucket
+	void combineBucket(LongIndexMap level, int[] bucket, int from, int to, AtomicLongArray paired, LongIndexMap nextLevel) {
+		for (int b = from; b < to; b++) {
+			if ((b - from) % DEADLINE_CHECK_INTERVAL == DEADLINE_CHECK_INTERVAL - 1) { MinimizationBudget.checkDeadline(deadline); }
+			combineWithNeighbours(level, bucket[b], paired, nextLevel);
+		}
+	}
+
+	// looks up each cube one bit above cube i in the level; every one found pairs with cube i and
+	// their combination (a dash in place of the differing bit) goes to the next level
+	void combineWithNeighbours(LongIndexMap level, int i, AtomicLongArray paired, LongIndexMap nextLevel) {
+		long cube = level.keyAt(i);
+		int value = Cube.value(cube);
+		int mask = Cube.mask(cube);
+		int zeros = ~value & ~mask & varMask;
+		while (zeros != 0) {
+			int bit = zeros & -zeros;
+			zeros &= zeros - 1;
+			int j = level.indexOf(Cube.pack(value | bit, mask));
+			if (j >= 0) {
+				setPaired(paired, i);
+				setPaired(paired, j);
+				nextLevel.add(Cube.pack(value, mask | bit));
+			}
+		}
+	}
+
+	// sets flag i of the bitset without locking; other threads may be setting bits of the same word
+	static void setPaired(AtomicLongArray paired, int i) {
+		int word = i >>> 6;
+		long bit = 1L << i;
+		long cur = paired.get(word);
+		while ((cur & bit) == 0 && !paired.compareAndSet(word, cur, cur | bit)) {
+			cur = paired.get(word);
+		}
+	}
+
+	// returns flag i of the bitset
+	static boolean isPaired(AtomicLongArray paired, int i) {
+		return (paired.get(i >>> 6) & (1L << i)) != 0;
+	}
+
+	// combines one level in parallel: the root forks a task per pair of adjacent buckets, and tasks
+	// over more than CHUNK_SIZE cubes split in half. The level itself is only read, so the lookups
+	// need no locking. Each leaf collects its cubes in its own map; the leaf maps come back in bucket
+	// order and are merged once at the root, which keeps the next level in the same order as the
+	// sequential loop
+	class CombineLevelTask extends RecursiveTask<ArrayList<LongIndexMap>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final LongIndexMap level;
+		private final int[][] buckets;
+		private final AtomicLongArray paired;
+		private final int bucket;	// -1 for the root task over every bucket pair
+		private final int from;
+		private final int to;
+
+		CombineLevelTask(LongIndexMap level, int[][] buckets, AtomicLongArray paired) {
+			this(level, buckets, paired, -1, 0, 0);
+		}
+
+		CombineLevelTask(LongIndexMap level, int[][] buckets, AtomicLongArray paired, int bucket, int from, int to) {
+			this.level = level;
+			this.buckets = buckets;
+			this.paired = paired;
+			this.bucket = bucket;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected ArrayList<LongIndexMap> compute() {
+			ArrayList<CombineLevelTask> tasks = new ArrayList<CombineLevelTask>();
+			if (bucket < 0) {
+				for (int k = 0; k < buckets.length - 1; k++) {
+					if (buckets[k].length > 0 && buckets[k + 1].length > 0) {
+						tasks.add(new CombineLevelTask(level, buckets, paired, k, 0, buckets[k].length));
+					}
+				}
+			} else if (to - from > CHUNK_SIZE) {
+				int mid = (from + to) >>> 1;
+				tasks.add(new CombineLevelTask(level, buckets, paired, bucket, from, mid));
+				tasks.add(new CombineLevelTask(level, buckets, paired, bucket, mid, to));
+			} else {
+				LongIndexMap part = new LongIndexMap(to - from);
+				combineBucket(level, buckets[bucket], from, to, paired, part);
+				ArrayList<LongIndexMap> ret = new ArrayList<LongIndexMap>();
+				ret.add(part);
+				return ret;
+			}
+
+			invokeAll(tasks);
+			ArrayList<LongIndexMap> ret = new ArrayList<LongIndexMap>();
+			for (CombineLevelTask task : tasks) {
+				ret.addAll(task.join());
+			}
+			return ret;
+		}
+	}
+
+	// returns the union of the parts' cubes in order, without duplicates
+	static LongIndexMap mergeLevelParts(ArrayList<LongIndexMap> parts) {
+		int size = 0;
+		for (LongIndexMap part : parts) {
+			size += part.size();
+		}
+		LongIndexMap ret = new LongIndexMap(Math.max(1, size));
+		for (LongIndexMap part : parts) {
+			for (int i = 0; i < part.size(); i++) {
+				ret.add(part.keyAt(i));
+			}
+		}
+		return ret;
+	}
+
+	// returns the indices of the cubes of the level grouped by the number of 1's in their value
+	int[][] getBucketsByNumOnes(LongIndexMap level) {
+		int[] counts = new int[numVars + 1];
+		for (int i = 0; i < level.size(); i++) {
+			counts[Integer.bitCount(Cube.value(level.keyAt(i)))]++;
+		}
+		int[][] ret = new int[numVars + 1][];
+		for (int k = 0; k <= numVars; k++) {
+			ret[k] = new int[counts[k]];
+			counts[k] = 0;
+		}
+		for (int i = 0; i < level.size(); i++) {
+			int k = Integer.bitCount(Cube.value(level.keyAt(i)));
+			ret[k][counts[k]++] = i;
+		}
+		return ret;
+	}
+
+	// finds the essential prime implicants using the second part of the Quine-McCluskey Algorithm:
+	// the primes that are the only cover of some minterm
+	public long[] findEssentialPrimeImplicants() {
+		if (primeImplicants == null) { findPrimeImplicants(); }
+
+		// count how many primes cover each minterm, remembering the last one
+		int[] coverCount = new int[minterms.length];
+		int[] lastCover = new int[minterms.length];
+		for (int p = 0; p < primeImplicants.length; p++) {
+			int value = Cube.value(primeImplicants[p]);
+			int mask = Cube.mask(primeImplicants[p]);
+			for (int sub = mask; ; sub = (sub - 1) & mask) {
+				int mt = Arrays.binarySearch(minterms, value | sub);
+				if (mt >= 0) {
+					coverCount[mt]++;
+					lastCover[mt] = p;
+				}
+				if (sub == 0) { break; }
+			}
+		}
+
+		boolean[] isEssential = new boolean[primeImplicants.length];
+		for (int mt = 0; mt < minterms.length; mt++) {
+			if (coverCount[mt] == 1) { isEssential[lastCover[mt]] = true; }
+		}
+
+		// keep the essentials in prime order and mark every minterm they cover
+		boolean[] covered = new boolean[minterms.length];
+		LongIndexMap essentials = new LongIndexMap();
+		for (int p = 0; p < primeImplicants.length; p++) {
+			if (!isEssential[p]) { continue; }
+			essentials.add(primeImplicants[p]);
+			int value = Cube.value(primeImplicants[p]);
+			int mask = Cube.mask(primeImplicants[p]);
+			for (int sub = mask; ; sub = (sub - 1) & mask) {
+				int mt = Arrays.binarySearch(minterms, value | sub);
+				if (mt >= 0) { covered[mt] = true; }
+				if (sub == 0) { break; }
+			}
+		}
+
+		int numUncovered = 0;
+		for (boolean c : covered) {
+			if (!c) { numUncovered++; }
+		}
+		uncoveredMinterms = new int[numUncovered];
+		numUncovered = 0;
+		for (int mt = 0; mt < minterms.length; mt++) {
+			if (!covered[mt]) { uncoveredMinterms[numUncovered++] = minterms[mt]; }
+		}
+
+		essentialPrimeImplicants = essentials.toArray();
+		return essentialPrimeImplicants.clone();
+	}
+
+	// returns the minterms left to cover once the essential prime implicants are chosen
+	public int[] getUncoveredMinterms() {
+		if (uncoveredMinterms == null) { findEssentialPrimeImplicants(); }
+		return uncoveredMinterms.clone();
+	}
+
+	// returns the prime implicants that are not essential
+	public long[] getNonessentialPrimeImplicants() {
+		if (essentialPrimeImplicants == null) { findEssentialPrimeImplicants(); }
+		LongIndexMap essentials = new LongIndexMap(essentialPrimeImplicants.length);
+		for (long e : essentialPrimeImplicants) {
+			essentials.add(e);
+		}
+		long[] ret = new long[primeImplicants.length - essentialPrimeImplicants.length];
+		int i = 0;
+		for (long p : primeImplicants) {
+			if (essentials.indexOf(p) < 0) { ret[i++] = p; }
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,143 @@
+// Bounded LRU cache of minimization results keyed by (engine, numVars, truth table and don't-care
+// bits), so different spellings of the same function (e.g. "ab + a'b" and "b") are only minimized
+// once. Results are stored against the positional variables a, b, c, ... and renamed for each
+// caller. With npCanonical set, functions of up to NpTransform.MAX_CANONICAL_VARS variables are
+// stored in NP canonical form, so permuted or input-negated variants share an entry too.
+// Thread-safe.
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+public class ResultCache {
+
+	private final int maxEntries;
+	private final boolean npCanonical;
+	private final LinkedHashMap<Key, MinimizationResult> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public ResultCache(int maxEntries, boolean npCanonical) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		this.maxEntries = maxEntries;
+		this.npCanonical = npCanonical;
+		// access order makes iteration order least recently used first
+		this.entries = new LinkedHashMap<Key, MinimizationResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, MinimizationResult> eldest) {
+				if (size() > ResultCache.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public boolean isNpCanonical() {
+		return npCanonical;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	// returns the cached result for the table, or null (counting a miss)
+	public MinimizationResult get(Minimizer.Engine engine, TruthTable table) {
+		return get(engine, table, null);
+	}
+
+	// returns the cached result for the table and don't-cares (null for none), or null (counting a miss)
+	public MinimizationResult get(Minimizer.Engine engine, TruthTable table, TruthTable dontCares) {
+		MinimizationResult ret;
+		synchronized (entries) {
+			ret = entries.get(new Key(engine, table, dontCares));
+		}
+		if (ret == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return ret;
+	}
+
+	// stores the result for the table, evicting the least recently used entry when full
+	public void put(Minimizer.Engine engine, TruthTable table, MinimizationResult result) {
+		put(engine, table, null, result);
+	}
+
+	// stores the result for the table and don't-cares (null for none)
+	public void put(Minimizer.Engine engine, TruthTable table, TruthTable dontCares, MinimizationResult result) {
+		Key key = new Key(engine, new TruthTable(table), (dontCares == null) ? null : new TruthTable(dontCares));
+		synchronized (entries) {
+			entries.put(key, result);
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	// returns the fraction of lookups that hit, 0 before any lookup
+	public double getHitRate() {
+		long total = hits.get() + misses.get();
+		return (total == 0) ? 0 : (double)hits.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return "ResultCache[size=" + size() + "/" + maxEntries + ", hits=" + hits.get() + ", misses=" + misses.get()
+			+ ", evictions=" + evictions.get() + "]";
+	}
+
+	private static final class Key {
+
+		private final Minimizer.Engine engine;
+		private final TruthTable table;
+		private final TruthTable dontCares;	// null for none
+		private final int hash;
+
+		Key(Minimizer.Engine engine, TruthTable table, TruthTable dontCares) {
+			this.engine = engine;
+			this.table = table;
+			this.dontCares = dontCares;
+			this.hash = 31 * (31 * engine.ordinal() + table.hashCode()) + Objects.hashCode(dontCares);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) { return false; }
+			Key other = (Key)o;
+			return engine == other.engine && table.equals(other.table) && Objects.equals(dontCares, other.dontCares);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+// Compact binary encoding of truth tables and minimization results, for storing and moving millions
+// of them without going through text. A record is
+//
+//	  flags (1 byte)  engine ordinal (1 byte)  numVars (varint)  numVars names (varint length + UTF-8)
+//	  [truth table]  [don't-care table]  primes  essentials  numSolutions (varint)  solutions
+//
+// where a table is its 2^numVars rows packed little-endian, row i in bit (i % 8) of byte (i / 8)
+// (so the same bits as the words of a TruthTable), and primes, essentials and each solution are a
+// cube count followed by that many (value, mask) pairs of varints, as in Cube. The tables are there
+// only when the flags say so. Varints are unsigned LEB128: 7 bits per byte, low bits first, the top
+// bit set on every byte but the last.
+// ResultWriter and ResultReader frame records into corpus files; the methods here encode and decode
+// a single record at the position of a ByteBuffer, which they advance.
+
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public final class ResultCodec {
+
+	static final int FLAG_TRUTH_TABLE = 1;
+	static final int FLAG_DONT_CARES = 2;
+	static final int FLAG_PRODUCT_OF_SUMS = 4;
+	static final int FLAG_BUDGET_EXCEEDED = 8;
+
+	private static final Minimizer.Engine[] ENGINES = Minimizer.Engine.values();
+
+	private ResultCodec() {}
+
+	// returns the result encoded as a single record
+	public static byte[] encode(MinimizationResult result) {
+		ByteBuffer buf = ByteBuffer.allocate(getEncodedSize(result));
+		encode(result, buf);
+		return buf.array();
+	}
+
+	// writes the result as a single record at the position of the buffer, which must have
+	// getEncodedSize(result) bytes remaining
+	public static void encode(MinimizationResult result, ByteBuffer out) {
+		int numVars = checkNumVars(result.getNumVars());
+		int flags = 0;
+		if (result.hasTruthTable()) { flags |= FLAG_TRUTH_TABLE; }
+		if (result.hasDontCares()) { flags |= FLAG_DONT_CARES; }
+		if (result.isProductOfSums()) { flags |= FLAG_PRODUCT_OF_SUMS; }
+		if (result.isBudgetExceeded()) { flags |= FLAG_BUDGET_EXCEEDED; }
+		out.put((byte)flags);
+		out.put((byte)result.getEngine().ordinal());
+		putVarint(out, numVars);
+		for (String var : result.getVars()) {
+			byte[] name = var.getBytes(StandardCharsets.UTF_8);
+			putVarint(out, name.length);
+			out.put(name);
+		}
+		if (result.hasTruthTable()) { putTable(out, result.getTruthTable()); }
+		if (result.hasDontCares()) { putTable(out, result.getDontCareTable()); }
+		putCubes(out, result.getPrimeImplicants());
+		putCubes(out, result.getEssentialPrimeImplicants());
+		putVarint(out, result.getSolutions().size());
+		for (List<String> solution : result.getSolutions()) {
+			putCubes(out, solution);
+		}
+	}
+
+	// returns the number of bytes encode writes for the result
+	public static int getEncodedSize(MinimizationResult result) {
+		int numVars = checkNumVars(result.getNumVars());
+		int ret = 2 + getVarintSize(numVars);
+		for (String var : result.getVars()) {
+			int length = var.getBytes(StandardCharsets.UTF_8).length;
+			ret += getVarintSize(length) + length;
+		}
+		if (result.hasTruthTable()) { ret += getNumTableBytes(numVars); }
+		if (result.hasDontCares()) { ret += getNumTableBytes(numVars); }
+		ret += getCubesSize(result.getPrimeImplicants()) + getCubesSize(result.getEssentialPrimeImplicants());
+		ret += getVarintSize(result.getSolutions().size());
+		for (List<String> solution : result.getSolutions()) {
+			ret += getCubesSize(solution);
+		}
+		return ret;
+	}
+
+	// returns the result decoded from the single record of the array
+	public static MinimizationResult decode(byte[] record) {
+		return decode(ByteBuffer.wrap(record));
+	}
+
+	// reads a record from the position of the buffer; throws IllegalArgumentException if it is
+	// malformed and BufferUnderflowException if it is cut short
+	public static MinimizationResult decode(ByteBuffer in) {
+		return read(in, null, null, null, null);
+	}
+
+	// reads the record of the transformed function from the position of the buffer and returns it as
+	// the result for the original table, don't-cares (null for none) and vars, as
+	// transform.mapResultBack would, but mapping each cube back as it is read instead of building the
+	// transformed result first; the stored variables and tables are skipped
+	public static MinimizationResult decode(ByteBuffer in, NpTransform transform, TruthTable table, TruthTable dontCares,
+			List<String> vars) {
+		if (transform == null) { throw new IllegalArgumentException("No transform to map the record back with"); }
+		return read(in, transform, table, dontCares, vars);
+	}
+
+	// decodes the record as it is when transform is null, mapped back to the given tables and vars if not
+	private static MinimizationResult read(ByteBuffer in, NpTransform transform, TruthTable table, TruthTable dontCares,
+			List<String> vars) {
+		int flags = in.get() & 0xFF;
+		int engine = in.get() & 0xFF;
+		if (engine >= ENGINES.length) {
+			throw new IllegalArgumentException("Malformed result record: unknown engine " + engine);
+		}
+		int numVars = checkNumVars(getVarint(in));
+		ArrayList<String> storedVars = new ArrayList<String>(numVars);
+		for (int i = 0; i < numVars; i++) {
+			int length = getVarint(in);
+			if (transform != null) {
+				in.position(in.position() + length);
+				continue;
+			}
+			byte[] name = new byte[length];
+			in.get(name);
+			storedVars.add(new String(name, StandardCharsets.UTF_8));
+		}
+		TruthTable storedTable = ((flags & FLAG_TRUTH_TABLE) != 0) ? getTable(in, numVars, transform == null) : null;
+		TruthTable storedDontCares = ((flags & FLAG_DONT_CARES) != 0) ? getTable(in, numVars, transform == null) : null;
+		ArrayList<String> primes = getCubes(in, numVars, transform);
+		ArrayList<String> essentials = getCubes(in, numVars, transform);
+		int numSolutions = getVarint(in);
+		ArrayList<List<String>> solutions = new ArrayList<List<String>>();
+		for (int i = 0; i < numSolutions; i++) {
+			solutions.add(getCubes(in, numVars, transform));
+		}
+		if (transform == null) {
+			vars = storedVars;
+			table = storedTable;
+			dontCares = storedDontCares;
+		}
+		return new MinimizationResult(vars, table, dontCares, primes, essentials, solutions, ENGINES[engine],
+			(flags & FLAG_PRODUCT_OF_SUMS) != 0, (flags & FLAG_BUDGET_EXCEEDED) != 0);
+	}
+
+	// returns the number of bytes of a packed table over the given number of variables
+	public static int getNumTableBytes(int numVars) {
+		return numVars <= 3 ? 1 : 1 << (numVars - 3);
+	}
+
+	// writes the rows of the table packed little-endian, getNumTableBytes of them
+	public static void putTable(ByteBuffer out, TruthTable table) {
+		long[] words = table.getWords();
+		int numBytes = getNumTableBytes(table.getNumVars());
+		for (int i = 0; i < numBytes; i++) {
+			out.put((byte)(words[i >>> 3] >>> ((i & 7) << 3)));
+		}
+	}
+
+	// reads a table over the given number of variables written by putTable
+	public static TruthTable getTable(ByteBuffer in, int numVars) {
+		return getTable(in, numVars, true);
+	}
+
+	// reads a table, or only steps over it if it is not wanted and returns null
+	private static TruthTable getTable(ByteBuffer in, int numVars, boolean wanted) {
+		int numBytes = getNumTableBytes(numVars);
+		if (!wanted) {
+			in.position(in.position() + numBytes);
+			return null;
+		}
+		long[] words = new long[TruthTable.getNumWords(numVars)];
+		for (int i = 0; i < numBytes; i++) {
+			words[i >>> 3] |= (in.get() & 0xFFL) << ((i & 7) << 3);
+		}
+		return TruthTable.fromWords(numVars, words);
+	}
+
+	// writes the count and the (value, mask) pairs of the implicants
+	static void putCubes(ByteBuffer out, List<String> imps) {
+		putVarint(out, imps.size());
+		for (String imp : imps) {
+			long cube = Cube.fromBitString(imp);
+			putVarint(out, Cube.value(cube));
+			putVarint(out, Cube.mask(cube));
+		}
+	}
+
+	// reads implicants over the given number of variables written by putCubes, mapping each back
+	// through the transform unless it is null
+	static ArrayList<String> getCubes(ByteBuffer in, int numVars, NpTransform transform) {
+		int count = getVarint(in);
+		ArrayList<String> ret = new ArrayList<String>(Math.min(count, in.remaining() / 2));
+		for (int i = 0; i < count; i++) {
+			int value = getVarint(in);
+			int mask = getVarint(in);
+			long cube = Cube.pack(value, mask);
+			ret.add(Cube.toBitString((transform == null) ? cube : transform.mapCubeBack(cube), numVars));
+		}
+		return ret;
+	}
+
+	// returns the number of bytes putCubes writes for the implicants
+	static int getCubesSize(List<String> imps) {
+		int ret = getVarintSize(imps.size());
+		for (String imp : imps) {
+			long cube = Cube.fromBitString(imp);
+			ret += getVarintSize(Cube.value(cube)) + getVarintSize(Cube.mask(cube));
+		}
+		return ret;
+	}
+
+	// writes the int, taken as unsigned, in 1 to 5 bytes
+	public static void putVarint(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte)value);
+	}
+
+	// reads an int written by putVarint
+	public static int getVarint(ByteBuffer in) {
+		int ret = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.get();
+			ret |= (b & 0x7F) << shift;
+			if (b >= 0) { return ret; }
+		}
+		throw new IllegalArgumentException("Malformed result record: varint longer than 5 bytes");
+	}
+
+	// returns the number of bytes putVarint writes for the int
+	public static int getVarintSize(int value) {
+		return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+
+	// cubes are written as the two ints of a packed Cube
+	private static int checkNumVars(int numVars) {
+		if (numVars < 0 || numVars > Cube.MAX_PACKED_VARS) {
+			throw new IllegalArgumentException("Results can be encoded over at most " + Cube.MAX_PACKED_VARS
+				+ " variables, got " + numVars);
+		}
+		return numVars;
+	}
+}
@@ -0,0 +1,178 @@
+// Reads a corpus written by ResultWriter in place, without copying or parsing it up front: next
+// steps from record to record using their length prefixes, and the header fields and table rows of
+// the current record are read straight out of the buffer. Only readResult and readTruthTable decode
+// anything, so a scan that looks at a few fields of millions of records allocates nothing per record.
+// open memory-maps a file, letting the operating system page it in as the scan goes.
+//
+//	  ResultReader reader = ResultReader.open(Paths.get("results.bamr"));
+//	  while (reader.next()) {
+//	      if (reader.getNumVars() == 4 && !reader.isBudgetExceeded()) { ... reader.readResult() ... }
+//	  }
+//
+// A reader keeps its own position in a view of the buffer; not thread-safe, but several readers may
+// share one buffer.
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+public class ResultReader {
+
+	private static final Minimizer.Engine[] ENGINES = Minimizer.Engine.values();
+
+	private final ByteBuffer buf;
+
+	// the current record: its body, flags and variable count, and where its tables start
+	private int start = -1;
+	private int end;
+	private int flags;
+	private int numVars;
+	private int tableOffset;
+
+	// reads the corpus from the position of the buffer, which is left untouched
+	public ResultReader(ByteBuffer corpus) {
+		this.buf = corpus.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if (buf.remaining() < ResultWriter.MAGIC.length + 1) {
+			throw new IllegalArgumentException("Not a result corpus: too short for the header");
+		}
+		for (byte b : ResultWriter.MAGIC) {
+			if (buf.get() != b) { throw new IllegalArgumentException("Not a result corpus: bad magic bytes"); }
+		}
+		int version = buf.get() & 0xFF;
+		if (version != ResultWriter.VERSION) {
+			throw new IllegalArgumentException("Unsupported result corpus version " + version);
+		}
+	}
+
+	// returns a reader over the memory-mapped file; files are mapped whole, so at most 2GB
+	public static ResultReader open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new ResultReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	// moves to the next record; returns false at the end of the corpus
+	public boolean next() {
+		if (!buf.hasRemaining()) {
+			start = -1;
+			return false;
+		}
+		int size = ResultCodec.getVarint(buf);
+		start = buf.position();
+		end = start + size;
+		if (size < 3 || end > buf.limit() || end < start) {
+			throw new IllegalArgumentException("Malformed result corpus: record at " + start + " runs past the end");
+		}
+		flags = buf.get(start) & 0xFF;
+		buf.position(start + 2);
+		numVars = ResultCodec.getVarint(buf);
+		for (int i = 0; i < numVars; i++) {
+			int length = ResultCodec.getVarint(buf);
+			buf.position(buf.position() + length);
+		}
+		tableOffset = buf.position();
+		buf.position(end);
+		return true;
+	}
+
+	// returns the offset of the current record in the buffer
+	public int getRecordOffset() {
+		checkRecord();
+		return start;
+	}
+
+	public int getNumVars() {
+		checkRecord();
+		return numVars;
+	}
+
+	public Minimizer.Engine getEngine() {
+		checkRecord();
+		int engine = buf.get(start + 1) & 0xFF;
+		if (engine >= ENGINES.length) {
+			throw new IllegalArgumentException("Malformed result record: unknown engine " + engine);
+		}
+		return ENGINES[engine];
+	}
+
+	public boolean hasTruthTable() {
+		return hasFlag(ResultCodec.FLAG_TRUTH_TABLE);
+	}
+
+	public boolean hasDontCares() {
+		return hasFlag(ResultCodec.FLAG_DONT_CARES);
+	}
+
+	public boolean isProductOfSums() {
+		return hasFlag(ResultCodec.FLAG_PRODUCT_OF_SUMS);
+	}
+
+	public boolean isBudgetExceeded() {
+		return hasFlag(ResultCodec.FLAG_BUDGET_EXCEEDED);
+	}
+
+	// returns the value of the row in the stored truth table
+	public boolean getRow(int row) {
+		if (!hasTruthTable()) { throw new IllegalStateException("The record has no truth table"); }
+		return getBit(tableOffset, row);
+	}
+
+	// returns true if the row is a stored don't-care
+	public boolean isDontCare(int row) {
+		if (!hasDontCares()) { return false; }
+		return getBit(hasTruthTable() ? tableOffset + ResultCodec.getNumTableBytes(numVars) : tableOffset, row);
+	}
+
+	// returns the number of true rows of the stored truth table, counted in place
+	public int getNumMinterms() {
+		if (!hasTruthTable()) { throw new IllegalStateException("The record has no truth table"); }
+		int numBytes = ResultCodec.getNumTableBytes(numVars);
+		int ret = 0;
+		int i = 0;
+		for (; i + 8 <= numBytes; i += 8) {
+			ret += Long.bitCount(buf.getLong(tableOffset + i));
+		}
+		for (; i < numBytes; i++) {
+			ret += Integer.bitCount(buf.get(tableOffset + i) & 0xFF);
+		}
+		return ret;
+	}
+
+	// returns a copy of the stored truth table
+	public TruthTable readTruthTable() {
+		if (!hasTruthTable()) { throw new IllegalStateException("The record has no truth table"); }
+		ByteBuffer in = buf.duplicate();
+		in.position(tableOffset);
+		return ResultCodec.getTable(in, numVars);
+	}
+
+	// returns the current record decoded
+	public MinimizationResult readResult() {
+		checkRecord();
+		ByteBuffer in = buf.duplicate();
+		in.limit(end).position(start);
+		MinimizationResult ret = ResultCodec.decode(in);
+		if (in.hasRemaining()) {
+			throw new IllegalArgumentException("Malformed result corpus: record at " + start + " has trailing bytes");
+		}
+		return ret;
+	}
+
+	// rows of the table at the offset, row i in bit (i % 8) of byte (i / 8)
+	private boolean getBit(int offset, int row) {
+		if (row < 0 || row >= 1 << numVars) {
+			throw new IndexOutOfBoundsException("Row " + row + " of a table over " + numVars + " variables");
+		}
+		return (buf.get(offset + (row >>> 3)) & (1 << (row & 7))) != 0;
+	}
+
+	private boolean hasFlag(int flag) {
+		checkRecord();
+		return (flags & flag) != 0;
+	}
+
+	private void checkRecord() {
+		if (start < 0) { throw new IllegalStateException("No current record; call next first"); }
+	}
+}
@@ -0,0 +1,208 @@
+// A read-only file of precomputed minimal sums of products of every function of up to a few
+// variables, one per NP class (see NpTransform). A lookup canonicalizes the function, finds its
+// class in an open-addressed hash index and maps the stored result back, without generating a
+// single prime implicant or searching for a cover. The file is memory-mapped, so opening it costs
+// next to nothing and lookups from any number of threads share the operating system's page cache.
+//
+// generate writes the file offline by walking every function in increasing order: the first one of
+// each class seen is its canonical form (the smallest truth table of the class), which is minimized
+// and stored, and the rest of its class is marked as seen. Every function of n variables is visited
+// once, so 5 variables (2^32 functions, about 1.2 million classes) takes a 512MB bitmap and minutes;
+// 4 variables take a fraction of a second.
+//
+// The file is little-endian:
+//	  "BAMS", version byte, maxVars byte, 2 zero bytes
+//	  for n = 1..maxVars: index offset (long), log2 of its slot count (int), number of classes (int)
+//	  the indexes, slots of 8 bytes: canonical truth table (int), offset of its record (int, -1 empty)
+//	  the records, one ResultCodec record per class
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+public final class ResultStore {
+
+	static final byte[] MAGIC = { 'B', 'A', 'M', 'S' };
+	static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int SECTION_SIZE = 16;
+	private static final int SLOT_SIZE = 8;
+
+	private final ByteBuffer buf;
+	private final int maxVars;
+
+	private ResultStore(ByteBuffer buf) {
+		this.buf = buf.order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buf.limit() < HEADER_SIZE || buf.get(i) != MAGIC[i]) {
+				throw new IllegalArgumentException("Not a result store: bad magic bytes");
+			}
+		}
+		int version = buf.get(4) & 0xFF;
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported result store version " + version);
+		}
+		this.maxVars = buf.get(5) & 0xFF;
+		if (maxVars > NpTransform.MAX_CANONICAL_VARS || buf.limit() < HEADER_SIZE + maxVars * SECTION_SIZE) {
+			throw new IllegalArgumentException("Malformed result store header");
+		}
+	}
+
+	// maps the store file; the mapping stays valid after the channel is closed
+	public static ResultStore open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new ResultStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	// returns the largest number of variables stored
+	public int getMaxVars() {
+		return maxVars;
+	}
+
+	// returns the number of classes stored for functions of the given number of variables
+	public int getNumClasses(int numVars) {
+		if (numVars < 1 || numVars > maxVars) { return 0; }
+		return buf.getInt(getSection(numVars) + 12);
+	}
+
+	// returns the stored minimal sum of products of the function over vars, or null if functions of
+	// its size are not stored; the result is that of the exact engine
+	public MinimizationResult lookup(TruthTable table, List<String> vars) {
+		int numVars = table.getNumVars();
+		if (numVars < 1 || numVars > maxVars) { return null; }
+		NpTransform transform = NpTransform.canonicalize(table);
+		int key = (int)transform.apply(table).getWords()[0];
+
+		int section = getSection(numVars);
+		long index = buf.getLong(section);
+		int bits = buf.getInt(section + 8);
+		int mask = (1 << bits) - 1;
+		for (int slot = hash(key, bits); ; slot = (slot + 1) & mask) {
+			int pos = (int)(index + (long)slot * SLOT_SIZE);
+			int offset = buf.getInt(pos + 4);
+			if (offset < 0) {
+				throw new IllegalStateException("Result store has no class for " + numVars + "-variable table " + Integer.toHexString(key));
+			}
+			if (buf.getInt(pos) == key) {
+				ByteBuffer in = buf.duplicate();
+				in.position(offset);
+				return ResultCodec.decode(in, transform, table, null, vars);
+			}
+		}
+	}
+
+	// minimizes a representative of every class of functions of 1 to maxVars variables with the
+	// minimizer and writes them to the file; returns the number of classes written
+	public static long generate(Path path, int maxVars, Minimizer minimizer) throws IOException {
+		if (maxVars < 1 || maxVars > NpTransform.MAX_CANONICAL_VARS) {
+			throw new IllegalArgumentException("A result store holds 1 to " + NpTransform.MAX_CANONICAL_VARS + " variables, got " + maxVars);
+		}
+		if (minimizer.getEngine() != Minimizer.Engine.EXACT) {
+			throw new IllegalArgumentException("A result store must be generated by the exact engine");
+		}
+		minimizer = minimizer.withMode(Minimizer.Mode.SOP).withBudget(MinimizationBudget.UNLIMITED);
+		ByteArrayOutputStream records = new ByteArrayOutputStream(1 << 16);
+		int[][] keys = new int[maxVars + 1][];
+		int[][] offsets = new int[maxVars + 1][];
+		long numClasses = 0;
+		for (int n = 1; n <= maxVars; n++) {
+			IntList classKeys = new IntList();
+			IntList classOffsets = new IntList();
+			List<String> vars = Minimizer.getDefaultVars(n);
+			long numFunctions = 1L << (1 << n);
+			long[] seen = new long[(int)Math.max(1, numFunctions >>> 6)];
+			for (long f = 0; f < numFunctions; f++) {
+				if ((seen[(int)(f >>> 6)] & (1L << f)) != 0) { continue; }
+				NpTransform.forEachTransformed(f, n, w -> seen[(int)(w >>> 6)] |= 1L << w);
+				MinimizationResult result = minimizer.minimize(TruthTable.fromWords(n, new long[] { f }), vars);
+				classKeys.add((int)f);
+				classOffsets.add(records.size());
+				records.write(ResultCodec.encode(result));
+			}
+			keys[n] = classKeys.toArray();
+			offsets[n] = classOffsets.toArray();
+			numClasses += keys[n].length;
+		}
+
+		// lay the indexes out after the header and the records after the indexes
+		long pos = HEADER_SIZE + (long)maxVars * SECTION_SIZE;
+		long[] indexOffsets = new long[maxVars + 1];
+		int[] indexBits = new int[maxVars + 1];
+		for (int n = 1; n <= maxVars; n++) {
+			indexOffsets[n] = pos;
+			indexBits[n] = Math.max(1, 33 - Integer.numberOfLeadingZeros(keys[n].length));	// at most half full
+			pos += (long)SLOT_SIZE << indexBits[n];
+		}
+		long dataStart = pos;
+		if (dataStart + records.size() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Result store would exceed 2GB");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + maxVars * SECTION_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.put(MAGIC).put((byte)VERSION).put((byte)maxVars).putShort((short)0);
+			for (int n = 1; n <= maxVars; n++) {
+				header.putLong(indexOffsets[n]).putInt(indexBits[n]).putInt(keys[n].length);
+			}
+			header.flip();
+			writeFully(channel, header);
+			for (int n = 1; n <= maxVars; n++) {
+				writeFully(channel, buildIndex(keys[n], offsets[n], indexBits[n], (int)dataStart));
+			}
+			writeFully(channel, ByteBuffer.wrap(records.toByteArray()));
+		}
+		return numClasses;
+	}
+
+	// returns the hash index of the keys, their records at base + their offsets
+	private static ByteBuffer buildIndex(int[] keys, int[] offsets, int bits, int base) {
+		ByteBuffer ret = ByteBuffer.allocate(SLOT_SIZE << bits).order(ByteOrder.LITTLE_ENDIAN);
+		int mask = (1 << bits) - 1;
+		for (int slot = 0; slot <= mask; slot++) {
+			ret.putInt(slot * SLOT_SIZE + 4, -1);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			int slot = hash(keys[i], bits);
+			while (ret.getInt(slot * SLOT_SIZE + 4) >= 0) {
+				slot = (slot + 1) & mask;
+			}
+			ret.putInt(slot * SLOT_SIZE, keys[i]);
+			ret.putInt(slot * SLOT_SIZE + 4, base + offsets[i]);
+		}
+		return ret;
+	}
+
+	// Fibonacci hashing of the truth table into 2^bits slots
+	private static int hash(int key, int bits) {
+		return (int)(((key & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+	}
+
+	private int getSection(int numVars) {
+		return HEADER_SIZE + (numVars - 1) * SECTION_SIZE;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer src) throws IOException {
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+
+	// a growable array of ints, so a million classes need no boxing
+	private static final class IntList {
+		private int[] values = new int[16];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) { values = Arrays.copyOf(values, 2 * size); }
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+// Writes a corpus of minimization results in the binary format of ResultCodec: the magic bytes
+// "BAMR" and a version byte, then every record prefixed by its length as a varint so a reader can
+// step over records without decoding them. ResultReader reads the file back.
+// One record buffer is reused for every write; not thread-safe.
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+
+public class ResultWriter implements Closeable, Flushable {
+
+	static final byte[] MAGIC = { 'B', 'A', 'M', 'R' };
+	static final int VERSION = 1;
+
+	private final OutputStream out;
+	private ByteBuffer record = ByteBuffer.allocate(1 << 12);
+	private long numRecords;
+
+	// writes the header to the stream straight away
+	public ResultWriter(OutputStream out) throws IOException {
+		this.out = out;
+		out.write(MAGIC);
+		out.write(VERSION);
+	}
+
+	// returns a writer creating or truncating the file
+	public static ResultWriter create(Path path) throws IOException {
+		return new ResultWriter(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+	}
+
+	// appends the result as one record
+	public void write(MinimizationResult result) throws IOException {
+		int size = ResultCodec.getEncodedSize(result);
+		int total = ResultCodec.getVarintSize(size) + size;
+		if (record.capacity() < total) {
+			record = ByteBuffer.allocate(Math.max(total, 2 * record.capacity()));
+		}
+		record.clear();
+		ResultCodec.putVarint(record, size);
+		ResultCodec.encode(result, record);
+		out.write(record.array(), 0, record.position());
+		numRecords++;
+	}
+
+	// returns the number of records written so far
+	public long getNumRecords() {
+		return numRecords;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
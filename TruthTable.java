@@ -0,0 +1,187 @@
+// A truth table packed 64 rows to a long, row i of the table held in bit (i % 64) of word (i / 64).
+// Tables are generated bit-parallel: every variable becomes a bitmask pattern and the compiled
+// expression is evaluated over whole words, so one pass of the postfix program fills 64 rows.
+
+import java.util.*;
+
+public class TruthTable {
+
+	// 2^30 rows is already 128MB of packed bits
+	public static final int MAX_VARS = 30;
+
+	private final int numVars;
+	private final long[] words;
+
+	// creates an all-false truth table over the given number of variables
+	public TruthTable(int numVars) {
+		if (numVars < 0 || numVars > MAX_VARS) {
+			throw new IllegalArgumentException("Truth tables support at most " + MAX_VARS + " variables, got " + numVars);
+		}
+		this.numVars = numVars;
+		this.words = new long[getNumWords(numVars)];
+	}
+
+	// returns a copy of the given truth table
+	public TruthTable(TruthTable other) {
+		this.numVars = other.numVars;
+		this.words = other.words.clone();
+	}
+
+	// returns the truth table of the compiled expression, 64 rows per evaluation of the program
+	public static TruthTable fromExpression(BooleanExpression expr) {
+		TruthTable ret = new TruthTable(expr.getNumVars());
+		long[] stack = new long[Math.max(1, expr.getMaxStackDepth())];
+		for (int w = 0; w < ret.words.length; w++) {
+			ret.words[w] = expr.evaluateWord(w, stack);
+		}
+		ret.clearUnusedBits();
+		return ret;
+	}
+
+	// returns the truth table of every compiled expression in one pass over the words, evaluating all
+	// of them for each 64 rows in turn; the expressions must have the same variables
+	public static TruthTable[] fromExpressions(BooleanExpression[] exprs) {
+		TruthTable[] ret = new TruthTable[exprs.length];
+		int maxStackDepth = 1;
+		for (int k = 0; k < exprs.length; k++) {
+			if (exprs[k].getNumVars() != exprs[0].getNumVars()) {
+				throw new IllegalArgumentException("Every expression must have the same variables");
+			}
+			ret[k] = new TruthTable(exprs[k].getNumVars());
+			maxStackDepth = Math.max(maxStackDepth, exprs[k].getMaxStackDepth());
+		}
+		long[] stack = new long[maxStackDepth];
+		int numWords = (exprs.length == 0) ? 0 : ret[0].words.length;
+		for (int w = 0; w < numWords; w++) {
+			for (int k = 0; k < exprs.length; k++) {
+				ret[k].words[w] = exprs[k].evaluateWord(w, stack);
+			}
+		}
+		for (TruthTable t : ret) {
+			t.clearUnusedBits();
+		}
+		return ret;
+	}
+
+	// returns the truth table of the cover, setting the rows of each cube in turn
+	public static TruthTable fromCover(Cover cover) {
+		TruthTable ret = new TruthTable(cover.getNumVars());
+		for (int i = 0; i < cover.size(); i++) {
+			long value = cover.getValue(i);
+			long mask = cover.getMask(i);
+			for (long sub = mask; ; sub = (sub - 1) & mask) {
+				ret.set((int)(value | sub), true);
+				if (sub == 0) { break; }
+			}
+		}
+		return ret;
+	}
+
+	// returns a table over the given number of variables holding a copy of the packed rows
+	public static TruthTable fromWords(int numVars, long[] words) {
+		TruthTable ret = new TruthTable(numVars);
+		if (words.length != ret.words.length) {
+			throw new IllegalArgumentException("Expected " + ret.words.length + " words, got " + words.length);
+		}
+		System.arraycopy(words, 0, ret.words, 0, words.length);
+		ret.clearUnusedBits();
+		return ret;
+	}
+
+	// returns the number of longs needed to hold 2^numVars rows
+	public static int getNumWords(int numVars) {
+		return numVars <= 6 ? 1 : 1 << (numVars - 6);
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	// returns the number of rows, 2^numVars
+	public int getNumRows() {
+		return 1 << numVars;
+	}
+
+	// returns the packed rows; callers must not modify the array
+	public long[] getWords() {
+		return words;
+	}
+
+	// returns the value of the given row
+	public boolean get(int row) {
+		return (words[row >>> 6] & (1L << row)) != 0;
+	}
+
+	// sets the value of the given row
+	public void set(int row, boolean value) {
+		if (value) {
+			words[row >>> 6] |= 1L << row;
+		} else {
+			words[row >>> 6] &= ~(1L << row);
+		}
+	}
+
+	// returns a table of the rows true in this table and false in the other
+	public TruthTable andNot(TruthTable other) {
+		if (other.numVars != numVars) {
+			throw new IllegalArgumentException("Expected a table of " + numVars + " variables, got " + other.numVars);
+		}
+		TruthTable ret = new TruthTable(numVars);
+		for (int w = 0; w < words.length; w++) {
+			ret.words[w] = words[w] & ~other.words[w];
+		}
+		return ret;
+	}
+
+	// returns a table true exactly on the rows false in this one
+	public TruthTable complement() {
+		TruthTable ret = new TruthTable(numVars);
+		for (int w = 0; w < words.length; w++) {
+			ret.words[w] = ~words[w];
+		}
+		ret.clearUnusedBits();
+		return ret;
+	}
+
+	// returns the number of true rows
+	public int getNumMinterms() {
+		int ret = 0;
+		for (long w : words) {
+			ret += Long.bitCount(w);
+		}
+		return ret;
+	}
+
+	// returns the true rows in increasing order, scanning set bits word by word
+	public int[] getMinterms() {
+		int[] ret = new int[getNumMinterms()];
+		int i = 0;
+		for (int w = 0; w < words.length; w++) {
+			long bits = words[w];
+			while (bits != 0) {
+				ret[i++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+		return ret;
+	}
+
+	// zeroes the bits past the last row for tables of fewer than 64 rows
+	private void clearUnusedBits() {
+		if (numVars < 6) {
+			words[0] &= (1L << (1 << numVars)) - 1;
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof TruthTable)) { return false; }
+		TruthTable other = (TruthTable)o;
+		return numVars == other.numVars && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * numVars + Arrays.hashCode(words);
+	}
+}
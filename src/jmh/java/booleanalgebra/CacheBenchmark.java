@@ -0,0 +1,109 @@
+// Minimization through the result cache and the precomputed result store against minimizing afresh.
+// The functions are the variable permutations and negations of a few random ones, so with npCanonical
+// set they all share the cache entries of their classes; the cache is warm before measuring.
+
+package booleanalgebra;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+	// distinct functions cycled through, so a benchmark does not keep hitting one entry
+	static final int NUM_FUNCTIONS = 256;
+	// the most variables of the generated store
+	static final int STORE_VARS = 4;
+
+	@Param({ "3", "4" })
+	public int numVars;
+
+	@Param({ "false", "true" })
+	public boolean npCanonical;
+
+	private List<String> vars;
+	private TruthTable[] tables;
+	private Minimizer fresh;
+	private Minimizer cached;
+	private Minimizer stored;
+	private Path storePath;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		vars = Minimizer.getDefaultVars(numVars);
+		Random random = new Random(1);
+		tables = new TruthTable[NUM_FUNCTIONS];
+		TruthTable base = null;
+		for (int i = 0; i < NUM_FUNCTIONS; i++) {
+			if (i % 16 == 0) { base = Functions.RANDOM.generate(numVars, 0.5, random); }
+			tables[i] = permuteAndNegate(base, random);
+		}
+		fresh = new Minimizer();
+		cached = new Minimizer().withCache(new ResultCache(NUM_FUNCTIONS, npCanonical));
+		for (TruthTable table : tables) {
+			cached.minimize(table, vars);
+		}
+		storePath = Files.createTempFile("boolean-algebra-store", ".bin");
+		ResultStore.generate(storePath, STORE_VARS, new Minimizer());
+		stored = new Minimizer().withStore(ResultStore.open(storePath));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(storePath);
+	}
+
+	@Benchmark
+	public MinimizationResult minimize() {
+		return fresh.minimize(nextTable(), vars);
+	}
+
+	@Benchmark
+	public MinimizationResult cacheHit() {
+		return cached.minimize(nextTable(), vars);
+	}
+
+	@Benchmark
+	public MinimizationResult storeLookup() {
+		return stored.minimize(nextTable(), vars);
+	}
+
+	@Benchmark
+	public NpTransform canonicalize() {
+		return NpTransform.canonicalize(nextTable());
+	}
+
+	private TruthTable nextTable() {
+		next = (next + 1) % NUM_FUNCTIONS;
+		return tables[next];
+	}
+
+	// returns the table with its variables shuffled and some of them negated
+	private static TruthTable permuteAndNegate(TruthTable table, Random random) {
+		int numVars = table.getNumVars();
+		List<Integer> perm = new ArrayList<Integer>();
+		for (int v = 0; v < numVars; v++) {
+			perm.add(v);
+		}
+		Collections.shuffle(perm, random);
+		int negated = random.nextInt(1 << numVars);
+		TruthTable ret = new TruthTable(numVars);
+		for (int row = 0; row < table.getNumRows(); row++) {
+			int mapped = 0;
+			for (int v = 0; v < numVars; v++) {
+				mapped |= ((row >>> v) & 1) << perm.get(v);
+			}
+			ret.set(mapped ^ negated, table.get(row));
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,49 @@
+// The cover of the nonessential prime implicants, solved by branch and bound or by Petrick's method.
+// Petrick's expansion blows up on cyclic and random functions past a few variables, so it only runs
+// when asked for: -p method=PETRICK -p numVars=4.
+
+package booleanalgebra;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoverBenchmark {
+
+	@Param({ "4", "6" })
+	public int numVars;
+
+	@Param({ "RANDOM", "PARITY", "THRESHOLD", "CYCLIC" })
+	public Functions function;
+
+	@Param({ "BRANCH_AND_BOUND" })
+	public CoverSolver.Method method;
+
+	private long[] candidates;
+	private int[] uncovered;
+
+	@Setup
+	public void setUp() {
+		QuineMcCluskey qm = new QuineMcCluskey(numVars, function.generate(numVars, 0.5, new Random(1)).getMinterms());
+		candidates = qm.getNonessentialPrimeImplicants();
+		uncovered = qm.getUncoveredMinterms();
+	}
+
+	@Benchmark
+	public List<int[]> minimumCovers() {
+		CoverSolver solver = CoverSolver.forImplicants(numVars, candidates, uncovered);
+		solver.setMethod(method);
+		return solver.findMinimumCovers();
+	}
+
+	@Benchmark
+	public int[] greedyCover() {
+		return CoverSolver.forImplicants(numVars, candidates, uncovered).findGreedyCover();
+	}
+}
@@ -0,0 +1,56 @@
+// The compiled expression evaluator: compiling an expression, evaluating it row by row, and
+// evaluating the whole truth table bit-parallel.
+
+package booleanalgebra;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+	// rows evaluated by one operation of evaluateRows
+	static final int EVALUATE_ROWS = 4096;
+
+	@Param({ "6", "10" })
+	public int numVars;
+
+	@Param({ "RANDOM", "PARITY", "THRESHOLD", "CYCLIC" })
+	public Functions function;
+
+	private ArrayList<String> vars;
+	private String text;
+	private BooleanExpression expr;
+
+	@Setup
+	public void setUp() {
+		vars = Minimizer.getDefaultVars(numVars);
+		text = Functions.toExpression(function.generate(numVars, 0.5, new Random(1)), vars);
+		expr = new BooleanExpression(text, vars);
+	}
+
+	@Benchmark
+	public BooleanExpression compile() {
+		return new BooleanExpression(text, vars);
+	}
+
+	@Benchmark
+	public void evaluateRows(Blackhole bh) {
+		int rows = Math.min(1 << numVars, EVALUATE_ROWS);
+		for (int row = 0; row < rows; row++) {
+			bh.consume(expr.evaluate(row));
+		}
+	}
+
+	@Benchmark
+	public TruthTable truthTable() {
+		return TruthTable.fromExpression(expr);
+	}
+}
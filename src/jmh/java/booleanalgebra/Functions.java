@@ -0,0 +1,40 @@
+// The generated functions the benchmarks run over: random functions of a given density, parity,
+// majority threshold, and the cyclic "not all equal" function, whose cover has no essential prime
+// implicants at all.
+
+package booleanalgebra;
+
+import java.util.*;
+
+public enum Functions {
+	RANDOM,		// each row with probability density
+	PARITY,		// an odd number of ones
+	THRESHOLD,	// at least half of the variables set
+	CYCLIC;		// the variables not all equal
+
+	// returns the truth table of the function over numVars variables
+	public TruthTable generate(int numVars, double density, Random random) {
+		TruthTable ret = new TruthTable(numVars);
+		for (int row = 0; row < ret.getNumRows(); row++) {
+			int ones = Integer.bitCount(row);
+			boolean value;
+			switch (this) {
+				case RANDOM: value = random.nextDouble() < density; break;
+				case PARITY: value = (ones & 1) == 1; break;
+				case THRESHOLD: value = 2 * ones >= numVars; break;
+				default: value = ones != 0 && ones != numVars; break;
+			}
+			ret.set(row, value);
+		}
+		return ret;
+	}
+
+	// returns an expression over a, b, c, ... for the table, its heuristic sum of products
+	public static String toExpression(TruthTable table, List<String> vars) {
+		String ret = new Minimizer(Minimizer.Engine.HEURISTIC).minimize(table, vars).getReducedExpression();
+		// the constants have no spelling of their own
+		if (ret.equals("0")) { return "aa'"; }
+		if (ret.equals("1")) { return "a+a'"; }
+		return BooleanExpression.normalize(ret);
+	}
+}
@@ -0,0 +1,53 @@
+// End to end minimization of a truth table by the exact and heuristic engines, and factoring the
+// exact cover into a multi-level network.
+
+package booleanalgebra;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinimizerBenchmark {
+
+	@Param({ "4", "6" })
+	public int numVars;
+
+	@Param({ "RANDOM", "PARITY", "THRESHOLD", "CYCLIC" })
+	public Functions function;
+
+	private List<String> vars;
+	private TruthTable table;
+	private Minimizer exact;
+	private Minimizer heuristic;
+	private MinimizationResult result;
+
+	@Setup
+	public void setUp() {
+		vars = Minimizer.getDefaultVars(numVars);
+		table = function.generate(numVars, 0.5, new Random(1));
+		exact = new Minimizer();
+		heuristic = new Minimizer(Minimizer.Engine.HEURISTIC);
+		result = exact.minimize(table, vars);
+	}
+
+	@Benchmark
+	public MinimizationResult exact() {
+		return exact.minimize(table, vars);
+	}
+
+	@Benchmark
+	public MinimizationResult heuristic() {
+		return heuristic.minimize(table, vars);
+	}
+
+	@Benchmark
+	public FactoredNetwork factor() {
+		return Factorizer.factor(result);
+	}
+}
@@ -0,0 +1,48 @@
+// Prime implicant generation and essential prime implicant selection of the Quine-McCluskey engine,
+// on the calling thread or, with parallel set, on the common ForkJoinPool.
+
+package booleanalgebra;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuineMcCluskeyBenchmark {
+
+	@Param({ "8", "12" })
+	public int numVars;
+
+	@Param({ "RANDOM", "PARITY", "THRESHOLD", "CYCLIC" })
+	public Functions function;
+
+	@Param({ "false" })
+	public boolean parallel;
+
+	private int[] minterms;
+	private QuineMcCluskey primed;	// with its primes already found
+
+	@Setup
+	public void setUp() {
+		minterms = function.generate(numVars, 0.5, new Random(1)).getMinterms();
+		primed = new QuineMcCluskey(numVars, minterms);
+		primed.findPrimeImplicants();
+	}
+
+	@Benchmark
+	public long[] primeImplicants() {
+		QuineMcCluskey qm = new QuineMcCluskey(numVars, minterms);
+		qm.setPool(parallel ? ForkJoinPool.commonPool() : null);
+		return qm.findPrimeImplicants();
+	}
+
+	@Benchmark
+	public long[] essentialPrimeImplicants() {
+		return primed.findEssentialPrimeImplicants();
+	}
+}
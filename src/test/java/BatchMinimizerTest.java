@@ -0,0 +1,77 @@
+// Checks batch mode: records come out one per input line, in input order, whatever order the workers
+// finish in; blank and comment lines are skipped, and bad lines become error records without
+// stopping the batch.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class BatchMinimizerTest {
+
+	@Test
+	void writesRecordsInInputOrder() throws Exception {
+		Random random = new Random(59);
+		StringBuilder input = new StringBuilder("# header\n\n");
+		ArrayList<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 300; i++) {
+			String line = (i % 4 == 0) ? "5:" + join(TestFunctions.randomTable(5, 0.5, random).getMinterms())
+				: (i % 4 == 1) ? "4:" + join(TestFunctions.randomTable(4, 0.4, random).getMinterms()) + "|" + join(TestFunctions.randomTable(4, 0.2, random).getMinterms())
+				: TestFunctions.randomExpression(Minimizer.getDefaultVars(1 + random.nextInt(6)), random, 2, true);
+			lines.add(line);
+			input.append(line).append('\n');
+		}
+
+		for (BatchMinimizer.Format format : BatchMinimizer.Format.values()) {
+			BatchMinimizer batch = new BatchMinimizer(new Minimizer(), 4, 2, format);
+			StringWriter out = new StringWriter();
+			assertEquals(lines.size(), batch.run(new BufferedReader(new StringReader(input.toString())), out));
+			String[] records = out.toString().split("\n");
+			assertEquals(lines.size(), records.length);
+			for (int i = 0; i < lines.size(); i++) {
+				assertEquals(batch.minimizeLine(i + 3, lines.get(i)), records[i]);
+			}
+		}
+	}
+
+	@Test
+	void formatsRecords() {
+		Minimizer minimizer = new Minimizer();
+		BatchMinimizer tsv = new BatchMinimizer(minimizer, 1, 1, BatchMinimizer.Format.TSV);
+		BatchMinimizer ndjson = new BatchMinimizer(minimizer, 1, 1, BatchMinimizer.Format.NDJSON);
+
+		assertEquals("1\tab + a'b\tb\t1\t1\t1\ttrue", tsv.minimizeLine(1, "ab + a'b"));
+		assertEquals("{\"line\":1,\"input\":\"ab + a'b\",\"vars\":[\"a\",\"b\"],\"expr\":\"b\",\"cubes\":1,\"literals\":1,"
+			+ "\"solutions\":[\"b\"]}", ndjson.minimizeLine(1, "ab + a'b"));
+		assertEquals("2\t3:0,1,2,3\ta'\t1\t1\t1\ttrue", tsv.minimizeLine(2, "3:0,1,2,3"));
+		String[] cyclic = tsv.minimizeLine(3, "a'b' + bc' + ac").split("\t");
+		assertEquals("2", cyclic[5]);
+		assertEquals("4\tab + c | a'b'\tab + c\t2\t3\t1\ttrue", tsv.minimizeLine(4, "ab + c | a'b'"));
+		assertEquals("5\t3:1,3,5|7\tc\t1\t1\t1\ttrue", tsv.minimizeLine(5, "3:1,3,5|7"));
+	}
+
+	@Test
+	void reportsBadLines() throws Exception {
+		BatchMinimizer batch = new BatchMinimizer(new Minimizer(), 2, 4, BatchMinimizer.Format.NDJSON);
+		StringWriter out = new StringWriter();
+		assertEquals(4, batch.run(new BufferedReader(new StringReader("ab\na+\n3:9\nb\n")), out));
+		String[] records = out.toString().split("\n");
+		assertTrue(records[0].contains("\"expr\":\"ab\""));
+		assertTrue(records[1].startsWith("{\"line\":2,\"input\":\"a+\",\"error\":"), records[1]);
+		assertTrue(records[2].startsWith("{\"line\":3,\"input\":\"3:9\",\"error\":"), records[2]);
+		assertTrue(records[3].contains("\"expr\":\"b\""));
+
+		BatchMinimizer tsv = new BatchMinimizer(new Minimizer(), 1, 1, BatchMinimizer.Format.TSV);
+		assertTrue(tsv.minimizeLine(7, "a\t+").startsWith("7\ta +\tERROR\t"));
+	}
+
+	private static String join(int[] values) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) { sb.append(','); }
+			sb.append(values[i]);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,133 @@
+// Checks the Bdd against truth tables: equal functions get the same node and different ones
+// different nodes, and evaluation, minterm counts, satisfying cubes and prime implicants agree with
+// the table, before and after sifting. Sifting finds the interleaved order of a sum of pairs, and
+// automatic reordering and gc keep every referenced function.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class BddTest {
+
+	@Test
+	void equalFunctionsShareTheirNode() {
+		Random random = new Random(23);
+		ArrayList<String> vars = Minimizer.getDefaultVars(4);
+		Bdd bdd = new Bdd(4);
+		HashMap<TruthTable, Integer> nodes = new HashMap<TruthTable, Integer>();
+		HashMap<Integer, TruthTable> tables = new HashMap<Integer, TruthTable>();
+		Minimizer minimizer = new Minimizer();
+		for (int i = 0; i < 300; i++) {
+			String expr = TestFunctions.randomExpression(vars, random, 2, true);
+			TruthTable table = TruthTable.fromExpression(new BooleanExpression(expr, vars));
+			int f = bdd.ref(bdd.fromExpression(new BooleanExpression(expr, vars)));
+			Integer seen = nodes.putIfAbsent(table, f);
+			if (seen != null) { assertEquals(seen.intValue(), f, expr); }
+			TruthTable seenTable = tables.putIfAbsent(f, table);
+			if (seenTable != null) { assertEquals(seenTable, table, expr); }
+
+			// the minimized expression is the same function, so the same node; constants are written 0
+			// and 1, which the grammar has no letters for
+			String reduced = minimizer.minimize(table, vars).getReducedExpression();
+			int g;
+			if (reduced.equals("0") || reduced.equals("1")) {
+				g = reduced.equals("1") ? Bdd.TRUE : Bdd.FALSE;
+			} else {
+				g = bdd.fromExpression(new BooleanExpression(BooleanExpression.normalize(reduced), vars));
+			}
+			assertTrue(bdd.isEquivalent(f, g), expr);
+		}
+	}
+
+	@Test
+	void agreesWithTheTruthTable() {
+		Random random = new Random(29);
+		for (int i = 0; i < 100; i++) {
+			int numVars = 1 + random.nextInt(8);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			String expr = TestFunctions.randomExpression(vars, random, 3, true);
+			TruthTable table = TruthTable.fromExpression(new BooleanExpression(expr, vars));
+			Bdd bdd = new Bdd(numVars);
+			int f = bdd.ref(bdd.fromExpression(new BooleanExpression(expr, vars)));
+			checkAgainstTable(bdd, f, table, expr);
+			bdd.reorder();
+			checkAgainstTable(bdd, f, table, expr + " after reordering");
+		}
+	}
+
+	// ai + bj + ... + hp is exponential in alphabetical order and takes two nodes a pair interleaved
+	@Test
+	void siftingInterleavesPairs() {
+		ArrayList<String> vars = Minimizer.getDefaultVars(16);
+		Bdd bdd = new Bdd(16);
+		int f = bdd.ref(bdd.fromExpression(new BooleanExpression(pairSum(8), vars)));
+		assertEquals(2 * (1 << 8), bdd.size(f));
+		bdd.reorder();
+		assertEquals(2 * 8 + 2, bdd.size(f));
+		assertEquals(2 * 8 + 2, bdd.gc());
+		int[] order = bdd.getOrder();
+		for (int level = 0; level < 16; level += 2) {
+			assertEquals(8, Math.abs(order[level] - order[level + 1]));
+		}
+		assertEquals(BigInteger.valueOf(65536 - 6561), bdd.satCount(f));
+	}
+
+	@Test
+	void automaticReorderingKeepsReferencedFunctions() {
+		Random random = new Random(31);
+		ArrayList<String> vars = Minimizer.getDefaultVars(8);
+		Bdd bdd = new Bdd(8);
+		bdd.setAutoReorder(true);
+		bdd.setReorderThreshold(64);
+		ArrayList<Integer> functions = new ArrayList<Integer>();
+		ArrayList<TruthTable> tables = new ArrayList<TruthTable>();
+		for (int i = 0; i < 60; i++) {
+			String expr = TestFunctions.randomExpression(vars, random, 3, true);
+			functions.add(bdd.ref(bdd.fromExpression(new BooleanExpression(expr, vars))));
+			tables.add(TruthTable.fromExpression(new BooleanExpression(expr, vars)));
+			if (i % 3 == 0) {
+				bdd.deref(functions.remove(0));
+				tables.remove(0);
+			}
+		}
+		assertTrue(bdd.getNumReorderings() > 0);
+		bdd.gc();
+		for (int i = 0; i < functions.size(); i++) {
+			checkAgainstTable(bdd, functions.get(i), tables.get(i), "function " + i);
+		}
+	}
+
+	// returns ai+bj+..., numPairs products of a variable and the one numPairs letters later
+	private static String pairSum(int numPairs) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < numPairs; i++) {
+			if (i > 0) { sb.append("+"); }
+			sb.append((char)('a' + i)).append((char)('a' + numPairs + i));
+		}
+		return sb.toString();
+	}
+
+	private static void checkAgainstTable(Bdd bdd, int f, TruthTable table, String name) {
+		int numVars = table.getNumVars();
+		assertEquals(BigInteger.valueOf(table.getNumMinterms()), bdd.satCount(f), name);
+		boolean[] assignment = new boolean[numVars];
+		for (int row = 0; row < table.getNumRows(); row++) {
+			for (int v = 0; v < numVars; v++) {
+				assignment[v] = ((row >>> (numVars - 1 - v)) & 1) != 0;
+			}
+			assertEquals(table.get(row), bdd.evaluate(f, assignment), name + " on row " + row);
+		}
+
+		String sat = bdd.anySat(f);
+		if (table.getNumMinterms() == 0) {
+			assertNull(sat, name);
+		} else {
+			assertTrue(TestFunctions.isImplicant(sat, table, null), name);
+		}
+
+		MinimizationResult result = new Minimizer().minimize(table, Minimizer.getDefaultVars(numVars));
+		assertEquals(new TreeSet<String>(result.getPrimeImplicants()), new TreeSet<String>(bdd.primeImplicants(f).toBitStrings()), name);
+	}
+}
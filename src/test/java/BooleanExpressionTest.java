@@ -0,0 +1,184 @@
+// Checks the compiled evaluator against the string-rewriting evaluator it replaced, on random
+// expressions of the old grammar, TruthTable.fromExpression against row-by-row evaluation, and that
+// malformed expressions are rejected with the position and reason of the first bad character, within
+// the whole line for input with several outputs and don't-cares, and before they get too long or deep.
+// The old evaluator reduced sums before the complements of bracketed groups, so it got
+// "(aa)'b + c" wrong on a = 1, b = 0, c = 1 ("(1)'0+1" became "(1)'1"); complemented groups are left
+// out of the comparison and checked on hand-evaluated truth tables instead.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class BooleanExpressionTest {
+
+	@Test
+	void agreesWithTheRegexEvaluator() {
+		Random random = new Random(13);
+		assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+			for (int i = 0; i < 500; i++) {
+				int numVars = 1 + random.nextInt(4);
+				ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+				String expr = TestFunctions.randomExpression(vars, random, 3, false);
+				BooleanExpression compiled = new BooleanExpression(expr, vars);
+				for (int row = 0; row < (1 << numVars); row++) {
+					String bits = bits(row, numVars);
+					assertEquals(regexEvaluate(expr, vars, bits), compiled.evaluate(bits), expr + " on " + bits);
+					assertEquals(compiled.evaluate(bits), compiled.evaluate(row), expr + " on " + bits);
+				}
+			}
+		});
+	}
+
+	@Test
+	void truthTableAgreesWithRowEvaluation() {
+		Random random = new Random(17);
+		for (int i = 0; i < 100; i++) {
+			int numVars = 1 + random.nextInt(9);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			String expr = TestFunctions.randomExpression(vars, random, 4, true);
+			BooleanExpression compiled = new BooleanExpression(expr, vars);
+			TruthTable table = TruthTable.fromExpression(compiled);
+			ArrayList<Integer> minterms = new ArrayList<Integer>();
+			for (int row = 0; row < table.getNumRows(); row++) {
+				assertEquals(compiled.evaluate(row), table.get(row), expr + " on row " + row);
+				if (table.get(row)) { minterms.add(row); }
+			}
+			assertEquals(minterms.size(), table.getNumMinterms(), expr);
+			assertArrayEquals(minterms.stream().mapToInt(Integer::intValue).toArray(), table.getMinterms(), expr);
+		}
+	}
+
+	@Test
+	void complementsGroups() {
+		// rows 000 to 111 of a, b, c, a being the most significant bit
+		assertTruthTable("(aa)'b+c", "01110101");
+		assertTruthTable("(a+b)'", "11000000");
+		assertTruthTable("[ab]'c", "01010100");
+		assertTruthTable("(a'+b)''c", "01010001");
+		assertTruthTable("((a+b)'+c)'a", "00001010");
+	}
+
+	@Test
+	void rejectsMalformedExpressions() {
+		ArrayList<String> vars = Minimizer.getDefaultVars(2);
+		for (String expr : new String[] { "", "a+", "(a", "a)", "+a", "a''(", "[a)", "a$b" }) {
+			assertThrows(ExpressionSyntaxException.class, () -> new BooleanExpression(expr, vars), expr);
+		}
+	}
+
+	@Test
+	void reportsErrorPositions() {
+		ArrayList<String> vars = Minimizer.getDefaultVars(2);
+		String[][] cases = {
+			{ "a+", "2", "Unexpected end of expression" },
+			{ "(a", "2", "Expected ')'" },
+			{ "[a)", "2", "Expected ']'" },
+			{ "a + b ) ", "6", "Unexpected ')'" },
+			{ "aB", "1", "Unexpected 'B'" },
+			{ "a +\tc(", "4", "Unexpected 'c'" },
+		};
+		for (String[] c : cases) {
+			ExpressionSyntaxException e = assertThrows(ExpressionSyntaxException.class, () -> new BooleanExpression(c[0], vars), c[0]);
+			assertEquals(c[0], e.getInput());
+			assertEquals(Integer.parseInt(c[1]), e.getPosition(), c[0]);
+			assertEquals(c[2], e.getReason(), c[0]);
+		}
+		assertEquals("   \t^", assertThrows(ExpressionSyntaxException.class, () -> new BooleanExpression("a +\tc(", vars)).getPointer());
+
+		// a whole input line reports positions within the line, outputs and don't-cares included
+		assertEquals(12, assertThrows(ExpressionSyntaxException.class, () -> BooleanExpression.checkSyntax("ab + c; a'(c")).getPosition());
+		assertEquals(16, assertThrows(ExpressionSyntaxException.class, () -> BooleanExpression.checkSyntax("ab + c; a'c | b | c")).getPosition());
+		assertEquals(3, assertThrows(ExpressionSyntaxException.class, () -> BooleanExpression.checkSyntax("ab;;c")).getPosition());
+		BooleanExpression.checkSyntax("ab(c' + d); a'c | b");
+
+		// limits are checked before the input can exhaust the stack
+		String nested = "(".repeat(BooleanExpression.MAX_NESTING + 1) + "a" + ")".repeat(BooleanExpression.MAX_NESTING + 1);
+		assertEquals(BooleanExpression.MAX_NESTING, assertThrows(ExpressionSyntaxException.class, () -> new BooleanExpression(nested, vars)).getPosition());
+		String nestedOk = "(".repeat(BooleanExpression.MAX_NESTING) + "a" + ")".repeat(BooleanExpression.MAX_NESTING);
+		assertTrue(new BooleanExpression(nestedOk, vars).evaluate("10"));
+		String longExpr = "a+".repeat(BooleanExpression.MAX_LENGTH / 2) + "b";
+		assertThrows(ExpressionSyntaxException.class, () -> new BooleanExpression(longExpr, vars));
+	}
+
+	// nested deeper than the 64 values the evaluator keeps in the bits of a long
+	@Test
+	void evaluatesDeepExpressions() {
+		String expr = "a";
+		for (int i = 0; i < 100; i++) {
+			expr = ((i % 2 == 0) ? "b(" : "c+(") + expr + ")'";
+		}
+		BooleanExpression compiled = new BooleanExpression(expr, Minimizer.getDefaultVars(3));
+		for (int row = 0; row < 8; row++) {
+			boolean a = (row & 4) != 0, b = (row & 2) != 0, c = (row & 1) != 0;
+			boolean expected = a;
+			for (int i = 0; i < 100; i++) {
+				expected = (i % 2 == 0) ? b && !expected : c || !expected;
+			}
+			assertEquals(expected, compiled.evaluate(row), "row " + row);
+		}
+	}
+
+	private static void assertTruthTable(String expr, String rows) {
+		BooleanExpression compiled = new BooleanExpression(expr, Minimizer.getDefaultVars(3));
+		for (int row = 0; row < rows.length(); row++) {
+			assertEquals(rows.charAt(row) == '1', compiled.evaluate(row), expr + " on row " + row);
+		}
+	}
+
+	private static String bits(int row, int numVars) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = numVars - 1; i >= 0; i--) {
+			sb.append((row >>> i) & 1);
+		}
+		return sb.toString();
+	}
+
+	// the evaluator BooleanDriver used before expressions were compiled (getTruthValueOfExpressionForBitString),
+	// unchanged but for taking the expression and variables as arguments
+	private static boolean regexEvaluate(String boolExpr, List<String> vars, String bits) {
+		// create editable string for reduction
+		String cur = boolExpr;
+
+		// first replace variables with 1's and 0's
+		for (int i = 0; i < bits.length(); i++) {
+			cur = cur.replaceAll(vars.get(i), bits.substring(i, i+1));
+		}
+
+		// repeat until left with a single 0 or 1
+		while(cur.length() != 1) {
+			// next, replace all negated bits with the opposite
+			while (cur.matches(".*[01]\\'.*")) {
+				cur = cur.replaceAll("0\\'","1");
+				cur = cur.replaceAll("1\\'","0");
+			}
+
+			// next, replace all bits directly next to each other with their product (0 unless 11 -> 1)
+			while (cur.matches(".*[01][01].*")) {
+				cur = cur.replaceAll("[01]?0[01]?","0");
+				cur = cur.replaceAll("11", "1");
+			}
+
+			// next, replace all sums (or's) with simplest form
+			while (cur.matches(".*(?<![\\)\\]])[01]\\+[01](?![\\(\\[]).*")) {
+				cur = cur.replaceAll("(?<![\\)\\]])([01]\\+)?1(\\+[01])?(?![\\(\\[])","1");
+				cur = cur.replaceAll("(?<![\\)\\]])0\\+0(?![\\(\\[])","0");
+			}
+
+			// next, eliminate parentheses around single bits
+			while (cur.matches(".*\\([01]\\).*")) {
+				cur = cur.replaceAll("\\(0\\)","0");
+				cur = cur.replaceAll("\\(1\\)","1");
+			}
+
+			// last, eliminate square brackets around single bits
+			while (cur.matches(".*\\[[01]\\].*")) {
+				cur = cur.replaceAll("\\[0\\]","0");
+				cur = cur.replaceAll("\\[1\\]","1");
+			}
+		}
+		return cur.equals("1");
+	}
+}
@@ -0,0 +1,79 @@
+// Checks EquivalenceChecker on both sides of MAX_TABLE_VARS, past which it compares Bdds: the
+// verdict, counterexample and differing rows agree with the truth tables of random pairs of
+// expressions, and a sum of 22 variables equals its De Morgan dual but not itself with a term less.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class EquivalenceCheckerTest {
+
+	@Test
+	void agreesWithTheTruthTables() {
+		Random random = new Random(83);
+		Minimizer minimizer = new Minimizer();
+		for (int i = 0; i < 300; i++) {
+			int numVars = 1 + random.nextInt(5);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			String first = TestFunctions.randomExpression(vars, random, 2, true);
+			String second = (i % 3 == 0) ? minimizer.minimize(first).getReducedExpression() : TestFunctions.randomExpression(vars, random, 2, true);
+			if (second.equals("0") || second.equals("1")) { continue; }
+			EquivalenceResult result = EquivalenceChecker.diff(first, second);
+			ArrayList<String> allVars = BooleanExpression.getVarsInAlpha(BooleanExpression.normalize(first + second));
+			assertEquals(allVars, result.getVars());
+			TruthTable firstTable = TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(first), allVars));
+			TruthTable secondTable = TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(second), allVars));
+			ArrayList<Integer> differing = new ArrayList<Integer>();
+			for (int row = 0; row < firstTable.getNumRows(); row++) {
+				if (firstTable.get(row) != secondTable.get(row)) { differing.add(row); }
+			}
+			assertEquals(differing.isEmpty(), result.isEquivalent(), first + " vs " + second);
+			assertEquals(result.isEquivalent(), EquivalenceChecker.check(first, second).isEquivalent());
+			if (i % 3 == 0) { assertTrue(result.isEquivalent(), first + " vs " + second); }
+			if (!result.isEquivalent()) {
+				assertArrayEquals(differing.stream().mapToInt(Integer::intValue).toArray(), result.getDifferingRows());
+				assertTrue(differing.contains(new BigInteger(result.getCounterexample(), 2).intValue()));
+			}
+		}
+	}
+
+	@Test
+	void comparesTables() {
+		assertTrue(EquivalenceChecker.check("ab + a'c + bc", "ab + a'c").isEquivalent());
+		EquivalenceResult result = EquivalenceChecker.check("ab + c", "ab + c'");
+		assertFalse(result.isEquivalent());
+		String bits = result.getCounterexample();
+		ArrayList<String> vars = Minimizer.getDefaultVars(3);
+		assertNotEquals(new BooleanExpression("ab+c", vars).evaluate(bits), new BooleanExpression("ab+c'", vars).evaluate(bits));
+		int[] rows = EquivalenceChecker.diff("ab + c", "ab + c'").getDifferingRows();
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, rows);
+	}
+
+	// 22 variables, too many to compare row by row
+	@Test
+	void comparesBdds() {
+		StringBuilder sum = new StringBuilder();
+		StringBuilder complemented = new StringBuilder();
+		for (char c = 'a'; c < 'a' + 22; c += 2) {
+			if (sum.length() > 0) { sum.append(" + "); }
+			sum.append(c).append((char)(c + 1));
+			complemented.append('(').append(c).append("' + ").append((char)(c + 1)).append("')");
+		}
+		assertTrue(EquivalenceChecker.check(sum.toString(), "(" + complemented + ")'").isEquivalent());
+
+		// dropping the last term changes the rows where u = v = 1 and no other pair is both 1:
+		// 3 of the 4 values of each of the other 10 pairs
+		String shorter = sum.substring(0, sum.lastIndexOf(" + "));
+		EquivalenceResult result = EquivalenceChecker.check(sum.toString(), shorter);
+		assertEquals(22, result.getVars().size());
+		assertFalse(result.isEquivalent());
+		assertEquals(BigInteger.valueOf(3).pow(10), result.getNumDifferences());
+		String bits = result.getCounterexample();
+		assertEquals("11", bits.substring(20));
+		for (int i = 0; i < 20; i += 2) {
+			assertNotEquals("11", bits.substring(i, i + 2));
+		}
+	}
+}
@@ -0,0 +1,150 @@
+// Checks the heuristic minimizer: on random functions with don't-cares its result covers every row
+// of the on-set and no row of the off-set, and every cube is prime and needed; on covers of 40
+// variables, far past what a truth table holds, the same is checked with cover containment alone.
+// Also checks BooleanExpression.toCover against the truth table of the expression.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class EspressoTest {
+
+	@Test
+	void coversRandomFunctions() {
+		Random random = new Random(23);
+		for (int i = 0; i < 300; i++) {
+			int numVars = 3 + random.nextInt(6);
+			TruthTable table = TestFunctions.randomTable(numVars, 0.4, random);
+			TruthTable dontCares = TestFunctions.randomTable(numVars, (i % 2 == 0) ? 0 : 0.2, random);
+			Cover onSet = new Cover(numVars);
+			Cover dcSet = new Cover(numVars);
+			for (int row = 0; row < table.getNumRows(); row++) {
+				if (dontCares.get(row)) {
+					dcSet.add(row, 0);
+				} else if (table.get(row)) {
+					onSet.add(row, 0);
+				}
+			}
+			Cover result = new Espresso(onSet, dcSet).minimize();
+			String name = onSet.toBitStrings() + " | " + dcSet.toBitStrings();
+
+			for (int row = 0; row < table.getNumRows(); row++) {
+				if (dontCares.get(row)) { continue; }
+				assertEquals(table.get(row), covers(result, row), name + " on row " + row);
+			}
+			for (int c = 0; c < result.size(); c++) {
+				long value = result.getValue(c);
+				long mask = result.getMask(c);
+				for (int bit = 0; bit < numVars; bit++) {
+					if ((mask & (1L << bit)) != 0) { continue; }
+					long expandedValue = value & ~(1L << bit);
+					long expandedMask = mask | (1L << bit);
+					boolean hitsOffSet = false;
+					for (int row = 0; row < table.getNumRows(); row++) {
+						boolean inCube = ((row ^ expandedValue) & ~expandedMask) == 0;
+						if (inCube && !table.get(row) && !dontCares.get(row)) { hitsOffSet = true; }
+					}
+					assertTrue(hitsOffSet, name + ": " + result.toBitString(c) + " is not prime");
+				}
+
+				Cover rest = without(result, c);
+				boolean needed = false;
+				for (int row = 0; row < table.getNumRows(); row++) {
+					if (table.get(row) && !dontCares.get(row) && !covers(rest, row)) { needed = true; }
+				}
+				assertTrue(needed, name + ": " + result.toBitString(c) + " is redundant");
+			}
+		}
+	}
+
+	// 40 variables: only cube containment is used, no row is ever enumerated
+	@Test
+	void coversLargeFunctions() {
+		Random random = new Random(29);
+		int numVars = 40;
+		for (int i = 0; i < 20; i++) {
+			Cover onSet = randomCover(numVars, 30, random);
+			Cover dcSet = randomCover(numVars, 5, random);
+			Cover result = new Espresso(onSet, dcSet).minimize();
+			Cover allowed = new Cover(onSet);
+			allowed.addAll(dcSet);
+
+			for (int c = 0; c < onSet.size(); c++) {
+				Cover withDontCares = new Cover(result);
+				withDontCares.addAll(dcSet);
+				assertTrue(withDontCares.containsCube(onSet.getValue(c), onSet.getMask(c)), onSet.toBitString(c) + " is lost");
+			}
+			for (int c = 0; c < result.size(); c++) {
+				long value = result.getValue(c);
+				long mask = result.getMask(c);
+				assertTrue(allowed.containsCube(value, mask), result.toBitString(c) + " leaves the on-set");
+				for (int bit = 0; bit < numVars; bit++) {
+					if ((mask & (1L << bit)) != 0) { continue; }
+					assertFalse(allowed.containsCube(value & ~(1L << bit), mask | (1L << bit)), result.toBitString(c) + " is not prime");
+				}
+
+				// the cube is needed if some part of the on-set only it covers
+				Cover rest = without(result, c);
+				rest.addAll(dcSet);
+				boolean needed = false;
+				for (int o = 0; o < onSet.size(); o++) {
+					if (Cover.intersects(onSet.getValue(o), onSet.getMask(o), value, mask)) {
+						long v = (onSet.getValue(o) & ~onSet.getMask(o)) | (value & ~mask);
+						long m = onSet.getMask(o) & mask;
+						if (!rest.containsCube(v, m)) { needed = true; }
+					}
+				}
+				assertTrue(needed, result.toBitString(c) + " is redundant");
+			}
+		}
+	}
+
+	@Test
+	void expressionCoversAgreeWithTheTruthTable() {
+		Random random = new Random(31);
+		for (int i = 0; i < 100; i++) {
+			int numVars = 1 + random.nextInt(8);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			String expr = TestFunctions.randomExpression(vars, random, 3, true);
+			BooleanExpression compiled = new BooleanExpression(expr, vars);
+			TruthTable table = TruthTable.fromExpression(compiled);
+			Cover cover = compiled.toCover();
+			for (int row = 0; row < table.getNumRows(); row++) {
+				assertEquals(table.get(row), covers(cover, row), expr + " on row " + row);
+			}
+		}
+	}
+
+	// returns true if some cube of the cover covers the row
+	private static boolean covers(Cover cover, long row) {
+		for (int c = 0; c < cover.size(); c++) {
+			if (((row ^ cover.getValue(c)) & ~cover.getMask(c)) == 0) { return true; }
+		}
+		return false;
+	}
+
+	// returns the cover without cube c
+	private static Cover without(Cover cover, int c) {
+		Cover ret = new Cover(cover);
+		ret.remove(c);
+		return ret;
+	}
+
+	// returns numCubes random cubes with up to 8 fixed variables each, most of them among the lowest
+	// 12 assignment bits so that the cubes overlap and merge
+	private static Cover randomCover(int numVars, int numCubes, Random random) {
+		Cover ret = new Cover(numVars);
+		for (int c = 0; c < numCubes; c++) {
+			long value = 0;
+			long mask = ret.getVarMask();
+			for (int i = 0; i < 8; i++) {
+				long bit = 1L << random.nextInt((i < 6) ? 12 : numVars);
+				mask &= ~bit;
+				if (random.nextBoolean()) { value |= bit; }
+			}
+			ret.add(value & ~mask, mask);
+		}
+		return ret;
+	}
+}
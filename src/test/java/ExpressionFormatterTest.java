@@ -0,0 +1,109 @@
+// Checks the ExpressionFormatter forms: sums and products of sums read back as the function they were
+// written from, constants included, minterm lists, ints written to a plain Appendable and the .pla
+// text; and that in quiet mode the driver writes nothing but the result to standard output, --format
+// pos and sop selecting the mode.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class ExpressionFormatterTest {
+
+	@Test
+	void expressionsAreTheFunction() throws IOException {
+		Random random = new Random(67);
+		Minimizer minimizer = new Minimizer();
+		for (int i = 0; i < 200; i++) {
+			int numVars = 1 + random.nextInt(5);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			TruthTable table = TestFunctions.randomTable(numVars, (i % 10 == 0) ? 0 : 0.5, random);
+			TruthTable complement = new TruthTable(numVars);
+			for (int row = 0; row < table.getNumRows(); row++) {
+				complement.set(row, !table.get(row));
+			}
+
+			MinimizationResult result = minimizer.minimize(table, vars);
+			StringBuilder sop = new StringBuilder();
+			ExpressionFormatter.appendSop(sop, result.getImplicants(), vars);
+			assertEquals(result.getReducedExpression(), sop.toString());
+			assertEquals(table, TestFunctions.truthTable(sop.toString(), vars), sop.toString());
+
+			// the sums are the complements of the cubes of f'
+			StringBuilder pos = new StringBuilder();
+			ExpressionFormatter.appendPos(pos, minimizer.minimize(complement, vars).getImplicants(), vars);
+			assertEquals(table, TestFunctions.truthTable(pos.toString(), vars), pos.toString());
+		}
+
+		ArrayList<String> vars = Minimizer.getDefaultVars(3);
+		StringBuilder sb = new StringBuilder();
+		ExpressionFormatter.appendPos(sb, Arrays.asList("11-", "--0"), vars);
+		assertEquals("(a' + b')c", sb.toString());
+		sb.setLength(0);
+		ExpressionFormatter.appendPos(sb, Arrays.asList("---"), vars);
+		assertEquals("0", sb.toString());
+		sb.setLength(0);
+		ExpressionFormatter.appendSop(sb, Arrays.asList("---"), vars);
+		assertEquals("1", sb.toString());
+	}
+
+	@Test
+	void writesNumbersAndPla() throws IOException {
+		StringWriter writer = new StringWriter();
+		for (int value : new int[] { 0, 7, 10, 1234567890, -42, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+			ExpressionFormatter.appendInt(writer, value);
+			writer.append(' ');
+		}
+		assertEquals("0 7 10 1234567890 -42 -2147483648 2147483647 ", writer.toString());
+
+		StringBuilder sb = new StringBuilder();
+		ExpressionFormatter.appendDecimalList(sb, new int[] { 1, 3, 12 });
+		assertEquals("[1, 3, 12]", sb.toString());
+
+		MinimizationResult result = new Minimizer().minimize("ab + a'b + c");
+		sb.setLength(0);
+		ExpressionFormatter.append(sb, result, ExpressionFormatter.Form.PLA);
+		assertEquals(".i 3\n.o 1\n.ilb a b c\n.ob f\n.p 2\n-1- 1\n--1 1\n.e\n", sb.toString());
+
+		MultiOutputResult outputs = new Minimizer().minimizeOutputs(Arrays.asList("a'b'c + a'bc'", "a'b' + a'c' + b'c'"));
+		sb.setLength(0);
+		ExpressionFormatter.appendPla(sb, outputs);
+		assertEquals(".i 3\n.o 2\n.ilb a b c\n.ob f1 f2\n.p 3\n001 11\n010 11\n-00 01\n.e\n", sb.toString());
+
+		assertEquals(ExpressionFormatter.Form.MINTERMS, ExpressionFormatter.parseForm(" Minterms"));
+		assertThrows(IllegalArgumentException.class, () -> ExpressionFormatter.parseForm("sum"));
+	}
+
+	@Test
+	void quietModePrintsOnlyTheResult() throws IOException, InterruptedException {
+		assertEquals("b + c\n", runDriver("3\nab + a'b + c\n", "-q"));
+		assertEquals("[1, 2, 3, 5, 6, 7]\n", runDriver("3\nab + a'b + c\n", "--quiet", "--format", "minterms"));
+		assertEquals(".i 3\n.o 1\n.ilb a b c\n.ob f\n.p 2\n-1- 1\n--1 1\n.e\n", runDriver("3\nab + a'b + c\n", "-q", "--format", "PLA"));
+		assertEquals("(b + c)\n", runDriver("3\nab + a'b + c\n", "-q", "--format", "pos"));
+		assertEquals("b + c\n", runDriver("3\nab + a'b + c\n", "-q", "--auto", "--format", "sop"));
+
+		// input errors are reported with the prompts, on standard error
+		assertEquals("b\n", runDriver("x\n2\nab + a'b + x\na $ b\nab + a'b\n", "-q"));
+		assertEquals("a'b'c + a'bc'\na'b'c + a'bc' + b'c'\n", runDriver("3\na'b'c + a'bc'; a'b' + a'c' + b'c'\n", "-q"));
+		assertTrue(runDriver("3\nab + c\n").startsWith("Boolean Driver running properly...\n\nEnter number of variables"));
+		assertEquals("", runDriver("3\nab + c\n", "-q", "--format", "pdf"));
+	}
+
+	// runs the driver on the input, returning what it writes to standard output
+	private static String runDriver(String input, String... args) throws IOException, InterruptedException {
+		PrintStream stdout = System.out;
+		PrintStream stderr = System.err;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BooleanDriver.keyboard = new Scanner(input);
+		try {
+			System.setOut(new PrintStream(out, true));
+			System.setErr(new PrintStream(new ByteArrayOutputStream(), true));
+			BooleanDriver.main(args);
+		} finally {
+			System.setOut(stdout);
+			System.setErr(stderr);
+		}
+		return out.toString();
+	}
+}
@@ -0,0 +1,82 @@
+// Checks Factorizer: the network factored from random single- and multi-output covers, sums of
+// products and products of sums alike, computes its cover on every row and never has more literals
+// than the flat form; and two outputs dividing by the same kernel share one node for it.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class FactorizerTest {
+
+	@Test
+	void factorsSingleOutputs() {
+		Random random = new Random(83);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			for (Minimizer.Mode mode : Minimizer.Mode.values()) {
+				Minimizer minimizer = new Minimizer(engine).withMode(mode);
+				for (int i = 0; i < 100; i++) {
+					int numVars = 1 + random.nextInt(6);
+					TruthTable table = TestFunctions.randomTable(numVars, 0.2 + 0.6 * random.nextDouble(), random);
+					TruthTable dontCares = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+					MinimizationResult result = minimizer.minimize(table, dontCares, Minimizer.getDefaultVars(numVars));
+					FactoredNetwork network = minimizer.factor(result);
+					assertEquals(result.isProductOfSums(), network.isProductOfSums());
+					assertEquals(result.getNumLiterals(), network.getNumFlatLiterals());
+					assertTrue(network.getNumLiterals() <= network.getNumFlatLiterals(), network.toString());
+					for (int row = 0; row < table.getNumRows(); row++) {
+						if (dontCares == null || !dontCares.get(row)) {
+							assertEquals(table.get(row), network.evaluate(0, row), engine + " " + mode + ": " + network);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void factorsMultipleOutputs() {
+		Random random = new Random(89);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer minimizer = new Minimizer(engine);
+			for (int i = 0; i < 100; i++) {
+				int numVars = 2 + random.nextInt(5);
+				int numOutputs = 2 + random.nextInt(3);
+				TruthTable[] tables = new TruthTable[numOutputs];
+				TruthTable[] dontCares = new TruthTable[numOutputs];
+				for (int k = 0; k < numOutputs; k++) {
+					tables[k] = TestFunctions.randomTable(numVars, 0.5, random);
+					dontCares[k] = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+				}
+				MultiOutputResult result = minimizer.minimizeOutputs(tables, dontCares, Minimizer.getDefaultVars(numVars));
+				FactoredNetwork network = minimizer.factor(result);
+				assertEquals(numOutputs, network.getNumOutputs());
+				assertTrue(network.getNumLiterals() <= network.getNumFlatLiterals(), network.toString());
+				for (int k = 0; k < numOutputs; k++) {
+					for (int row = 0; row < tables[k].getNumRows(); row++) {
+						if (dontCares[k] == null || !dontCares[k].get(row)) {
+							assertEquals(tables[k].get(row), network.evaluate(k, row), engine + ": " + network);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// ac + b'c + d and ad' + b'd' both divide by a + b', which is extracted once for the two
+	@Test
+	void sharesACommonKernel() {
+		List<List<String>> outputs = Arrays.asList(Arrays.asList("1-1-", "-01-", "---1"), Arrays.asList("1--0", "-0-0"));
+		FactoredNetwork network = Factorizer.factor(outputs, Minimizer.getDefaultVars(4), false);
+		assertEquals("t1 = a + b'\nf1 = d + ct1\nf2 = d't1\n", network.toString());
+		assertEquals(9, network.getNumFlatLiterals());
+		assertEquals(7, network.getNumLiterals());
+		assertEquals(7, network.getNumFlatGates());
+		assertEquals(4, network.getNumGates());
+
+		// a product of sums is factored through its complement and dualized
+		MinimizationResult result = new Minimizer().withMode(Minimizer.Mode.POS).minimize("ab + ac + bc");
+		assertEquals("(a + b)(a + c)(b + c)", result.getReducedExpression());
+		assertEquals("f = (a + bc)(b + c)\n", Factorizer.factor(result).toString());
+	}
+}
@@ -0,0 +1,85 @@
+// Checks the LatencyHistogram buckets: they are contiguous from 0 to Long.MAX_VALUE, each reports a
+// value within 1/32 of it, and the percentiles, exact statistics and reset follow the values
+// recorded, from several threads at once too.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class LatencyHistogramTest {
+
+	@Test
+	void bucketsAreContiguous() {
+		assertEquals(0, LatencyHistogram.getBucket(0));
+		for (int b = 0; b + 1 < LatencyHistogram.NUM_BUCKETS; b++) {
+			long upper = LatencyHistogram.getBucketUpperBound(b);
+			assertEquals(b, LatencyHistogram.getBucket(upper), "bucket " + b);
+			assertEquals(b + 1, LatencyHistogram.getBucket(upper + 1), "bucket " + b);
+		}
+		int top = LatencyHistogram.NUM_BUCKETS - 1;
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketUpperBound(top));
+		assertEquals(top, LatencyHistogram.getBucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	void bucketsAreWithinThreePercent() {
+		Random random = new Random(89);
+		for (int i = 0; i < 100000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+			long upper = LatencyHistogram.getBucketUpperBound(LatencyHistogram.getBucket(value));
+			assertTrue(upper >= value, value + " -> " + upper);
+			if (value < 64) {
+				assertEquals(value, upper);
+			} else {
+				assertTrue(upper - value <= value / 32, value + " -> " + upper);
+			}
+		}
+	}
+
+	@Test
+	void percentilesFollowTheValues() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(0, histogram.getMin());
+		for (long v = 1000; v >= 1; v--) {
+			histogram.record(v);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1, histogram.getMin());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500.5, histogram.getMean(), 1e-9);
+		for (double percentile : new double[] { 0.1, 50, 90, 99, 99.9 }) {
+			long exact = (long)Math.ceil(percentile * 10);
+			long upper = LatencyHistogram.getBucketUpperBound(LatencyHistogram.getBucket(exact));
+			assertEquals(Math.min(upper, 1000), histogram.getValueAtPercentile(percentile), "p" + percentile);
+		}
+		assertEquals(1000, histogram.getValueAtPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		histogram.record(-5);
+		assertEquals(0, histogram.getMax());
+		assertEquals(1, histogram.getCount());
+
+		// recording is lock-free, so concurrent values are all counted
+		LatencyHistogram shared = new LatencyHistogram();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++) {
+					shared.record(i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(40000, shared.getCount());
+		assertEquals(9999, shared.getMax());
+		assertEquals(4999.5, shared.getMean(), 1e-9);
+	}
+}
@@ -0,0 +1,113 @@
+// Checks what a MetricsRegistry receives from a Minimizer: every stage of an exact, a heuristic and a
+// multi-output minimization, counts that match the results, and per-level combine counts equal to
+// those QuineMcCluskey collects itself. Also checks reset and reading the registry over JMX.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.*;
+import java.util.*;
+import javax.management.*;
+import org.junit.jupiter.api.*;
+
+class MetricsRegistryTest {
+
+	@Test
+	void reportsEveryStage() {
+		MetricsRegistry metrics = new MetricsRegistry();
+		Minimizer minimizer = new Minimizer().withListener(metrics);
+
+		// a cyclic function, so the cover solver runs after the essentials
+		MinimizationResult result = minimizer.minimize("a'b' + bc' + ac");
+		for (MinimizationListener.Stage stage : new MinimizationListener.Stage[] { MinimizationListener.Stage.TRUTH_TABLE,
+				MinimizationListener.Stage.PRIME_IMPLICANTS, MinimizationListener.Stage.ESSENTIALS, MinimizationListener.Stage.COVER,
+				MinimizationListener.Stage.TOTAL }) {
+			assertEquals(1, metrics.getHistogram(stage).getCount(), stage.toString());
+		}
+		assertEquals(0, metrics.getHistogram(MinimizationListener.Stage.HEURISTIC).getCount());
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.MINIMIZATIONS));
+		assertEquals(8, metrics.getCount(MinimizationListener.Counter.ROWS_EVALUATED));
+		assertEquals(result.getPrimeImplicants().size(), metrics.getCount(MinimizationListener.Counter.PRIME_IMPLICANTS));
+		assertEquals(0, metrics.getCount(MinimizationListener.Counter.ESSENTIAL_PRIME_IMPLICANTS));
+		assertEquals(6, metrics.getCount(MinimizationListener.Counter.COVER_CANDIDATES));
+		assertTrue(metrics.getCount(MinimizationListener.Counter.COVER_SEARCH_NODES) > 0);
+		assertTrue(metrics.getHistogram(MinimizationListener.Stage.TOTAL).getMax()
+			>= metrics.getHistogram(MinimizationListener.Stage.PRIME_IMPLICANTS).getMax());
+
+		new Minimizer(Minimizer.Engine.HEURISTIC).withListener(metrics).minimize("ab + a'c + bc");
+		assertEquals(1, metrics.getHistogram(MinimizationListener.Stage.HEURISTIC).getCount());
+		assertTrue(metrics.getCount(MinimizationListener.Counter.ESPRESSO_ITERATIONS) > 0);
+		assertEquals(2, metrics.getCount(MinimizationListener.Counter.MINIMIZATIONS));
+
+		// a multi-output minimization counts once, with one joint prime and cover stage
+		metrics.reset();
+		minimizer.minimizeOutputs(Arrays.asList("a'b'c + a'bc'", "a'b' + a'c' + b'c'"));
+		for (MinimizationListener.Stage stage : new MinimizationListener.Stage[] { MinimizationListener.Stage.TRUTH_TABLE,
+				MinimizationListener.Stage.PRIME_IMPLICANTS, MinimizationListener.Stage.COVER, MinimizationListener.Stage.TOTAL }) {
+			assertEquals(1, metrics.getHistogram(stage).getCount(), stage.toString());
+		}
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.MINIMIZATIONS));
+		assertEquals(16, metrics.getCount(MinimizationListener.Counter.ROWS_EVALUATED));
+		assertTrue(metrics.getCount(MinimizationListener.Counter.COVER_SEARCH_NODES) > 0);
+
+		// cache lookups are counted on the cached minimizer's listener
+		metrics.reset();
+		Minimizer cached = minimizer.withCache(new ResultCache(16, false));
+		cached.minimize("ab + c");
+		cached.minimize("c + ab");
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.CACHE_MISSES));
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.CACHE_HITS));
+		assertEquals(2, metrics.getCount(MinimizationListener.Counter.MINIMIZATIONS));
+	}
+
+	@Test
+	void reportsTheCombineCountsOfEveryLevel() {
+		Random random = new Random(97);
+		MetricsRegistry metrics = new MetricsRegistry();
+		Minimizer minimizer = new Minimizer().withListener(metrics);
+		long[][] expected = new long[MetricsRegistry.MAX_LEVELS][3];
+		for (int i = 0; i < 50; i++) {
+			int numVars = 2 + random.nextInt(5);
+			TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+			TruthTable dontCares = TestFunctions.randomTable(numVars, 0.1, random).andNot(table);
+			minimizer.minimize(table, dontCares, Minimizer.getDefaultVars(numVars));
+
+			QuineMcCluskey qm = new QuineMcCluskey(numVars, table.getMinterms(), dontCares.getMinterms());
+			qm.setCollectStats(true);
+			qm.findPrimeImplicants();
+			long[][] levels = qm.getLevelStats();
+			if (levels.length > 0) { assertEquals(table.getNumMinterms() + dontCares.getNumMinterms(), levels[0][0]); }
+			for (int level = 0; level < levels.length; level++) {
+				for (int k = 0; k < 3; k++) {
+					expected[level][k] += levels[level][k];
+				}
+			}
+		}
+		ArrayList<String> lines = new ArrayList<String>();
+		for (int level = 0; level < expected.length; level++) {
+			if (expected[level][0] == 0) { continue; }
+			lines.add("level " + level + ": cubes=" + expected[level][0] + " attempts=" + expected[level][1] + " successes=" + expected[level][2]);
+		}
+		assertEquals(lines, metrics.getCombineLevels());
+		assertTrue(metrics.toString().contains(lines.get(0) + "\n"));
+	}
+
+	@Test
+	void registersOverJmx() throws Exception {
+		MetricsRegistry metrics = new MetricsRegistry();
+		new Minimizer().withListener(metrics).minimize("ab + c");
+		ObjectName name = metrics.register();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			@SuppressWarnings("unchecked")
+			Map<String, Long> counters = (Map<String, Long>)server.getAttribute(name, "Counters");
+			assertEquals(1L, counters.get("MINIMIZATIONS").longValue());
+			assertTrue(((Map<?, ?>)server.getAttribute(name, "StageLatencies")).containsKey("TOTAL"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0, metrics.getCount(MinimizationListener.Counter.MINIMIZATIONS));
+			assertTrue(metrics.getCombineLevels().isEmpty());
+			assertEquals("", metrics.toString());
+		} finally {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+// Checks the budget fallbacks: once a limit runs out, single- and multi-output minimizations still
+// return covers of their functions, marked as not minimal, are not cached, and are reported as such
+// in batch records; and an unlimited or generous budget changes nothing.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+class MinimizationBudgetTest {
+
+	// a cyclic function, rows 0, 1, 2, 5, 6 and 7: six primes, every minterm in two of them and none
+	// essential
+	private static final String CYCLIC = "a'b' + bc' + ac";
+
+	@Test
+	void validatesLimits() {
+		assertTrue(MinimizationBudget.UNLIMITED.isUnlimited());
+		assertEquals(0, MinimizationBudget.UNLIMITED.getDeadline());
+		assertFalse(MinimizationBudget.UNLIMITED.withMaxPrimeImplicants(10).isUnlimited());
+		assertThrows(IllegalArgumentException.class, () -> MinimizationBudget.UNLIMITED.withMaxPetrickProductSize(-1));
+	}
+
+	@Test
+	void primeImplicantLimitFallsBack() {
+		checkFallback(MinimizationBudget.UNLIMITED.withMaxPrimeImplicants(2), CoverSolver.Method.BRANCH_AND_BOUND, true);
+	}
+
+	@Test
+	void timeLimitFallsBack() {
+		checkFallback(MinimizationBudget.UNLIMITED.withTimeLimit(1, TimeUnit.NANOSECONDS), CoverSolver.Method.BRANCH_AND_BOUND, true);
+	}
+
+	// the joint cover of several outputs is always found by branch and bound, so only single outputs
+	// run out of this one
+	@Test
+	void petrickLimitFallsBack() {
+		checkFallback(MinimizationBudget.UNLIMITED.withMaxPetrickProductSize(1), CoverSolver.Method.PETRICK, false);
+	}
+
+	@Test
+	void generousBudgetChangesNothing() {
+		Minimizer budgeted = new Minimizer().withBudget(MinimizationBudget.UNLIMITED.withTimeLimit(1, TimeUnit.MINUTES)
+			.withMaxPrimeImplicants(1 << 20).withMaxPetrickProductSize(1 << 20));
+		Random random = new Random(37);
+		for (int i = 0; i < 100; i++) {
+			TruthTable table = TestFunctions.randomTable(5, 0.5, random);
+			List<String> vars = Minimizer.getDefaultVars(5);
+			MinimizationResult result = budgeted.minimize(table, vars);
+			assertTrue(result.isMinimal());
+			TestFunctions.assertSameResult(new Minimizer().minimize(table, vars), result);
+		}
+	}
+
+	@Test
+	void exceededResultsAreNotCached() {
+		ResultCache cache = new ResultCache(16, true);
+		Minimizer minimizer = new Minimizer().withCache(cache).withBudget(MinimizationBudget.UNLIMITED.withMaxPrimeImplicants(2));
+		assertTrue(minimizer.minimize(CYCLIC).isBudgetExceeded());
+		assertEquals(0, cache.size());
+		assertFalse(minimizer.minimize("ab").isBudgetExceeded());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void batchRecordsSayWhetherMinimal() {
+		Minimizer minimizer = new Minimizer().withBudget(MinimizationBudget.UNLIMITED.withMaxPrimeImplicants(2));
+		BatchMinimizer tsv = new BatchMinimizer(minimizer, 1, 1, BatchMinimizer.Format.TSV);
+		BatchMinimizer ndjson = new BatchMinimizer(minimizer, 1, 1, BatchMinimizer.Format.NDJSON);
+
+		String[] exceeded = tsv.formatResult(1, CYCLIC, minimizer.minimize(CYCLIC)).split("\t");
+		assertEquals(7, exceeded.length);
+		assertEquals("false", exceeded[6]);
+		String[] minimal = tsv.formatResult(2, "ab", minimizer.minimize("ab")).split("\t");
+		assertEquals(7, minimal.length);
+		assertEquals("true", minimal[6]);
+		assertTrue(ndjson.formatResult(1, CYCLIC, minimizer.minimize(CYCLIC)).contains("\"minimal\":false"));
+		assertFalse(ndjson.formatResult(2, "ab", minimizer.minimize("ab")).contains("\"minimal\""));
+
+		List<String> outputs = Arrays.asList(CYCLIC, "a'c + bd");
+		String[] multi = tsv.formatResult(3, String.join("; ", outputs), minimizer.minimizeOutputs(outputs)).split("\t");
+		assertEquals(7, multi.length);
+		assertEquals("false", multi[6]);
+	}
+
+	// minimizes random and cyclic single- and multi-output functions under the budget, which must run
+	// out on some of them, on some multi-output ones too if multiOutputExceeds
+	private static void checkFallback(MinimizationBudget budget, CoverSolver.Method method, boolean multiOutputExceeds) {
+		Minimizer minimizer = new Minimizer(Minimizer.Engine.EXACT, method).withBudget(budget);
+		Random random = new Random(41);
+		int numExceeded = 0;
+		int numMultiExceeded = 0;
+		for (int i = 0; i < 50; i++) {
+			int numVars = 3 + random.nextInt(4);
+			TruthTable table = (i > 0) ? TestFunctions.randomTable(numVars, 0.5, random)
+				: TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(CYCLIC), Minimizer.getDefaultVars(3)));
+			TruthTable dontCares = TestFunctions.randomTable(table.getNumVars(), 0.1, random).andNot(table);
+			MinimizationResult result = minimizer.minimize(table, dontCares, Minimizer.getDefaultVars(table.getNumVars()));
+			assertEquals(result.isBudgetExceeded(), !result.isMinimal());
+			if (result.isBudgetExceeded()) { numExceeded++; }
+			for (List<String> solution : result.getSolutions()) {
+				TestFunctions.assertCovers(solution, table, dontCares);
+			}
+
+			TruthTable second = TestFunctions.randomTable(table.getNumVars(), 0.5, random);
+			MultiOutputResult multi = minimizer.minimizeOutputs(new TruthTable[] { table, second }, new TruthTable[] { dontCares, null },
+				Minimizer.getDefaultVars(table.getNumVars()));
+			assertEquals(multi.isBudgetExceeded(), !multi.isMinimal());
+			if (multi.isBudgetExceeded()) { numMultiExceeded++; }
+			TestFunctions.assertCovers(multi.getImplicants(0), table, dontCares);
+			TestFunctions.assertCovers(multi.getImplicants(1), second, null);
+		}
+		assertTrue(numExceeded > 0);
+		assertEquals(multiOutputExceeds, numMultiExceeded > 0);
+	}
+}
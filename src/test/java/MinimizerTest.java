@@ -0,0 +1,91 @@
+// Checks the Minimizer API: its entry points agree with each other, don't-cares included, every
+// reduced expression of both engines is the function it was minimized from on the rows that are not
+// don't-cares, and one instance shared by several threads gives each of them the result it gives a
+// single caller.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+class MinimizerTest {
+
+	@Test
+	void entryPointsAgree() {
+		Minimizer minimizer = new Minimizer();
+		Random random = new Random(43);
+		for (int i = 0; i < 100; i++) {
+			int numVars = 1 + random.nextInt(6);
+			ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+			String expr = TestFunctions.randomExpression(vars, random, 2, true);
+			MinimizationResult fromExpr = minimizer.minimize(expr);
+			TruthTable table = fromExpr.getTruthTable();
+			TestFunctions.assertSameResult(fromExpr, minimizer.minimize(table, fromExpr.getVars()));
+			if (fromExpr.getNumVars() == numVars) {
+				TestFunctions.assertSameResult(fromExpr, minimizer.minimize(table.getMinterms(), numVars));
+			}
+		}
+		for (int i = 0; i < 100; i++) {
+			ArrayList<String> vars = Minimizer.getDefaultVars(4);
+			String expr = TestFunctions.randomExpression(vars, random, 2, true) + "+abcd | " + TestFunctions.randomExpression(vars, random, 1, false)
+				+ "+a'b'c'd'";
+			MinimizationResult fromExpr = minimizer.minimize(expr);
+			assertEquals(vars, fromExpr.getVars());
+			TruthTable table = fromExpr.getTruthTable();
+			TruthTable dontCares = fromExpr.getDontCareTable();
+			assertEquals(table, table.andNot(dontCares), expr);
+			TestFunctions.assertSameResult(fromExpr, minimizer.minimize(table, dontCares, vars));
+			TestFunctions.assertSameResult(fromExpr, minimizer.minimize(table.getMinterms(), dontCares.getMinterms(), 4));
+		}
+		assertThrows(IllegalArgumentException.class, () -> minimizer.minimize(new int[] { 8 }, 3));
+		assertThrows(IllegalArgumentException.class, () -> minimizer.minimize(new int[] { 1 }, new int[] { 8 }, 3));
+		assertThrows(IllegalArgumentException.class, () -> minimizer.minimize(new TruthTable(3), Minimizer.getDefaultVars(2)));
+	}
+
+	@Test
+	void reducedExpressionsAreTheFunction() {
+		Random random = new Random(47);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer minimizer = new Minimizer(engine);
+			for (int i = 0; i < 200; i++) {
+				int numVars = 1 + random.nextInt(7);
+				ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+				TruthTable table = TruthTable.fromExpression(new BooleanExpression(TestFunctions.randomExpression(vars, random, 2, true), vars));
+				TruthTable dontCares = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+				MinimizationResult result = minimizer.minimize(table, dontCares, vars);
+				for (String reduced : result.getReducedExpressions()) {
+					TruthTable reducedTable = TestFunctions.truthTable(reduced, vars);
+					if (dontCares != null) {
+						reducedTable = reducedTable.andNot(dontCares);
+						table = table.andNot(dontCares);
+					}
+					assertEquals(table, reducedTable, reduced);
+				}
+				assertEquals(result.getNumLiterals(), MinimizationResult.getNumLiterals(result.getImplicants()));
+			}
+		}
+	}
+
+	@Test
+	void instancesAreSharedBetweenThreads() throws Exception {
+		Minimizer minimizer = new Minimizer();
+		Random random = new Random(53);
+		ArrayList<TruthTable> tables = new ArrayList<TruthTable>();
+		for (int i = 0; i < 200; i++) {
+			tables.add(TestFunctions.randomTable(5, 0.5, random));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ArrayList<Future<MinimizationResult>> futures = new ArrayList<Future<MinimizationResult>>();
+			for (TruthTable table : tables) {
+				futures.add(executor.submit(() -> minimizer.minimize(table, Minimizer.getDefaultVars(5))));
+			}
+			for (int i = 0; i < tables.size(); i++) {
+				TestFunctions.assertSameResult(new Minimizer().minimize(tables.get(i), Minimizer.getDefaultVars(5)), futures.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
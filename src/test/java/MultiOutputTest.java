@@ -0,0 +1,53 @@
+// Checks multi-output minimization on both engines: the product terms each output sums cover its
+// function exactly off its don't-cares and are among the distinct product terms, and a pair of
+// functions that can share a non-prime term is built from fewer distinct terms than minimizing each
+// output alone gives.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class MultiOutputTest {
+
+	@Test
+	void eachOutputCoversItsFunction() {
+		Random random = new Random(61);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer minimizer = new Minimizer(engine);
+			for (int i = 0; i < 200; i++) {
+				int numVars = 1 + random.nextInt(5);
+				int numOutputs = 1 + random.nextInt(4);
+				TruthTable[] tables = new TruthTable[numOutputs];
+				TruthTable[] dontCares = new TruthTable[numOutputs];
+				for (int k = 0; k < numOutputs; k++) {
+					tables[k] = TestFunctions.randomTable(numVars, 0.5, random);
+					dontCares[k] = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+				}
+				MultiOutputResult result = minimizer.minimizeOutputs(tables, dontCares, Minimizer.getDefaultVars(numVars));
+				assertEquals(numOutputs, result.getNumOutputs());
+				assertEquals(new HashSet<String>(result.getProductTerms()).size(), result.getNumProductTerms());
+				for (int k = 0; k < numOutputs; k++) {
+					assertTrue(result.getProductTerms().containsAll(result.getImplicants(k)));
+					TestFunctions.assertCovers(result.getImplicants(k), tables[k], dontCares[k]);
+				}
+			}
+		}
+	}
+
+	// alone the outputs take a'b'c + a'bc' and a'b' + a'c' + b'c', five distinct terms; together the
+	// second reuses the first's two and adds b'c'
+	@Test
+	void sharedTermsSaveProductTerms() {
+		Minimizer minimizer = new Minimizer();
+		List<String> exprs = Arrays.asList("a'b'c + a'bc'", "a'b' + a'c' + b'c'");
+		MultiOutputResult result = minimizer.minimizeOutputs(exprs);
+		HashSet<String> separate = new HashSet<String>();
+		for (String expr : exprs) {
+			separate.addAll(minimizer.minimize(expr).getImplicants());
+		}
+		assertEquals(5, separate.size());
+		assertEquals(3, result.getNumProductTerms());
+		assertEquals(Arrays.asList("a'b'c + a'bc'", "a'b'c + a'bc' + b'c'"), result.getReducedExpressions());
+	}
+}
@@ -0,0 +1,151 @@
+// Checks PlaReader: which sets each .type counts (fr turning the rows given neither way into
+// don't-cares), the output characters for the don't-care and no set, the output column a single
+// output may leave out, a cube line straddling the 64KB read buffer, malformed descriptions, and
+// that the .pla text ExpressionFormatter writes reads back as the function, products of sums (.type
+// r) and several outputs included.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class PlaReaderTest {
+
+	// rows 6 and 7 on, row 0 off and row 1 a don't-care; rows 2 to 5 are given neither way
+	private static final String CUBES = ".i 3\n.o 1\n%s11- 1\n000 0\n001 -\n.e\n";
+
+	@Test
+	void readsEachType() {
+		checkType("", rows(3, 6, 7), rows(3, 1));
+		checkType("f", rows(3, 6, 7), rows(3));
+		checkType("fd", rows(3, 6, 7), rows(3, 1));
+		checkType("r", rows(3, 1, 2, 3, 4, 5, 6, 7), rows(3));
+		checkType("fr", rows(3, 6, 7), rows(3, 1, 2, 3, 4, 5));
+		checkType("dr", rows(3, 2, 3, 4, 5, 6, 7), rows(3, 1));
+		checkType("fdr", rows(3, 6, 7), rows(3, 1, 2, 3, 4, 5));
+	}
+
+	@Test
+	void readsOutputCharacters() {
+		PlaDescription pla = PlaReader.parse(".i 2\n.o 3\n.ilb x y\n.ob p q r\n1- 1~-\n01 4|3|2\n00 ~ 1 0\n.e\n");
+		assertEquals(Arrays.asList("x", "y"), pla.getInputLabels());
+		assertEquals(Arrays.asList("p", "q", "r"), pla.getOutputLabels());
+		assertEquals(rows(2, 1, 2, 3), TruthTable.fromCover(pla.getOnSet(0)));
+		assertEquals(rows(2), TruthTable.fromCover(pla.getDontCareSet(0)));
+		assertEquals(rows(2, 0), TruthTable.fromCover(pla.getOnSet(1)));
+		assertEquals(rows(2), TruthTable.fromCover(pla.getDontCareSet(1)));
+		assertEquals(rows(2), TruthTable.fromCover(pla.getOnSet(2)));
+		assertEquals(rows(2, 1, 2, 3), TruthTable.fromCover(pla.getDontCareSet(2)));
+	}
+
+	@Test
+	void readsCubesWithoutOutputColumn() {
+		PlaDescription pla = PlaReader.parse(".i 3\n101\n11-  # comment\n\n.e\n");
+		assertEquals(Arrays.asList("f"), pla.getOutputLabels());
+		assertEquals(rows(3, 5, 6, 7), TruthTable.fromCover(pla.getOnSet(0)));
+
+		// a split cube is read as inputs and outputs, so 11 1 is two inputs short of an output
+		assertThrows(IllegalArgumentException.class, () -> PlaReader.parse(".i 3\n.o 1\n11 1\n.e\n"));
+		assertEquals(rows(3, 6, 7), TruthTable.fromCover(PlaReader.parse(".i 3\n.o 1\n1 1 - 1\n.e\n").getOnSet(0)));
+	}
+
+	@Test
+	void readsAcrossTheBuffer(@TempDir Path dir) throws IOException {
+		Random random = new Random(43);
+		int numInputs = 20;
+		StringBuilder text = new StringBuilder(".i " + numInputs + "\n.o 1\n");
+		ArrayList<String> cubes = new ArrayList<String>();
+		boolean straddles = false;
+		while (text.length() < 3 << 16) {
+			StringBuilder cube = new StringBuilder();
+			for (int v = 0; v < numInputs; v++) {
+				cube.append("01-".charAt(random.nextInt(3)));
+			}
+			cubes.add(cube.toString());
+			int start = text.length();
+			text.append(cube).append(" 1\r\n");
+			if (start < 1 << 16 && text.length() > 1 << 16) { straddles = true; }
+		}
+		assertTrue(straddles);
+		text.append(".e\n");
+
+		Path path = dir.resolve("large.pla");
+		Files.write(path, text.toString().getBytes(StandardCharsets.US_ASCII));
+		for (PlaDescription pla : new PlaDescription[] { PlaReader.read(path), PlaReader.parse(text.toString()) }) {
+			assertEquals(cubes, pla.getOnSet(0).toBitStrings());
+			assertEquals(0, pla.getDontCareSet(0).size());
+		}
+	}
+
+	@Test
+	void rejectsMalformed() {
+		String[] malformed = {
+			".i 3\n1x1 1\n",			// bad input character
+			".i 3\n101 x\n",			// bad output character
+			"101 1\n",					// no .i before the cube
+			".o 1\n",					// no .i at all
+			".i 64\n",					// more inputs than a cube holds
+			".i 3\n.o 2\n101 1\n",		// an output missing
+			".i 3\n.o 1\n101 11\n",		// an output too many
+			".i 2\n.type x\n",
+			".i 2\n.mv 3 2 4\n",
+			".i 2\n.ilb a\n",
+		};
+		for (String text : malformed) {
+			assertThrows(IllegalArgumentException.class, () -> PlaReader.parse(text), text);
+		}
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PlaReader.parse(".i 3\n\n1x1 1\n"));
+		assertTrue(e.getMessage().startsWith("PLA line 3: "), e.getMessage());
+	}
+
+	@Test
+	void readsWhatTheFormatterWrites() throws IOException {
+		Random random = new Random(47);
+		for (Minimizer.Mode mode : new Minimizer.Mode[] { Minimizer.Mode.SOP, Minimizer.Mode.POS }) {
+			Minimizer minimizer = new Minimizer().withMode(mode);
+			for (int i = 0; i < 100; i++) {
+				int numVars = 1 + random.nextInt(6);
+				List<String> vars = Minimizer.getDefaultVars(numVars);
+				TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+				TruthTable dontCares = TestFunctions.randomTable(numVars, 0.2, random).andNot(table);
+				MinimizationResult result = minimizer.minimize(table, dontCares, vars);
+				StringBuilder sb = new StringBuilder();
+				ExpressionFormatter.append(sb, result, ExpressionFormatter.Form.PLA);
+				assertEquals(mode == Minimizer.Mode.POS, sb.indexOf(".type r\n") >= 0);
+
+				PlaDescription pla = PlaReader.parse(sb.toString());
+				assertEquals(vars, pla.getInputLabels());
+				assertEquals(table, TruthTable.fromCover(pla.getOnSet(0)).andNot(dontCares), sb.toString());
+			}
+		}
+
+		MultiOutputResult outputs = new Minimizer().minimizeOutputs(Arrays.asList("a'b'c + a'bc'", "a'b' + a'c' + b'c'", "ab + c"));
+		StringBuilder sb = new StringBuilder();
+		ExpressionFormatter.appendPla(sb, outputs);
+		PlaDescription pla = PlaReader.parse(sb.toString());
+		assertEquals(3, pla.getNumOutputs());
+		for (int k = 0; k < 3; k++) {
+			assertEquals(outputs.getTruthTable(k), TruthTable.fromCover(pla.getOnSet(k)));
+		}
+	}
+
+	// reads CUBES with the given .type ("" for none) and checks its on-set and don't-cares
+	private static void checkType(String type, TruthTable onSet, TruthTable dontCares) {
+		PlaDescription pla = PlaReader.parse(String.format(CUBES, type.isEmpty() ? "" : ".type " + type + "\n"));
+		assertEquals(onSet, TruthTable.fromCover(pla.getOnSet(0)), type);
+		assertEquals(dontCares, TruthTable.fromCover(pla.getDontCareSet(0)), type);
+	}
+
+	// returns the table of numVars variables true on the rows
+	private static TruthTable rows(int numVars, int... rows) {
+		TruthTable ret = new TruthTable(numVars);
+		for (int row : rows) {
+			ret.set(row, true);
+		}
+		return ret;
+	}
+}
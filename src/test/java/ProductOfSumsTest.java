@@ -0,0 +1,82 @@
+// Checks the POS and AUTO modes on both engines, don't-cares included: a product of sums is the
+// function off the don't-cares, its sums covering exactly the rows that are neither minterms nor
+// don't-cares, and AUTO keeps whichever of the sum of products and the product of sums has fewer
+// literals (then fewer terms, the sum of products on a tie).
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class ProductOfSumsTest {
+
+	@Test
+	void productsOfSumsAreTheFunction() {
+		Random random = new Random(71);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer minimizer = new Minimizer(engine).withMode(Minimizer.Mode.POS);
+			for (int i = 0; i < 200; i++) {
+				int numVars = 1 + random.nextInt(6);
+				ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+				TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+				TruthTable dontCares = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+				MinimizationResult result = minimizer.minimize(table, dontCares, vars);
+				assertTrue(result.isProductOfSums());
+				TestFunctions.assertCovers(result.getImplicants(), table.complement(), dontCares);
+				TruthTable expected = (dontCares == null) ? table : table.andNot(dontCares);
+				TruthTable actual = TestFunctions.truthTable(result.getReducedExpression(), vars);
+				if (dontCares != null) { actual = actual.andNot(dontCares); }
+				assertEquals(expected, actual, engine + ": " + result.getReducedExpression());
+			}
+		}
+	}
+
+	// the heuristic engine complements the covers of expressions without a truth table
+	@Test
+	void heuristicExpressionsGiveProductsOfSums() {
+		Random random = new Random(73);
+		Minimizer minimizer = new Minimizer(Minimizer.Engine.HEURISTIC).withMode(Minimizer.Mode.POS);
+		for (int i = 0; i < 200; i++) {
+			ArrayList<String> vars = Minimizer.getDefaultVars(4);
+			String expr = TestFunctions.randomExpression(vars, random, 2, true) + "+abcd";
+			String dcExpr = (i % 2 == 0) ? null : TestFunctions.randomExpression(vars, random, 1, false) + "+a'b'c'd'";
+			MinimizationResult result = minimizer.minimize((dcExpr == null) ? expr : expr + " | " + dcExpr);
+			assertFalse(result.hasTruthTable());
+			TruthTable table = TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(expr), vars));
+			TruthTable dontCares = (dcExpr == null) ? null : TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(dcExpr), vars));
+			TestFunctions.assertCovers(result.getImplicants(), table.complement(), dontCares);
+		}
+	}
+
+	@Test
+	void autoKeepsTheCheaperForm() {
+		Random random = new Random(79);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer sopMinimizer = new Minimizer(engine);
+			Minimizer posMinimizer = sopMinimizer.withMode(Minimizer.Mode.POS);
+			Minimizer autoMinimizer = sopMinimizer.withMode(Minimizer.Mode.AUTO);
+			int numPos = 0;
+			for (int i = 0; i < 200; i++) {
+				int numVars = 1 + random.nextInt(6);
+				ArrayList<String> vars = Minimizer.getDefaultVars(numVars);
+				TruthTable table = TestFunctions.randomTable(numVars, 0.2 + 0.6 * random.nextDouble(), random);
+				TruthTable dontCares = (i % 2 == 0) ? null : TestFunctions.randomTable(numVars, 0.2, random);
+				MinimizationResult sop = sopMinimizer.minimize(table, dontCares, vars);
+				MinimizationResult pos = posMinimizer.minimize(table, dontCares, vars);
+				MinimizationResult auto = autoMinimizer.minimize(table, dontCares, vars);
+				boolean posCheaper = pos.getNumLiterals() < sop.getNumLiterals()
+					|| (pos.getNumLiterals() == sop.getNumLiterals() && pos.getNumCubes() < sop.getNumCubes());
+				TestFunctions.assertSameResult(posCheaper ? pos : sop, auto);
+				if (posCheaper) { numPos++; }
+			}
+			assertTrue(numPos > 0, engine.toString());
+		}
+
+		// a'b'c' is one product of three literals or three sums of one, a + b + c the other way round
+		Minimizer minimizer = new Minimizer().withMode(Minimizer.Mode.AUTO);
+		assertFalse(minimizer.minimize("a'b'c'").isProductOfSums());
+		MinimizationResult result = minimizer.minimize("a + b + c");
+		assertTrue(result.isProductOfSums());
+		assertEquals("(a + b + c)", result.getReducedExpression());
+	}
+}
@@ -0,0 +1,340 @@
+// Checks the packed-cube engine against brute force: the prime implicants against every maximal
+// implicant of the function, the essentials against the primes that alone cover some minterm, and
+// the covers CoverSolver picks, by branch and bound and by Petrick's method, against every
+// minimum-cost cover found by an exhaustive search, on every function of up to 3 variables (don't-cares
+// included) and random ones of 4 and 5; on sparse functions of 20 variables, that every prime is an
+// implicant no literal can be dropped from; Petrick's expansion against every irredundant cover of
+// random coverage tables; that combining the levels in parallel finds the primes the sequential
+// loop does, in the same order; and that a row given as both a minterm and a don't-care is a
+// don't-care.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+class QuineMcCluskeyTest {
+
+	// every function of up to 3 variables, each row true, false or a don't-care
+	@Test
+	void smallFunctionsHaveThePrimes() {
+		for (int numVars = 1; numVars <= 3; numVars++) {
+			int numRows = 1 << numVars;
+			int numFunctions = (int)Math.pow(3, numRows);
+			for (int f = 0; f < numFunctions; f++) {
+				TruthTable table = new TruthTable(numVars);
+				TruthTable dontCares = new TruthTable(numVars);
+				int rest = f;
+				for (int row = 0; row < numRows; row++) {
+					table.set(row, rest % 3 == 1);
+					dontCares.set(row, rest % 3 == 2);
+					rest /= 3;
+				}
+				checkFunction(table, dontCares);
+			}
+		}
+	}
+
+	@Test
+	void randomFunctionsHaveThePrimes() {
+		Random random = new Random(3);
+		for (int i = 0; i < 400; i++) {
+			int numVars = (i < 300) ? 4 : 5;
+			TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+			TruthTable dontCares = TestFunctions.randomTable(numVars, (i % 2 == 0) ? 0 : 0.2, random).andNot(table);
+			checkFunction(table, dontCares);
+		}
+	}
+
+	@Test
+	void largeFunctionsHavePrimes() {
+		Random random = new Random(7);
+		for (int i = 0; i < 3; i++) {
+			int[] minterms = new int[2000];
+			for (int m = 0; m < minterms.length; m++) {
+				minterms[m] = random.nextInt(1 << 20);
+			}
+			minterms = Arrays.stream(minterms).distinct().toArray();
+			QuineMcCluskey qm = new QuineMcCluskey(20, minterms);
+			HashSet<Integer> onSet = new HashSet<Integer>();
+			for (int mt : minterms) {
+				onSet.add(mt);
+			}
+			for (long prime : qm.findPrimeImplicants()) {
+				assertTrue(isImplicant(prime, onSet), Cube.toBitString(prime, 20));
+				for (int bit = 0; bit < 20; bit++) {
+					if ((Cube.mask(prime) & (1 << bit)) != 0) { continue; }
+					long expanded = Cube.pack(Cube.value(prime) & ~(1 << bit), Cube.mask(prime) | (1 << bit));
+					assertFalse(isImplicant(expanded, onSet), Cube.toBitString(prime, 20));
+				}
+			}
+		}
+	}
+
+	// large enough levels for the combining to be split into tasks
+	@Test
+	void parallelCombiningFindsTheSamePrimes() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Random random = new Random(7);
+			for (int i = 0; i < 3; i++) {
+				TruthTable table = TestFunctions.randomTable(13, 0.6, random);
+				int[] dontCares = TestFunctions.randomTable(13, 0.1, random).andNot(table).getMinterms();
+				QuineMcCluskey sequential = new QuineMcCluskey(13, table.getMinterms(), dontCares);
+				QuineMcCluskey parallel = new QuineMcCluskey(13, table.getMinterms(), dontCares);
+				parallel.setPool(pool);
+				assertArrayEquals(sequential.findPrimeImplicants(), parallel.findPrimeImplicants());
+				assertArrayEquals(sequential.findEssentialPrimeImplicants(), parallel.findEssentialPrimeImplicants());
+			}
+
+			Minimizer minimizer = new Minimizer().withPool(pool);
+			for (int i = 0; i < 20; i++) {
+				TruthTable table = TestFunctions.randomTable(6, 0.5, random);
+				List<String> vars = Minimizer.getDefaultVars(6);
+				TestFunctions.assertSameResult(new Minimizer().minimize(table, vars), minimizer.minimize(table, vars));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void rowsGivenAsBothAreDontCares() {
+		Random random = new Random(11);
+		for (Minimizer.Engine engine : Minimizer.Engine.values()) {
+			Minimizer minimizer = new Minimizer(engine);
+			for (int i = 0; i < 100; i++) {
+				TruthTable table = TestFunctions.randomTable(4, 0.5, random);
+				TruthTable dontCares = TestFunctions.randomTable(4, 0.3, random);
+				MinimizationResult overlapping = minimizer.minimize(table.getMinterms(), dontCares.getMinterms(), 4);
+				MinimizationResult separate = minimizer.minimize(table.andNot(dontCares).getMinterms(), dontCares.getMinterms(), 4);
+				TestFunctions.assertSameResult(separate, overlapping);
+				for (int mt : overlapping.getMinterms()) {
+					assertFalse(dontCares.get(mt), "minterm " + mt + " is a don't-care");
+				}
+			}
+		}
+		QuineMcCluskey qm = new QuineMcCluskey(3, new int[] { 1, 3, 5 }, new int[] { 3, 7 });
+		assertArrayEquals(new int[] { 1, 5 }, qm.getMinterms());
+		assertArrayEquals(new int[] { 3, 7 }, qm.getDontCares());
+	}
+
+	@Test
+	void packsCubes() {
+		for (String cube : TestFunctions.allCubes(4)) {
+			long packed = Cube.fromBitString(cube);
+			assertEquals(cube, Cube.toBitString(packed, 4));
+			for (int row = 0; row < 16; row++) {
+				assertEquals(TestFunctions.covers(cube, row), Cube.covers(packed, row), cube + " on row " + row);
+			}
+		}
+	}
+
+	@Test
+	void petrickFindsTheIrredundantCovers() {
+		Random random = new Random(5);
+		for (int i = 0; i < 300; i++) {
+			int numCandidates = 1 + random.nextInt(8);
+			int numElements = 1 + random.nextInt(8);
+			BitSet[] coveredBy = new BitSet[numElements];
+			for (int e = 0; e < numElements; e++) {
+				coveredBy[e] = new BitSet();
+				coveredBy[e].set(random.nextInt(numCandidates));
+				for (int c = 0; c < numCandidates; c++) {
+					if (random.nextInt(3) == 0) { coveredBy[e].set(c); }
+				}
+			}
+
+			HashSet<BitSet> expected = new HashSet<BitSet>();
+			for (int subset = 0; subset < 1 << numCandidates; subset++) {
+				BitSet cover = BitSet.valueOf(new long[] { subset });
+				if (!isCover(cover, coveredBy)) { continue; }
+				boolean irredundant = true;
+				for (int c = cover.nextSetBit(0); c >= 0; c = cover.nextSetBit(c + 1)) {
+					BitSet smaller = (BitSet)cover.clone();
+					smaller.clear(c);
+					if (isCover(smaller, coveredBy)) { irredundant = false; }
+				}
+				if (irredundant) { expected.add(cover); }
+			}
+			assertEquals(expected, new HashSet<BitSet>(new Petrick(coveredBy).expand()), Arrays.toString(coveredBy));
+		}
+	}
+
+	// checks the primes, essentials, uncovered minterms and minimum covers against brute force
+	private static void checkFunction(TruthTable table, TruthTable dontCares) {
+		int numVars = table.getNumVars();
+		QuineMcCluskey qm = new QuineMcCluskey(numVars, table.getMinterms(), dontCares.getMinterms());
+		String name = Arrays.toString(table.getMinterms()) + " | " + Arrays.toString(dontCares.getMinterms());
+		int[] minterms = table.andNot(dontCares).getMinterms();
+
+		List<String> primes = bruteForcePrimes(table, dontCares);
+		List<String> actual = Cube.toBitStrings(qm.findPrimeImplicants(), numVars);
+		assertEquals(primes.size(), actual.size(), name);
+		assertEquals(new TreeSet<String>(primes), new TreeSet<String>(actual), name);
+
+		TreeSet<String> essentials = new TreeSet<String>();
+		for (int row : minterms) {
+			String only = null;
+			int numCovering = 0;
+			for (String prime : primes) {
+				if (TestFunctions.covers(prime, row)) {
+					only = prime;
+					numCovering++;
+				}
+			}
+			if (numCovering == 1) { essentials.add(only); }
+		}
+		assertEquals(essentials, new TreeSet<String>(Cube.toBitStrings(qm.findEssentialPrimeImplicants(), numVars)), name);
+		assertEquals(primes.size() - essentials.size(), qm.getNonessentialPrimeImplicants().length, name);
+
+		ArrayList<Integer> uncovered = new ArrayList<Integer>();
+		for (int row : minterms) {
+			boolean covered = false;
+			for (String essential : essentials) {
+				if (TestFunctions.covers(essential, row)) { covered = true; }
+			}
+			if (!covered) { uncovered.add(row); }
+		}
+		assertArrayEquals(uncovered.stream().mapToInt(Integer::intValue).toArray(), qm.getUncoveredMinterms(), name);
+
+		long[] nonessentials = qm.getNonessentialPrimeImplicants();
+		CoverSolver solver = CoverSolver.forImplicants(numVars, nonessentials, qm.getUncoveredMinterms());
+		HashSet<Set<String>> covers = new HashSet<Set<String>>();
+		for (int[] cover : solver.findMinimumCovers()) {
+			HashSet<String> solution = new HashSet<String>(essentials);
+			for (int c : cover) {
+				solution.add(Cube.toBitString(nonessentials[c], numVars));
+			}
+			covers.add(solution);
+		}
+		Set<Set<String>> expected = bruteForceMinimumCovers(primes, minterms);
+		assertEquals(expected, covers, name);
+
+		solver = CoverSolver.forImplicants(numVars, nonessentials, qm.getUncoveredMinterms());
+		solver.setMethod(CoverSolver.Method.PETRICK);
+		HashSet<Set<String>> petrickCovers = new HashSet<Set<String>>();
+		for (int[] cover : solver.findMinimumCovers()) {
+			HashSet<String> solution = new HashSet<String>(essentials);
+			for (int c : cover) {
+				solution.add(Cube.toBitString(nonessentials[c], numVars));
+			}
+			petrickCovers.add(solution);
+		}
+		assertEquals(expected, petrickCovers, name);
+
+		solver = CoverSolver.forImplicants(numVars, nonessentials, qm.getUncoveredMinterms());
+		solver.setFindAllSolutions(false);
+		ArrayList<int[]> one = solver.findMinimumCovers();
+		assertEquals(1, one.size(), name);
+		HashSet<String> solution = new HashSet<String>(essentials);
+		for (int c : one.get(0)) {
+			solution.add(Cube.toBitString(nonessentials[c], numVars));
+		}
+		assertTrue(expected.contains(solution), name);
+	}
+
+	// returns every implicant covering a minterm that no other implicant contains
+	private static List<String> bruteForcePrimes(TruthTable table, TruthTable dontCares) {
+		ArrayList<String> implicants = new ArrayList<String>();
+		for (String cube : TestFunctions.allCubes(table.getNumVars())) {
+			if (TestFunctions.isImplicant(cube, table, dontCares)) { implicants.add(cube); }
+		}
+		ArrayList<String> ret = new ArrayList<String>();
+		for (String cube : implicants) {
+			boolean coversMinterm = false;
+			for (int row = 0; row < table.getNumRows(); row++) {
+				if (table.get(row) && !dontCares.get(row) && TestFunctions.covers(cube, row)) { coversMinterm = true; }
+			}
+			boolean maximal = true;
+			for (String other : implicants) {
+				if (!other.equals(cube) && contains(other, cube)) { maximal = false; }
+			}
+			if (coversMinterm && maximal) { ret.add(cube); }
+		}
+		return ret;
+	}
+
+	// returns every set of primes covering the minterms with the fewest cubes and then literals,
+	// searching all covers of 1, 2, ... cubes until some exist
+	private static Set<Set<String>> bruteForceMinimumCovers(List<String> primes, int[] minterms) {
+		HashSet<Set<String>> covers = new HashSet<Set<String>>();
+		for (int maxCubes = 0; covers.isEmpty(); maxCubes++) {
+			search(primes, minterms, new ArrayList<String>(), maxCubes, covers);
+		}
+		int minLiterals = Integer.MAX_VALUE;
+		for (Set<String> cover : covers) {
+			minLiterals = Math.min(minLiterals, numLiterals(cover));
+		}
+		HashSet<Set<String>> ret = new HashSet<Set<String>>();
+		for (Set<String> cover : covers) {
+			if (numLiterals(cover) == minLiterals) { ret.add(cover); }
+		}
+		return ret;
+	}
+
+	// adds every cover of at most maxCubes primes, covering the first uncovered minterm with each prime
+	// that covers it in turn
+	private static void search(List<String> primes, int[] minterms, ArrayList<String> chosen, int maxCubes,
+			Set<Set<String>> covers) {
+		Integer uncovered = null;
+		for (int mt : minterms) {
+			boolean covered = false;
+			for (String cube : chosen) {
+				if (TestFunctions.covers(cube, mt)) { covered = true; }
+			}
+			if (!covered) {
+				uncovered = mt;
+				break;
+			}
+		}
+		if (uncovered == null) {
+			covers.add(new HashSet<String>(chosen));
+			return;
+		}
+		if (chosen.size() == maxCubes) { return; }
+		for (String prime : primes) {
+			if (TestFunctions.covers(prime, uncovered)) {
+				chosen.add(prime);
+				search(primes, minterms, chosen, maxCubes, covers);
+				chosen.remove(chosen.size() - 1);
+			}
+		}
+	}
+
+	// returns the number of fixed positions over all the cubes
+	private static int numLiterals(Set<String> cubes) {
+		int ret = 0;
+		for (String cube : cubes) {
+			ret += cube.replace("-", "").length();
+		}
+		return ret;
+	}
+
+	// returns true if the candidates meet every clause
+	private static boolean isCover(BitSet candidates, BitSet[] coveredBy) {
+		for (BitSet clause : coveredBy) {
+			if (!clause.intersects(candidates)) { return false; }
+		}
+		return true;
+	}
+
+	// returns true if cube a contains cube b
+	private static boolean contains(String a, String b) {
+		for (int i = 0; i < a.length(); i++) {
+			if (a.charAt(i) != '-' && a.charAt(i) != b.charAt(i)) { return false; }
+		}
+		return true;
+	}
+
+	// returns true if every row of the packed cube is in the on-set
+	private static boolean isImplicant(long cube, Set<Integer> onSet) {
+		int value = Cube.value(cube);
+		int mask = Cube.mask(cube);
+		for (int sub = mask; ; sub = (sub - 1) & mask) {
+			if (!onSet.contains(value | sub)) { return false; }
+			if (sub == 0) { return true; }
+		}
+	}
+}
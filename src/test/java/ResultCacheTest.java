@@ -0,0 +1,79 @@
+// Checks that a result served from a ResultCache is exactly the result of minimizing the function
+// afresh, don't-cares and renamed variables included, for a plain cache and for an NP-canonical one
+// mapping results back through the transform. Also checks the canonical forms of NP transforms, LRU
+// eviction, and that heuristic expressions are looked up too.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class ResultCacheTest {
+
+	@Test
+	void cacheHitsMatchFreshMinimization() {
+		Random random = new Random(31);
+		for (boolean npCanonical : new boolean[] { false, true }) {
+			ResultCache cache = new ResultCache(1 << 12, npCanonical);
+			Minimizer cached = new Minimizer().withCache(cache);
+			Minimizer fresh = new Minimizer();
+			for (int i = 0; i < 2000; i++) {
+				int numVars = 1 + random.nextInt(5);
+				TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+				TruthTable dontCares = (i % 3 == 0) ? TestFunctions.randomTable(numVars, 0.2, random).andNot(table) : null;
+				List<String> vars = (i % 2 == 0) ? Minimizer.getDefaultVars(numVars) : Arrays.asList("vwxyz".substring(0, numVars).split(""));
+				TestFunctions.assertSameResult(fresh.minimize(table, dontCares, vars), cached.minimize(table, dontCares, vars));
+			}
+			assertTrue(cache.getHits() > 0);
+		}
+	}
+
+	@Test
+	void variantsShareTheirCanonicalForm() {
+		Random random = new Random(37);
+		for (int i = 0; i < 200; i++) {
+			int numVars = 1 + random.nextInt(4);
+			TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+			TruthTable canonical = NpTransform.canonicalize(table).apply(table);
+			List<Integer> positions = new ArrayList<Integer>();
+			for (int v = 0; v < numVars; v++) {
+				positions.add(v);
+			}
+			Collections.shuffle(positions, random);
+			NpTransform variant = new NpTransform(positions.stream().mapToInt(Integer::intValue).toArray(), random.nextInt(1 << numVars));
+			TruthTable other = variant.apply(table);
+			assertEquals(table.getNumMinterms(), other.getNumMinterms());
+			assertEquals(canonical, NpTransform.canonicalize(other).apply(other));
+		}
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsed() {
+		ResultCache cache = new ResultCache(2, false);
+		Minimizer minimizer = new Minimizer().withCache(cache);
+		minimizer.minimize("ab");
+		minimizer.minimize("a + b");
+		minimizer.minimize("ab");
+		minimizer.minimize("a'b");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.getHits());
+
+		// "a + b" was the least recently used, "ab" is still there
+		minimizer.minimize("ba");
+		minimizer.minimize("b + a");
+		assertEquals(2, cache.getHits());
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	void heuristicExpressionsUseTheCache() {
+		ResultCache cache = new ResultCache(16, false);
+		Minimizer minimizer = new Minimizer(Minimizer.Engine.HEURISTIC).withCache(cache);
+		MinimizationResult first = minimizer.minimize("ab + a'c + bc");
+		MinimizationResult second = minimizer.minimize("ab + a'c + bc");
+		TestFunctions.assertSameResult(first, second);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+}
@@ -0,0 +1,116 @@
+// Round-trips results of every kind (exact with don't-cares, heuristic, product of sums, budget
+// exceeded, constant) through ResultCodec on its own and through a corpus file written by
+// ResultWriter and read back by ResultReader, header fields included.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class ResultCodecTest {
+
+	private static List<MinimizationResult> results() {
+		ArrayList<MinimizationResult> ret = new ArrayList<MinimizationResult>();
+		Random random = new Random(19);
+		Minimizer exact = new Minimizer();
+		for (int numVars = 0; numVars <= 6; numVars++) {
+			TruthTable table = TestFunctions.randomTable(numVars, 0.5, random);
+			TruthTable dontCares = TestFunctions.randomTable(numVars, 0.2, random).andNot(table);
+			ret.add(exact.minimize(table, Minimizer.getDefaultVars(numVars)));
+			ret.add(exact.minimize(table, dontCares, Minimizer.getDefaultVars(numVars)));
+		}
+		ret.add(exact.minimize("ab + c | a'b'"));
+		ret.add(exact.minimize("xy' + z"));
+		ret.add(exact.minimize(new TruthTable(4), Minimizer.getDefaultVars(4)));
+		ret.add(exact.minimize(new TruthTable(2).complement(), Minimizer.getDefaultVars(2)));
+		ret.add(new Minimizer(Minimizer.Engine.HEURISTIC).minimize("ab + a'c + bc'd + e'"));
+		ret.add(new Minimizer(Minimizer.Engine.HEURISTIC).minimize(TestFunctions.randomTable(8, 0.5, random), Minimizer.getDefaultVars(8)));
+		ret.add(new Minimizer().withMode(Minimizer.Mode.POS).minimize("(a + b)(c + d')"));
+		ret.add(new Minimizer().withBudget(MinimizationBudget.UNLIMITED.withMaxPrimeImplicants(1)).minimize("ab + cd + ef"));
+		return ret;
+	}
+
+	@Test
+	void encodesAndDecodes() {
+		List<MinimizationResult> results = results();
+		assertTrue(results.stream().anyMatch(MinimizationResult::hasDontCares));
+		assertTrue(results.stream().anyMatch(r -> r.getEngine() == Minimizer.Engine.HEURISTIC));
+		assertTrue(results.stream().anyMatch(MinimizationResult::isProductOfSums));
+		assertTrue(results.stream().anyMatch(MinimizationResult::isBudgetExceeded));
+		for (MinimizationResult result : results) {
+			byte[] record = ResultCodec.encode(result);
+			assertEquals(ResultCodec.getEncodedSize(result), record.length);
+			TestFunctions.assertSameResult(result, ResultCodec.decode(record));
+		}
+	}
+
+	@Test
+	void encodesVarints() {
+		ByteBuffer buf = ByteBuffer.allocate(64);
+		int[] values = { 0, 1, 127, 128, 300, 16383, 16384, 1 << 21, Integer.MAX_VALUE };
+		for (int value : values) {
+			int before = buf.position();
+			ResultCodec.putVarint(buf, value);
+			assertEquals(ResultCodec.getVarintSize(value), buf.position() - before);
+		}
+		buf.flip();
+		for (int value : values) {
+			assertEquals(value, ResultCodec.getVarint(buf));
+		}
+		assertFalse(buf.hasRemaining());
+	}
+
+	@Test
+	void rejectsMalformedRecords() {
+		byte[] record = ResultCodec.encode(new Minimizer().minimize("ab + c"));
+		record[1] = (byte)Minimizer.Engine.values().length;
+		assertThrows(IllegalArgumentException.class, () -> ResultCodec.decode(record));
+		byte[] truncated = Arrays.copyOf(ResultCodec.encode(new Minimizer().minimize("ab + c")), 6);
+		assertThrows(BufferUnderflowException.class, () -> ResultCodec.decode(truncated));
+	}
+
+	@Test
+	void writesAndReadsCorpus(@TempDir Path dir) throws IOException {
+		List<MinimizationResult> results = results();
+		Path path = dir.resolve("results.bamr");
+		try (ResultWriter writer = ResultWriter.create(path)) {
+			for (MinimizationResult result : results) {
+				writer.write(result);
+			}
+			assertEquals(results.size(), writer.getNumRecords());
+		}
+
+		ResultReader reader = ResultReader.open(path);
+		for (MinimizationResult result : results) {
+			assertTrue(reader.next());
+			assertEquals(result.getNumVars(), reader.getNumVars());
+			assertEquals(result.getEngine(), reader.getEngine());
+			assertEquals(result.isProductOfSums(), reader.isProductOfSums());
+			assertEquals(result.isBudgetExceeded(), reader.isBudgetExceeded());
+			assertEquals(result.hasTruthTable(), reader.hasTruthTable());
+			assertEquals(result.hasDontCares(), reader.hasDontCares());
+			if (result.hasTruthTable()) {
+				TruthTable table = result.getTruthTable();
+				assertEquals(table, reader.readTruthTable());
+				assertEquals(table.getNumMinterms(), reader.getNumMinterms());
+				for (int row = 0; row < table.getNumRows(); row++) {
+					assertEquals(table.get(row), reader.getRow(row));
+					if (result.hasDontCares()) { assertEquals(result.getDontCareTable().get(row), reader.isDontCare(row)); }
+				}
+			}
+			TestFunctions.assertSameResult(result, reader.readResult());
+		}
+		assertFalse(reader.next());
+	}
+
+	@Test
+	void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+		Path path = dir.resolve("other.bin");
+		Files.write(path, new byte[] { 'B', 'A', 'M', 'S', 1 });
+		assertThrows(IllegalArgumentException.class, () -> ResultReader.open(path));
+	}
+}
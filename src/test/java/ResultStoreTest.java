@@ -0,0 +1,79 @@
+// Checks that looking a function up in a ResultStore gives exactly the result of minimizing it
+// afresh, implicant order included, for every function of up to 4 variables, and that the Minimizer
+// consults it only where it should, whatever the engine.
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class ResultStoreTest {
+
+	@TempDir
+	static Path dir;
+
+	private static ResultStore store;
+
+	@BeforeAll
+	static void generate() throws IOException {
+		Path path = dir.resolve("results.bams");
+		assertEquals(3 + 6 + 22 + 402, ResultStore.generate(path, 4, new Minimizer()));
+		store = ResultStore.open(path);
+	}
+
+	@Test
+	void countsTheClasses() {
+		assertEquals(4, store.getMaxVars());
+		assertEquals(3, store.getNumClasses(1));
+		assertEquals(6, store.getNumClasses(2));
+		assertEquals(22, store.getNumClasses(3));
+		assertEquals(402, store.getNumClasses(4));
+		assertEquals(0, store.getNumClasses(5));
+	}
+
+	@Test
+	void lookupsMatchFreshMinimization() {
+		Minimizer minimizer = new Minimizer();
+		for (int numVars = 1; numVars <= 4; numVars++) {
+			List<String> vars = Minimizer.getDefaultVars(numVars);
+			for (long f = 0; f < 1L << (1 << numVars); f++) {
+				TruthTable table = TruthTable.fromWords(numVars, new long[] { f });
+				TestFunctions.assertSameResult(minimizer.minimize(table, vars), store.lookup(table, vars));
+			}
+		}
+		List<String> vars = Arrays.asList("w", "x", "y", "z");
+		TruthTable table = TruthTable.fromWords(4, new long[] { 0x6A5CL });
+		TestFunctions.assertSameResult(minimizer.minimize(table, vars), store.lookup(table, vars));
+		assertNull(store.lookup(new TruthTable(5), Minimizer.getDefaultVars(5)));
+	}
+
+	@Test
+	void minimizerUsesTheStore() {
+		MetricsRegistry metrics = new MetricsRegistry();
+		Minimizer minimizer = new Minimizer().withStore(store).withListener(metrics);
+		TestFunctions.assertSameResult(new Minimizer().minimize("ab'c + d"), minimizer.minimize("ab'c + d"));
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.STORE_HITS));
+
+		// don't-cares and larger functions are minimized as usual
+		TestFunctions.assertSameResult(new Minimizer().minimize("ab'c + d | a'b'"), minimizer.minimize("ab'c + d | a'b'"));
+		TestFunctions.assertSameResult(new Minimizer().minimize("ab'c + de"), minimizer.minimize("ab'c + de"));
+		assertEquals(1, metrics.getCount(MinimizationListener.Counter.STORE_HITS));
+
+		// the heuristic engine builds the truth table of a small expression to look it up
+		Minimizer heuristic = new Minimizer(Minimizer.Engine.HEURISTIC).withStore(store).withListener(metrics);
+		MinimizationResult result = heuristic.minimize("ab + a'c + bc");
+		assertTrue(result.hasTruthTable());
+		TestFunctions.assertSameResult(new Minimizer().minimize("ab + a'c + bc"), result);
+		assertEquals(2, metrics.getCount(MinimizationListener.Counter.STORE_HITS));
+	}
+
+	@Test
+	void rejectsOtherFiles() throws IOException {
+		Path path = dir.resolve("other.bin");
+		Files.write(path, new byte[] { 'B', 'A', 'M', 'R', 1, 0, 0, 0 });
+		assertThrows(IllegalArgumentException.class, () -> ResultStore.open(path));
+	}
+}
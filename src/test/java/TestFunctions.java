@@ -0,0 +1,127 @@
+// Helpers shared by the tests: random truth tables and expressions, checking cubes and covers
+// against a truth table row by row, and comparing results field by field (MinimizationResult has no
+// equals).
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+final class TestFunctions {
+
+	private TestFunctions() {
+	}
+
+	// returns a table with each row true with the given probability
+	static TruthTable randomTable(int numVars, double density, Random random) {
+		TruthTable ret = new TruthTable(numVars);
+		for (int row = 0; row < ret.getNumRows(); row++) {
+			ret.set(row, random.nextDouble() < density);
+		}
+		return ret;
+	}
+
+	// returns a random sum of products of variables and bracketed subexpressions nested up to depth
+	// deep, without whitespace; bracketed subexpressions are complemented only if asked
+	static String randomExpression(List<String> vars, Random random, int depth, boolean complementGroups) {
+		StringBuilder sb = new StringBuilder();
+		int numTerms = 1 + random.nextInt(3);
+		for (int t = 0; t < numTerms; t++) {
+			if (t > 0) { sb.append('+'); }
+			int numFactors = 1 + random.nextInt(3);
+			for (int f = 0; f < numFactors; f++) {
+				int kind = (depth > 0) ? random.nextInt(4) : 0;
+				if (kind == 0) {
+					sb.append(vars.get(random.nextInt(vars.size())));
+				} else {
+					boolean square = kind == 1;
+					sb.append(square ? '[' : '(');
+					sb.append(randomExpression(vars, random, depth - 1, complementGroups));
+					sb.append(square ? ']' : ')');
+					if (!complementGroups) { continue; }
+				}
+				if (random.nextInt(3) == 0) { sb.append('\''); }
+			}
+		}
+		return sb.toString();
+	}
+
+	// returns true if the '0'/'1'/'-' cube covers the row, the first character being the most
+	// significant bit
+	static boolean covers(String cube, int row) {
+		int numVars = cube.length();
+		for (int i = 0; i < numVars; i++) {
+			char c = cube.charAt(i);
+			if (c == '-') { continue; }
+			boolean bit = ((row >>> (numVars - 1 - i)) & 1) != 0;
+			if (bit != (c == '1')) { return false; }
+		}
+		return true;
+	}
+
+	// returns true if every row of the cube is true or a don't-care
+	static boolean isImplicant(String cube, TruthTable table, TruthTable dontCares) {
+		for (int row = 0; row < table.getNumRows(); row++) {
+			if (covers(cube, row) && !table.get(row) && (dontCares == null || !dontCares.get(row))) { return false; }
+		}
+		return true;
+	}
+
+	// returns every cube of numVars variables, 3^numVars of them
+	static List<String> allCubes(int numVars) {
+		ArrayList<String> ret = new ArrayList<String>();
+		ret.add("");
+		for (int i = 0; i < numVars; i++) {
+			ArrayList<String> next = new ArrayList<String>();
+			for (String prefix : ret) {
+				next.add(prefix + '0');
+				next.add(prefix + '1');
+				next.add(prefix + '-');
+			}
+			ret = next;
+		}
+		return ret;
+	}
+
+	// asserts that the cubes cover every true row that is not a don't-care and no false row
+	static void assertCovers(List<String> cubes, TruthTable table, TruthTable dontCares) {
+		for (int row = 0; row < table.getNumRows(); row++) {
+			boolean dc = dontCares != null && dontCares.get(row);
+			if (dc) { continue; }
+			boolean covered = false;
+			for (String cube : cubes) {
+				if (covers(cube, row)) {
+					covered = true;
+					break;
+				}
+			}
+			assertEquals(table.get(row), covered, "row " + row + " of " + cubes);
+		}
+	}
+
+	// returns the truth table of a reduced expression, which may be a constant
+	static TruthTable truthTable(String reduced, List<String> vars) {
+		TruthTable ret = new TruthTable(vars.size());
+		if (reduced.equals("0") || reduced.equals("1")) {
+			for (int row = 0; row < ret.getNumRows(); row++) {
+				ret.set(row, reduced.equals("1"));
+			}
+			return ret;
+		}
+		return TruthTable.fromExpression(new BooleanExpression(BooleanExpression.normalize(reduced), new ArrayList<String>(vars)));
+	}
+
+	// asserts that the results agree on everything a result records
+	static void assertSameResult(MinimizationResult expected, MinimizationResult actual) {
+		assertEquals(expected.getVars(), actual.getVars());
+		assertEquals(expected.getEngine(), actual.getEngine());
+		assertEquals(expected.isProductOfSums(), actual.isProductOfSums());
+		assertEquals(expected.hasTruthTable(), actual.hasTruthTable());
+		if (expected.hasTruthTable()) { assertEquals(expected.getTruthTable(), actual.getTruthTable()); }
+		assertEquals(expected.hasDontCares(), actual.hasDontCares());
+		if (expected.hasDontCares()) { assertEquals(expected.getDontCareTable(), actual.getDontCareTable()); }
+		assertEquals(expected.getPrimeImplicants(), actual.getPrimeImplicants());
+		assertEquals(expected.getEssentialPrimeImplicants(), actual.getEssentialPrimeImplicants());
+		assertEquals(expected.getSolutions(), actual.getSolutions());
+		assertEquals(expected.getReducedExpression(), actual.getReducedExpression());
+	}
+}